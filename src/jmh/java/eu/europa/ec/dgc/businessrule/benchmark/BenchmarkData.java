@@ -0,0 +1,95 @@
+package eu.europa.ec.dgc.businessrule.benchmark;
+
+import eu.europa.ec.dgc.businessrule.config.JksSigningConfig;
+import eu.europa.ec.dgc.businessrule.restapi.dto.BusinessRuleListItemDto;
+import eu.europa.ec.dgc.businessrule.testdata.BusinessRulesTestHelper;
+import eu.europa.ec.dgc.gateway.connector.model.ValidationRule;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic data for the benchmarks. The rules are copies of a test rule with their own identifier and country, so
+ * every rule has a different hash like the rules downloaded from the gateway.
+ */
+public final class BenchmarkData {
+
+    public static final String KEY_STORE_FILE = "certs/signing.jks";
+    public static final String KEY_STORE_PASSWORD = "dgca";
+    public static final String CERT_ALIAS = "dgca";
+
+    private static final String[] COUNTRIES = {
+        "AT", "BE", "BG", "CH", "CY", "CZ", "DE", "DK", "EE", "EL", "ES", "FI", "FR", "HR", "HU",
+        "IE", "IS", "IT", "LI", "LT", "LU", "LV", "MT", "NL", "NO", "PL", "PT", "RO", "SE", "SI", "SK"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates validation rules as they are returned by the gateway connector.
+     */
+    public static List<ValidationRule> validationRules(int count) {
+        List<ValidationRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String country = COUNTRIES[i % COUNTRIES.length];
+            String identifier = "VR-" + country + "-" + i;
+
+            ValidationRule rule = new ValidationRule();
+            rule.setIdentifier(identifier);
+            rule.setVersion(BusinessRulesTestHelper.BR_VERSION_1);
+            rule.setCountry(country);
+            rule.setRawJson(ruleJson(identifier, country));
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    /**
+     * Creates the items of the business rules list.
+     */
+    public static List<BusinessRuleListItemDto> ruleListItems(int count) {
+        List<BusinessRuleListItemDto> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String country = COUNTRIES[i % COUNTRIES.length];
+            items.add(new BusinessRuleListItemDto("VR-" + country + "-" + i, BusinessRulesTestHelper.BR_VERSION_1,
+                country, String.format("%064x", i)));
+        }
+        return items;
+    }
+
+    /**
+     * Returns the raw JSON of a rule.
+     */
+    public static String ruleJson(String identifier, String country) {
+        return BusinessRulesTestHelper.BR_DATA_1
+            .replace(BusinessRulesTestHelper.BR_IDENTIFIER_1, identifier)
+            .replace("\"Country\":\"DE\"", "\"Country\":\"" + country + "\"");
+    }
+
+    /**
+     * Returns the signing configuration of the jks-signing profile. The benchmarks have to be started from the
+     * project directory.
+     */
+    public static JksSigningConfig jksSigningConfig() {
+        JksSigningConfig config = new JksSigningConfig();
+        config.setKeyStoreFile(KEY_STORE_FILE);
+        config.setKeyStorePassword(KEY_STORE_PASSWORD);
+        config.setCertAlias(CERT_ALIAS);
+        config.setPrivateKeyPassword(KEY_STORE_PASSWORD);
+        return config;
+    }
+
+    /**
+     * Loads the key store of the jks-signing profile.
+     */
+    public static KeyStore keyStore() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        try (InputStream is = new FileInputStream(KEY_STORE_FILE)) {
+            keyStore.load(is, KEY_STORE_PASSWORD.toCharArray());
+        }
+        return keyStore;
+    }
+}
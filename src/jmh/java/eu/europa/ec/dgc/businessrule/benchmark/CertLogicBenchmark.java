@@ -0,0 +1,71 @@
+package eu.europa.ec.dgc.businessrule.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.europa.ec.dgc.businessrule.utils.certlogic.CertLogicCompiler;
+import eu.europa.ec.dgc.businessrule.utils.certlogic.CertLogicExpression;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the evaluations per second on a single core of a typical vaccination acceptance rule.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class CertLogicBenchmark {
+
+    private static final String LOGIC = "{\"if\":[{\"var\":\"payload.v.0\"},{\"and\":["
+        + "{\"in\":[{\"var\":\"payload.v.0.mp\"},{\"var\":\"external.valueSets.vaccines-covid-19-names\"}]},"
+        + "{\">=\":[{\"var\":\"payload.v.0.dn\"},{\"var\":\"payload.v.0.sd\"}]},"
+        + "{\"not-before\":[{\"plusTime\":[{\"var\":\"external.validationClock\"},0,\"day\"]},"
+        + "{\"plusTime\":[{\"var\":\"payload.v.0.dt\"},14,\"day\"]}]},"
+        + "{\"not-after\":[{\"plusTime\":[{\"var\":\"external.validationClock\"},0,\"day\"]},"
+        + "{\"plusTime\":[{\"var\":\"payload.v.0.dt\"},270,\"day\"]}]}]},true]}";
+
+    private static final String DATA = "{"
+        + "\"payload\":{\"ver\":\"1.3.0\",\"dob\":\"1964-08-12\",\"v\":[{\"tg\":\"840539006\",\"vp\":\"1119349007\","
+        + "\"mp\":\"EU/1/20/1528\",\"ma\":\"ORG-100030215\",\"dn\":2,\"sd\":2,\"dt\":\"2021-05-29\",\"co\":\"DE\","
+        + "\"is\":\"Robert Koch-Institut\",\"ci\":\"URN:UVCI:01DE/IZ12345A/5CWLU12RNOB9RXSEOP6FG8#W\"}]},"
+        + "\"external\":{\"validationClock\":\"2021-07-01T12:00:00Z\",\"countryCode\":\"DE\","
+        + "\"valueSets\":{\"vaccines-covid-19-names\":[\"EU/1/20/1528\",\"EU/1/20/1507\",\"EU/1/21/1529\","
+        + "\"EU/1/20/1525\"]}}"
+        + "}";
+
+    JsonNode logic;
+    CertLogicExpression compiled;
+    Map<?, ?> data;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        logic = objectMapper.readTree(LOGIC);
+        compiled = CertLogicCompiler.compile(logic);
+        data = objectMapper.readValue(DATA, Map.class);
+    }
+
+    @Benchmark
+    public Object evaluate() {
+        return compiled.evaluate(data);
+    }
+
+    @Benchmark
+    public CertLogicExpression compile() {
+        return CertLogicCompiler.compile(logic);
+    }
+}
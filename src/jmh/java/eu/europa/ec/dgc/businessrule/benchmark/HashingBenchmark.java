@@ -0,0 +1,50 @@
+package eu.europa.ec.dgc.businessrule.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.europa.ec.dgc.businessrule.utils.BusinessRulesUtils;
+import eu.europa.ec.dgc.utils.CertificateUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HashingBenchmark {
+
+    @Param({"10000"})
+    int ruleCount;
+
+    BusinessRulesUtils businessRulesUtils;
+    String rule;
+    String ruleList;
+
+    @Setup
+    public void setup() throws Exception {
+        businessRulesUtils = new BusinessRulesUtils(new CertificateUtils());
+        rule = BenchmarkData.ruleJson("VR-DE-1", "DE");
+        ruleList = new ObjectMapper().writeValueAsString(BenchmarkData.ruleListItems(ruleCount));
+    }
+
+    @Benchmark
+    public String hashRule() throws Exception {
+        return businessRulesUtils.calculateHash(rule);
+    }
+
+    @Benchmark
+    public String hashRuleList() throws Exception {
+        return businessRulesUtils.calculateHash(ruleList);
+    }
+}
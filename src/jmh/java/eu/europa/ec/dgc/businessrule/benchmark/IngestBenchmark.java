@@ -0,0 +1,81 @@
+package eu.europa.ec.dgc.businessrule.benchmark;
+
+import eu.europa.ec.dgc.businessrule.config.DgcConfigProperties;
+import eu.europa.ec.dgc.businessrule.entity.ListType;
+import eu.europa.ec.dgc.businessrule.model.BusinessRuleItem;
+import eu.europa.ec.dgc.businessrule.repository.SignedCountryRuleListRepository;
+import eu.europa.ec.dgc.businessrule.repository.SignedListHistoryRepository;
+import eu.europa.ec.dgc.businessrule.repository.SignedListRepository;
+import eu.europa.ec.dgc.businessrule.restapi.dto.BusinessRuleListItemDto;
+import eu.europa.ec.dgc.businessrule.service.BusinessRuleService;
+import eu.europa.ec.dgc.businessrule.service.ListSigningService;
+import eu.europa.ec.dgc.businessrule.utils.BusinessRulesUtils;
+import eu.europa.ec.dgc.gateway.connector.model.ValidationRule;
+import eu.europa.ec.dgc.utils.CertificateUtils;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * The steps of a business rules download which do not depend on the database. The repositories are mocks without
+ * stored data, so the signed lists are serialized and hashed on every invocation. Signing is measured by the
+ * {@link SigningBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestBenchmark {
+
+    @Param({"10000"})
+    int ruleCount;
+
+    BusinessRuleService businessRuleService;
+    ListSigningService listSigningService;
+    List<ValidationRule> validationRules;
+    List<BusinessRuleListItemDto> ruleListItems;
+
+    @Setup
+    public void setup() {
+        BusinessRulesUtils businessRulesUtils = new BusinessRulesUtils(new CertificateUtils());
+        listSigningService = new ListSigningService(mock(SignedListRepository.class),
+            mock(SignedListHistoryRepository.class), mock(SignedCountryRuleListRepository.class),
+            new DgcConfigProperties(), new MappingJackson2HttpMessageConverter(), Optional.empty(),
+            businessRulesUtils);
+        businessRuleService = new BusinessRuleService(null, listSigningService, Optional.empty(), null, null,
+            businessRulesUtils);
+        validationRules = BenchmarkData.validationRules(ruleCount);
+        ruleListItems = BenchmarkData.ruleListItems(ruleCount);
+    }
+
+    @Benchmark
+    public List<BusinessRuleItem> createBusinessRuleItemList() throws Exception {
+        return businessRuleService.createBusinessRuleItemList(validationRules);
+    }
+
+    @Benchmark
+    public void updateSignedList() {
+        listSigningService.updateSignedList(ruleListItems, ListType.Rules);
+    }
+
+    @Benchmark
+    public void updateSignedCountryRuleLists() {
+        listSigningService.updateSignedCountryRuleLists(ruleListItems);
+    }
+}
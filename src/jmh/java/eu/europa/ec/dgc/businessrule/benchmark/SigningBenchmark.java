@@ -0,0 +1,63 @@
+package eu.europa.ec.dgc.businessrule.benchmark;
+
+import eu.europa.ec.dgc.businessrule.service.JksSigningService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Signing with the key of the jks-signing profile. The uncached benchmarks use a new hash for every signature, so
+ * they measure the ECDSA signing and not the signature cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SigningBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    JksSigningService signingService;
+    final AtomicLong counter = new AtomicLong();
+
+    @Setup
+    public void setup() throws Exception {
+        signingService = new JksSigningService(BenchmarkData.jksSigningConfig());
+        signingService.loadKeyStore();
+    }
+
+    @Benchmark
+    public String signUncached() {
+        return signingService.computeSignature(String.format("%064x", counter.incrementAndGet()));
+    }
+
+    @Benchmark
+    public String signCached() {
+        return signingService.computeSignature(String.format("%064x", 0));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<String, String> signBatchUncached() {
+        long first = counter.getAndAdd(BATCH_SIZE);
+        List<String> hashes = LongStream.range(first, first + BATCH_SIZE)
+            .mapToObj(i -> String.format("%064x", i))
+            .collect(Collectors.toList());
+        return signingService.computeSignatures(hashes);
+    }
+}
@@ -0,0 +1,81 @@
+package eu.europa.ec.dgc.businessrule.benchmark;
+
+import eu.europa.ec.dgc.businessrule.utils.VirtualThreads;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the Tomcat sized platform thread pool with virtual threads for requests which block on slow clients
+ * or the database. Each operation handles the given number of concurrent requests. The virtual variant needs
+ * Java 21 or later. The complete request path can be compared with the load harness and --dgc.virtualThreads=true.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadingBenchmark {
+
+    /**
+     * The default maximum number of Tomcat threads.
+     */
+    private static final int PLATFORM_POOL_SIZE = 200;
+
+    @Param({"platform", "virtual"})
+    String threads;
+
+    @Param({"200", "2000"})
+    int concurrentRequests;
+
+    @Param({"5"})
+    int blockingMillis;
+
+    ExecutorService executor;
+    byte[] body;
+
+    @Setup
+    public void setup() {
+        executor = "virtual".equals(threads)
+            ? VirtualThreads.newThreadPerTaskExecutor("benchmark-")
+            : Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+        body = BenchmarkData.ruleJson("VR-DE-1", "DE").getBytes();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public long blockingRequests() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            responses.add(executor.submit(() -> {
+                Thread.sleep(blockingMillis);
+                return body.length;
+            }));
+        }
+        long written = 0;
+        for (Future<Integer> response : responses) {
+            written += response.get();
+        }
+        return written;
+    }
+}
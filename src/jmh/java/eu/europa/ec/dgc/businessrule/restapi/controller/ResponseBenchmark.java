@@ -0,0 +1,74 @@
+package eu.europa.ec.dgc.businessrule.restapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.europa.ec.dgc.businessrule.benchmark.BenchmarkData;
+import eu.europa.ec.dgc.businessrule.model.SignedPayload;
+import eu.europa.ec.dgc.businessrule.utils.BusinessRulesUtils;
+import eu.europa.ec.dgc.utils.CertificateUtils;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Building the responses of the rule endpoints from a published snapshot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseBenchmark {
+
+    @Param({"10000"})
+    int ruleCount;
+
+    ObjectMapper objectMapper;
+    SignedPayload rulesList;
+    SignedPayload rule;
+
+    @Setup
+    public void setup() throws Exception {
+        BusinessRulesUtils businessRulesUtils = new BusinessRulesUtils(new CertificateUtils());
+        objectMapper = new ObjectMapper();
+
+        String rulesListJson = objectMapper.writeValueAsString(BenchmarkData.ruleListItems(ruleCount));
+        rulesList = SignedPayload.of(rulesListJson, businessRulesUtils.calculateHash(rulesListJson), "signature");
+        String ruleJson = BenchmarkData.ruleJson("VR-DE-1", "DE");
+        rule = SignedPayload.of(ruleJson, businessRulesUtils.calculateHash(ruleJson), "signature");
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> rulesList() {
+        return SignedPayloadResponses.ok(rulesList, "gzip, deflate, br");
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> rule() {
+        return SignedPayloadResponses.ok(rule, null);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] ruleBatch() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = SignedPayloadResponses.ndjson(objectMapper,
+            IntStream.range(0, SignedPayloadResponses.MAX_BATCH_SIZE)
+                .mapToObj(i -> SignedPayloadResponses.batchItem("DE", rule)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toByteArray();
+    }
+}
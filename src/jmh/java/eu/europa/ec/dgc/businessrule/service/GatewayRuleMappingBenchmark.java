@@ -0,0 +1,56 @@
+package eu.europa.ec.dgc.businessrule.service;
+
+import eu.europa.ec.dgc.businessrule.benchmark.BenchmarkData;
+import eu.europa.ec.dgc.gateway.connector.dto.ValidationRuleDto;
+import eu.europa.ec.dgc.gateway.connector.model.ValidationRule;
+import eu.europa.ec.dgc.signing.SignedStringMessageBuilder;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of a CMS signed rule as downloaded by the BTP gateway connector.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GatewayRuleMappingBenchmark {
+
+    GatewayDataDownloadBtpServiceImpl gatewayDataDownloadService;
+    ValidationRuleDto validationRuleDto;
+
+    @Setup
+    public void setup() throws Exception {
+        gatewayDataDownloadService = new GatewayDataDownloadBtpServiceImpl(null, null, null, null, null, null, null);
+
+        KeyStore keyStore = BenchmarkData.keyStore();
+        PrivateKey privateKey = (PrivateKey) keyStore.getKey(BenchmarkData.CERT_ALIAS,
+            BenchmarkData.KEY_STORE_PASSWORD.toCharArray());
+        validationRuleDto = new ValidationRuleDto();
+        validationRuleDto.setCms(new SignedStringMessageBuilder()
+            .withPayload(BenchmarkData.ruleJson("VR-DE-1", "DE"))
+            .withSigningCertificate(new JcaX509CertificateHolder(
+                (X509Certificate) keyStore.getCertificate(BenchmarkData.CERT_ALIAS)), privateKey)
+            .buildAsString());
+    }
+
+    @Benchmark
+    public ValidationRule mapRule() {
+        return gatewayDataDownloadService.mapRule(validationRuleDto);
+    }
+}
@@ -0,0 +1,100 @@
+package eu.europa.ec.dgc.businessrule.loadtest;
+
+import eu.europa.ec.dgc.businessrule.model.BusinessRuleItem;
+import eu.europa.ec.dgc.businessrule.model.ValueSetItem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The request paths replayed by the load harness.
+ */
+class AccessLog {
+
+    private static final Pattern REQUEST_LINE = Pattern.compile("\"GET (\\S+) HTTP/[0-9.]+\"");
+
+    private AccessLog() {
+    }
+
+    /**
+     * Reads the GET requests of an access log. Lines in the common or combined log format are supported as well as
+     * files with one path per line.
+     */
+    static List<String> read(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines
+                .map(AccessLog::requestPath)
+                .filter(path -> path != null)
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static String requestPath(String line) {
+        Matcher matcher = REQUEST_LINE.matcher(line);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        String trimmed = line.trim();
+        return trimmed.startsWith("/") ? trimmed : null;
+    }
+
+    /**
+     * Creates an access log with the usual request mix of the apps: mostly the lists, some countries and value sets.
+     */
+    static List<String> synthetic(int size, List<BusinessRuleItem> rules, List<ValueSetItem> valueSets,
+                                  Random random) {
+        List<String> paths = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int pick = random.nextInt(100);
+            if (pick < 35) {
+                paths.add("/rules");
+            } else if (pick < 65) {
+                paths.add("/valuesets");
+            } else if (pick < 85) {
+                paths.add("/countrylist");
+            } else if (pick < 95) {
+                paths.add("/rules/" + LoadTestData.COUNTRIES.get(random.nextInt(LoadTestData.COUNTRIES.size())));
+            } else if (pick < 98) {
+                paths.add("/valuesets/" + valueSets.get(random.nextInt(valueSets.size())).getHash());
+            } else {
+                BusinessRuleItem rule = rules.get(random.nextInt(rules.size()));
+                paths.add("/rules/" + rule.getCountry() + "/" + rule.getHash());
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Maps a request path to the endpoint it is reported under.
+     */
+    static String endpoint(String path) {
+        int query = path.indexOf('?');
+        String[] segments = (query < 0 ? path : path.substring(0, query)).replaceAll("^/+|/+$", "").split("/");
+        if (segments.length == 0 || segments.length > 3) {
+            return path;
+        }
+        if ("rules".equals(segments[0])) {
+            switch (segments.length) {
+                case 1:
+                    return "/rules";
+                case 2:
+                    return "changes".equals(segments[1]) ? "/rules/changes" : "/rules/{country}";
+                default:
+                    return "/rules/{country}/{hash}";
+            }
+        } else if ("valuesets".equals(segments[0]) && segments.length < 3) {
+            if (segments.length == 1) {
+                return "/valuesets";
+            }
+            return "changes".equals(segments[1]) ? "/valuesets/changes" : "/valuesets/{hash}";
+        }
+        return "/" + String.join("/", segments);
+    }
+}
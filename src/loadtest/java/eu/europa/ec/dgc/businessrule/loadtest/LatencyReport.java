@@ -0,0 +1,50 @@
+package eu.europa.ec.dgc.businessrule.loadtest;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies per phase and endpoint. The latency is measured from the time a request was scheduled, not from the
+ * time it was sent, so a stalled server shows up in the percentiles instead of lowering the request rate.
+ */
+class LatencyReport {
+
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void record(String phase, String endpoint, long latencyNanos, boolean error) {
+        String key = phase + " " + endpoint;
+        latencies.computeIfAbsent(key, k -> new ConcurrentHistogram(MAX_LATENCY, 3))
+            .recordValue(Math.min(latencyNanos, MAX_LATENCY));
+        if (error) {
+            errors.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+    }
+
+    void print(PrintStream out, double durationSeconds) {
+        out.printf("%-34s %9s %7s %9s %9s %9s %9s %9s%n",
+            "phase endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        new TreeMap<>(latencies).forEach((key, histogram) -> out.printf(
+            "%-34s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+            key,
+            histogram.getTotalCount(),
+            errors.getOrDefault(key, new LongAdder()).sum(),
+            histogram.getTotalCount() / durationSeconds,
+            millis(histogram.getValueAtPercentile(50)),
+            millis(histogram.getValueAtPercentile(99)),
+            millis(histogram.getValueAtPercentile(99.9)),
+            millis(histogram.getMaxValue())));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
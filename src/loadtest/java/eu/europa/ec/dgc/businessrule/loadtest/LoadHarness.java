@@ -0,0 +1,204 @@
+package eu.europa.ec.dgc.businessrule.loadtest;
+
+import eu.europa.ec.dgc.businessrule.DgcBusinessRuleServiceApplication;
+import eu.europa.ec.dgc.businessrule.model.BusinessRuleItem;
+import eu.europa.ec.dgc.businessrule.model.UpdateResult;
+import eu.europa.ec.dgc.businessrule.model.ValueSetItem;
+import eu.europa.ec.dgc.businessrule.service.BusinessRuleService;
+import eu.europa.ec.dgc.businessrule.service.CountryListService;
+import eu.europa.ec.dgc.businessrule.service.ValueSetService;
+import eu.europa.ec.dgc.businessrule.utils.BusinessRulesUtils;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Replays an access log against the application with an in memory H2 database at a fixed request rate and reports
+ * the latency percentiles per endpoint. Optionally a business rules sync runs during the load, followed by the
+ * burst of rule downloads the apps cause after an update.
+ *
+ * <p>Options are passed as key=value arguments, arguments starting with -- are passed to Spring:
+ * <ul>
+ *   <li>rate: requests per second (default 200)</li>
+ *   <li>duration: seconds of load (default 60)</li>
+ *   <li>warmup: seconds of load before the measurement (default 10)</li>
+ *   <li>accessLog: access log to replay, a synthetic request mix is used if not set</li>
+ *   <li>rules, valueSets: size of the data set (default 1000 and 20)</li>
+ *   <li>syncAt: second of the measurement the sync starts at, negative to disable (default duration / 2)</li>
+ *   <li>updatedRules: rules changed by the sync (default rules / 10)</li>
+ *   <li>clientThreads: threads of the HTTP client (default 16)</li>
+ * </ul>
+ */
+public final class LoadHarness {
+
+    private static final String PHASE_STEADY = "steady";
+    private static final String PHASE_SYNC = "sync";
+    private static final String PHASE_BURST = "burst";
+
+    private final Map<String, String> options;
+    private final AtomicBoolean syncRunning = new AtomicBoolean();
+    private final Queue<CompletableFuture<?>> requests = new ConcurrentLinkedQueue<>();
+
+    private HttpClient httpClient;
+    private String baseUrl;
+
+    private LoadHarness(Map<String, String> options) {
+        this.options = options;
+    }
+
+    /**
+     * Runs the load harness.
+     *
+     * @param args the options, see the class documentation.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        Arrays.stream(args)
+            .filter(arg -> !arg.startsWith("--") && arg.contains("="))
+            .forEach(arg -> options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1)));
+        String[] springArgs = Arrays.stream(args).filter(arg -> arg.startsWith("--")).toArray(String[]::new);
+
+        // system properties take precedence over the application.yml files, the -- arguments over both
+        System.getProperties().putIfAbsent("server.port", "0");
+        System.getProperties().putIfAbsent("management.server.port", "-1");
+        System.getProperties().putIfAbsent("spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+        System.getProperties().putIfAbsent("dgc.gateway.connector.enabled", "false");
+        System.getProperties().putIfAbsent("logging.level.root", "WARN");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DgcBusinessRuleServiceApplication.class)
+            .run(springArgs);
+        try {
+            new LoadHarness(options).run(context);
+        } finally {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private void run(ConfigurableApplicationContext context) throws Exception {
+        final int rate = intOption("rate", 200);
+        final int duration = intOption("duration", 60);
+        final int ruleCount = intOption("rules", 1000);
+        final int syncAt = intOption("syncAt", duration / 2);
+        final int updatedRules = intOption("updatedRules", ruleCount / 10);
+
+        BusinessRuleService businessRuleService = context.getBean(BusinessRuleService.class);
+        LoadTestData data = new LoadTestData(context.getBean(BusinessRulesUtils.class));
+        List<BusinessRuleItem> rules = data.rules(ruleCount, 0, "1.0.0");
+        List<ValueSetItem> valueSets = data.valueSets(intOption("valueSets", 20), 100);
+        businessRuleService.updateBusinessRules(rules);
+        context.getBean(ValueSetService.class).updateValueSets(valueSets);
+        context.getBean(CountryListService.class).updateCountryList(data.countryList());
+
+        List<String> paths = options.containsKey("accessLog")
+            ? AccessLog.read(Path.of(options.get("accessLog")))
+            : AccessLog.synthetic(10_000, rules, valueSets, new Random(42));
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("The access log does not contain any GET requests.");
+        }
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(intOption("clientThreads", 16));
+        httpClient = HttpClient.newBuilder()
+            .executor(clientExecutor)
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        System.out.printf("Replaying %d requests at %d req/s against %s%n", paths.size(), rate, baseUrl);
+        replay(paths, rate, intOption("warmup", 10), new LatencyReport(), -1, null);
+
+        LatencyReport report = new LatencyReport();
+        Runnable sync = () -> {
+            try {
+                syncRunning.set(true);
+                long start = System.nanoTime();
+                UpdateResult result = businessRuleService.updateBusinessRules(
+                    data.rules(ruleCount, updatedRules, "2.0.0"));
+                System.out.printf("Sync took %d ms: %s%n",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), result);
+                syncRunning.set(false);
+
+                for (BusinessRuleItem rule : data.rules(updatedRules, updatedRules, "2.0.0")) {
+                    send("/rules/" + rule.getCountry() + "/" + rule.getHash(), PHASE_BURST, System.nanoTime(),
+                        report);
+                }
+            } catch (Exception e) {
+                syncRunning.set(false);
+                System.err.println("Sync failed: " + e);
+            }
+        };
+        replay(paths, rate, duration, report, syncAt, sync);
+
+        report.print(System.out, duration);
+        clientExecutor.shutdownNow();
+    }
+
+    /**
+     * Sends the requests open loop: each request is sent at its scheduled time, independent of the responses.
+     */
+    private void replay(List<String> paths, int rate, int seconds, LatencyReport report, int syncAt, Runnable sync)
+        throws Exception {
+        final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        final long total = (long) rate * seconds;
+        final long start = System.nanoTime();
+        final long syncStart = syncAt < 0 ? Long.MAX_VALUE : start + TimeUnit.SECONDS.toNanos(syncAt);
+        Thread syncThread = null;
+
+        for (long i = 0; i < total; i++) {
+            long scheduled = start + i * intervalNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (sync != null && syncThread == null && scheduled >= syncStart) {
+                syncThread = new Thread(sync, "load-harness-sync");
+                syncThread.start();
+            }
+            send(paths.get((int) (i % paths.size())), syncRunning.get() ? PHASE_SYNC : PHASE_STEADY, scheduled,
+                report);
+        }
+
+        if (syncThread != null) {
+            syncThread.join();
+        }
+        CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0])).get(1, TimeUnit.MINUTES);
+        requests.clear();
+    }
+
+    private void send(String path, String phase, long scheduled, LatencyReport report) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Accept-Encoding", "gzip")
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+        requests.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .handle((response, e) -> {
+                report.record(phase, AccessLog.endpoint(path), System.nanoTime() - scheduled,
+                    e != null || response.statusCode() >= 400);
+                return null;
+            }));
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+}
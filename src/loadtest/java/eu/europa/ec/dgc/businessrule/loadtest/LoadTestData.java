@@ -0,0 +1,96 @@
+package eu.europa.ec.dgc.businessrule.loadtest;
+
+import eu.europa.ec.dgc.businessrule.model.BusinessRuleItem;
+import eu.europa.ec.dgc.businessrule.model.ValueSetItem;
+import eu.europa.ec.dgc.businessrule.utils.BusinessRulesUtils;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Synthetic rules, value sets and countries for the load harness. The rule data follows the test rules, every
+ * rule gets its own identifier and country so the hashes differ like the ones downloaded from the gateway.
+ */
+class LoadTestData {
+
+    static final List<String> COUNTRIES = Arrays.asList(
+        "AT", "BE", "BG", "CH", "CY", "CZ", "DE", "DK", "EE", "EL", "ES", "FI", "FR", "HR", "HU",
+        "IE", "IS", "IT", "LI", "LT", "LU", "LV", "MT", "NL", "NO", "PL", "PT", "RO", "SE", "SI", "SK");
+
+    private static final String RULE_TEMPLATE = "{"
+        + "\"Identifier\":\"%s\","
+        + "\"Version\":\"%s\","
+        + "\"SchemaVersion\":\"1.0.0\","
+        + "\"Engine\":\"CERTLOGIC\","
+        + "\"EngineVersion\":\"1.0.0\","
+        + "\"Type\":\"Acceptance\","
+        + "\"Country\":\"%s\","
+        + "\"CertificateType\":\"Vaccination\","
+        + "\"Description\":[{\"lang\":\"en\",\"desc\":\"Vaccination must be from June and doses must be 2\"}],"
+        + "\"ValidFrom\":\"2021-06-27T07:46:40Z\","
+        + "\"ValidTo\":\"2030-08-01T07:46:40Z\","
+        + "\"AffectedFields\":[\"dt\",\"dn\"],"
+        + "\"Logic\":{\"and\":[{\">=\":[{\"var\":\"dt\"},\"2021-06-01T00:00:00Z\"]},{\">=\":[{\"var\":\"dn\"},2]}]}"
+        + "}";
+
+    private static final String VALUE_SET_TEMPLATE = "{"
+        + "\"valueSetId\":\"%s\","
+        + "\"valueSetDate\":\"2021-04-27\","
+        + "\"valueSetValues\":{%s}"
+        + "}";
+
+    private final BusinessRulesUtils businessRulesUtils;
+
+    LoadTestData(BusinessRulesUtils businessRulesUtils) {
+        this.businessRulesUtils = businessRulesUtils;
+    }
+
+    /**
+     * Creates the rules. Rules whose index is below the number of updated rules get the given version, so a later
+     * call with a higher version replaces exactly these rules.
+     */
+    List<BusinessRuleItem> rules(int count, int updatedRules, String version) throws NoSuchAlgorithmException {
+        List<BusinessRuleItem> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String country = COUNTRIES.get(i % COUNTRIES.size());
+            String identifier = "VR-" + country + "-" + i;
+            String ruleVersion = i < updatedRules ? version : "1.0.0";
+
+            BusinessRuleItem rule = new BusinessRuleItem();
+            rule.setIdentifier(identifier);
+            rule.setCountry(country);
+            rule.setVersion(ruleVersion);
+            rule.setRawData(String.format(RULE_TEMPLATE, identifier, ruleVersion, country));
+            rule.setHash(businessRulesUtils.calculateHash(rule.getRawData()));
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    List<ValueSetItem> valueSets(int count, int codesPerValueSet) throws NoSuchAlgorithmException {
+        List<ValueSetItem> valueSets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = "value-set-" + i;
+            int valueSet = i;
+            String codes = IntStream.range(0, codesPerValueSet)
+                .mapToObj(code -> String.format("\"%d-%d\":{\"display\":\"Code %d of value set %d\",\"lang\":\"en\","
+                    + "\"active\":true,\"version\":\"\",\"system\":\"http://snomed.info/sct\"}",
+                    valueSet, code, code, valueSet))
+                .collect(Collectors.joining(","));
+
+            ValueSetItem item = new ValueSetItem();
+            item.setId(id);
+            item.setRawData(String.format(VALUE_SET_TEMPLATE, id, codes));
+            item.setHash(businessRulesUtils.calculateHash(item.getRawData()));
+            valueSets.add(item);
+        }
+        return valueSets;
+    }
+
+    String countryList() {
+        return COUNTRIES.stream().map(country -> "\"" + country + "\"").collect(Collectors.joining(",", "[", "]"));
+    }
+}
@@ -27,6 +27,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.ConfigurableApplicationContext;
 
 /**
  * The Application class.
@@ -42,6 +43,9 @@ public class DgcBusinessRuleServiceApplication extends SpringBootServletInitiali
      * @param args the args for the main method
      */
     public static void main(String[] args) {
-        SpringApplication.run(DgcBusinessRuleServiceApplication.class, args);
+        ConfigurableApplicationContext context = SpringApplication.run(DgcBusinessRuleServiceApplication.class, args);
+        if (context.getBean(DgcConfigProperties.class).getStartup().isExitWhenReady()) {
+            System.exit(SpringApplication.exit(context));
+        }
     }
 }
@@ -0,0 +1,65 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.businessrule.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Collections;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures one bounded Caffeine cache per cached query. Caches which are not registered here can not be used,
+ * so no unbounded cache is created by accident. All caches record statistics, which are exported through the
+ * actuator metrics endpoints.
+ *
+ * <p>The GET endpoints are served from the {@link eu.europa.ec.dgc.businessrule.model.DataSnapshot}, so none of
+ * these caches is on the request path. They only hold the full lists read by the services when the data is
+ * initialized or updated, one entry each.</p>
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String BUSINESS_RULES_LIST = "business_rules_list";
+    public static final String VALUE_SETS_LIST = "value_sets_list";
+    public static final String COUNTRY_LIST = "country_list";
+
+    /**
+     * Creates the cache manager with all caches.
+     *
+     * @return the cache manager.
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(Collections.emptyList());
+
+        for (String name : new String[] {BUSINESS_RULES_LIST, VALUE_SETS_LIST, COUNTRY_LIST}) {
+            cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                .maximumSize(1)
+                .recordStats()
+                .build());
+        }
+
+        return cacheManager;
+    }
+}
@@ -35,8 +35,109 @@ public class DgcConfigProperties {
 
     private final GatewayDownload countryListDownload = new GatewayDownload();
 
+    private final DataVersionPoll dataVersionPoll = new DataVersionPoll();
+
+    private final SnapshotFile snapshotFile = new SnapshotFile();
+
+    private final Startup startup = new Startup();
+
+    private final GatewayFetch gatewayFetch = new GatewayFetch();
+
+    private final Evaluation evaluation = new Evaluation();
+
     private String allowedCorsUrls;
 
+    /**
+     * Serves the snapshot restored from the snapshot file without initializing it from the database or storing
+     * it again, used by instances without an own database and gateway connection.
+     */
+    private boolean readOnly = false;
+
+    /**
+     * Handles requests and gateway fetches on virtual threads, requires Java 21 or later.
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * Number of list versions per list type kept for the changes endpoints.
+     */
+    private Integer signedListHistorySize = 10;
+
+    @Getter
+    @Setter
+    public static class GatewayFetch {
+        /**
+         * Maximum number of requests sent to the gateway at the same time.
+         */
+        private Integer maxConcurrentRequests = 8;
+
+        /**
+         * Timeout in milliseconds for establishing a connection and for getting one from the pool.
+         */
+        private Integer connectTimeout = 10000;
+
+        /**
+         * Timeout in milliseconds between two packets of a response.
+         */
+        private Integer socketTimeout = 30000;
+    }
+
+    @Getter
+    @Setter
+    public static class Evaluation {
+        /**
+         * Number of threads evaluating the items of batch evaluations, the number of cores if 0.
+         */
+        private Integer threads = 0;
+
+        /**
+         * Maximum number of items of a batch evaluation read ahead of the written results.
+         */
+        private Integer maxPendingItems = 1024;
+    }
+
+    @Getter
+    @Setter
+    public static class DataVersionPoll {
+        /**
+         * Time in milliseconds between two polls of the data versions, this is the maximum time an instance
+         * serves data which was replaced by another instance.
+         */
+        private Integer timeInterval = 5000;
+    }
+
+    @Getter
+    @Setter
+    public static class SnapshotFile {
+        /**
+         * Path of the local file the served data is stored in after every update and loaded from on start up.
+         * No file is used if empty.
+         */
+        private String path;
+
+        /**
+         * Loads files that are not signed if no signing service is configured. Without signing only the checksum
+         * of the file is verified.
+         */
+        private boolean allowUnsigned = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Startup {
+        /**
+         * Signs the lists and rebuilds the snapshot after the application is ready, if the snapshot has been
+         * restored from the snapshot file.
+         */
+        private boolean deferInit = false;
+
+        /**
+         * Stops the application as soon as it is ready, used for the training run of the class data sharing
+         * archive.
+         */
+        private boolean exitWhenReady = false;
+    }
+
     @Getter
     @Setter
     public static class GatewayDownload {
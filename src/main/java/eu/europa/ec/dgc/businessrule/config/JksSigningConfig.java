@@ -12,4 +12,5 @@ public class JksSigningConfig {
     private String keyStorePassword;
     private String certAlias;
     private String privateKeyPassword;
+    private long signatureCacheSize = 10000;
 }
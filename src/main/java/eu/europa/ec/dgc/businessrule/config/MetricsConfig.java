@@ -0,0 +1,159 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.businessrule.config;
+
+import eu.europa.ec.dgc.businessrule.model.DataSnapshot;
+import eu.europa.ec.dgc.businessrule.model.ListChanges;
+import eu.europa.ec.dgc.businessrule.model.RulesSnapshot;
+import eu.europa.ec.dgc.businessrule.model.SignedPayload;
+import eu.europa.ec.dgc.businessrule.model.ValueSetsSnapshot;
+import eu.europa.ec.dgc.businessrule.service.DataSnapshotService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Custom meters of the read path. The request latency per endpoint is recorded by the http.server.requests timer
+ * and the hits, misses and evictions of the caches by the cache metrics of Spring Boot, this adds the response
+ * sizes, the lookups without result and the memory held by the snapshot. All served data is held by the snapshot,
+ * so dgca.snapshot.bytes is the metric to size the heap of the pods by.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class MetricsConfig implements WebMvcConfigurer {
+
+    public static final String RESPONSE_SIZE = "dgca.http.response.size";
+    public static final String LOOKUPS_NOT_FOUND = "dgca.lookups.not.found";
+    public static final String SNAPSHOT_ENTRIES = "dgca.snapshot.entries";
+    public static final String SNAPSHOT_BYTES = "dgca.snapshot.bytes";
+
+    public static final String TYPE_RULE = "rule";
+    public static final String TYPE_VALUE_SET = "value_set";
+    public static final String TYPE_COUNTRY_LIST = "country_list";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ResponseSizeInterceptor(meterRegistry));
+    }
+
+    /**
+     * Gauges for the number of payloads and bytes held by the current data snapshot. The bytes include the gzip
+     * encoded bodies, the snapshot is the largest part of the heap. The binders are static, as the meter registry
+     * must not depend on this configuration.
+     *
+     * @param dataSnapshotService the service holding the snapshot.
+     * @return the binder of the gauges.
+     */
+    @Bean
+    public static MeterBinder snapshotMetrics(DataSnapshotService dataSnapshotService) {
+        return registry -> {
+            bindSnapshotGauges(registry, dataSnapshotService, TYPE_RULE, snapshot -> rulePayloads(snapshot.getRules()));
+            bindSnapshotGauges(registry, dataSnapshotService, TYPE_VALUE_SET,
+                snapshot -> valueSetPayloads(snapshot.getValueSets()));
+            bindSnapshotGauges(registry, dataSnapshotService, TYPE_COUNTRY_LIST,
+                snapshot -> Stream.of(snapshot.getCountryList()));
+        };
+    }
+
+    private static void bindSnapshotGauges(MeterRegistry registry, DataSnapshotService dataSnapshotService,
+                                           String type, Function<DataSnapshot, Stream<SignedPayload>> payloads) {
+        Gauge.builder(SNAPSHOT_ENTRIES, dataSnapshotService,
+                service -> payloads.apply(service.getSnapshot()).count())
+            .tag("type", type)
+            .description("Number of payloads held by the data snapshot")
+            .register(registry);
+        Gauge.builder(SNAPSHOT_BYTES, dataSnapshotService,
+                service -> payloads.apply(service.getSnapshot()).mapToLong(SignedPayload::getRetainedBytes).sum())
+            .tag("type", type)
+            .baseUnit("bytes")
+            .description("Size of the bodies held by the data snapshot")
+            .register(registry);
+    }
+
+    private static Stream<SignedPayload> rulePayloads(RulesSnapshot rules) {
+        return Stream.of(
+                Stream.of(rules.getList(), rules.getEmptyCountryList()),
+                changePayloads(rules.getChanges()),
+                rules.getCountryLists().values().stream(),
+                rules.getRules().values().stream().flatMap(countryRules -> countryRules.values().stream()))
+            .flatMap(Function.identity());
+    }
+
+    private static Stream<SignedPayload> valueSetPayloads(ValueSetsSnapshot valueSets) {
+        return Stream.of(
+                Stream.of(valueSets.getList()),
+                changePayloads(valueSets.getChanges()),
+                valueSets.getValueSets().values().stream())
+            .flatMap(Function.identity());
+    }
+
+    private static Stream<SignedPayload> changePayloads(ListChanges changes) {
+        return Stream.concat(Stream.of(changes.getFullList()), changes.getChangesSince().values().stream());
+    }
+
+    /**
+     * Records the size of the responses with a known content length, tagged with the endpoint and the content
+     * encoding.
+     */
+    private static class ResponseSizeInterceptor implements HandlerInterceptor {
+
+        private final MeterRegistry meterRegistry;
+
+        ResponseSizeInterceptor(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                    Exception ex) {
+            String contentLength = response.getHeader(HttpHeaders.CONTENT_LENGTH);
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (contentLength == null || uri == null) {
+                return;
+            }
+            String contentEncoding = response.getHeader(HttpHeaders.CONTENT_ENCODING);
+            DistributionSummary.builder(RESPONSE_SIZE)
+                .tag("uri", uri.toString())
+                .tag("status", Integer.toString(response.getStatus()))
+                .tag("encoding", contentEncoding == null ? "identity" : contentEncoding)
+                .baseUnit("bytes")
+                .description("Size of the response bodies")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Long.parseLong(contentLength));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.config;
+
+import eu.europa.ec.dgc.businessrule.utils.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Lets Tomcat handle each request on a new virtual thread instead of its bounded thread pool, so slow clients do
+ * not block platform threads. Enabled with dgc.virtualThreads, the thread pool is kept if the runtime does not
+ * support virtual threads.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty("dgc.virtualThreads")
+public class VirtualThreadConfig {
+
+    /**
+     * Replaces the executor of the Tomcat connectors.
+     *
+     * @return the customizer of the Tomcat web servers.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+        return factory -> {
+            if (!VirtualThreads.isAvailable()) {
+                log.warn("Virtual threads are not supported by this runtime, requests are handled by the thread pool.");
+                return;
+            }
+            factory.addProtocolHandlerCustomizers(protocolHandler -> {
+                protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-"));
+                log.info("Requests are handled on virtual threads.");
+            });
+        };
+    }
+}
@@ -20,6 +20,7 @@
 
 package eu.europa.ec.dgc.businessrule.entity;
 
+import java.time.ZonedDateTime;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
@@ -60,4 +61,25 @@ public class BusinessRuleEntity {
 
     @Column(name = "signature", length = 256)
     private String signature;
+
+    /**
+     * The rule type (Acceptance or Invalidation) as extracted from the raw data.
+     */
+    @Column(name = "rule_type", length = 32)
+    private String type;
+
+    @Column(name = "certificate_type", length = 32)
+    private String certificateType;
+
+    @Column(name = "engine", length = 32)
+    private String engine;
+
+    @Column(name = "engine_version", length = 32)
+    private String engineVersion;
+
+    @Column(name = "valid_from")
+    private ZonedDateTime validFrom;
+
+    @Column(name = "valid_to")
+    private ZonedDateTime validTo;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package eu.europa.ec.dgc.businessrule.model;
 
+import java.time.ZonedDateTime;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -16,4 +17,16 @@ public class BusinessRuleItem {
     private String country;
 
     private String rawData;
+
+    private String type;
+
+    private String certificateType;
+
+    private String engine;
+
+    private String engineVersion;
+
+    private ZonedDateTime validFrom;
+
+    private ZonedDateTime validTo;
 }
@@ -0,0 +1,49 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.model;
+
+import eu.europa.ec.dgc.businessrule.utils.certlogic.CertLogicExpression;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A business rule with its logic compiled for evaluation.
+ */
+@Getter
+@AllArgsConstructor
+public class CompiledRule {
+
+    /**
+     * The compiled logic, null if the rule can not be evaluated by this service.
+     */
+    private final CertLogicExpression logic;
+
+    /**
+     * The english description of the rule.
+     */
+    private final String description;
+
+    /**
+     * The reason why the rule can not be evaluated, null if the logic has been compiled.
+     */
+    private final String error;
+}
@@ -0,0 +1,47 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.businessrule.model;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Precomputed changes between the retained versions of a list and its current version.
+ */
+@Getter
+@AllArgsConstructor
+public class ListChanges {
+
+    /**
+     * The changes to the current version by hash of the base version.
+     */
+    private final Map<String, SignedPayload> changesSince;
+
+    /**
+     * The changes returned for unknown base versions, containing the full current list.
+     */
+    private final SignedPayload fullList;
+
+    public SignedPayload getChangesSince(String since) {
+        return since == null ? fullList : changesSince.getOrDefault(since, fullList);
+    }
+}
@@ -0,0 +1,213 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable index of the business rules which apply at an instant, per country and certificate type.
+ *
+ * <p>The start and end of the validity of all rules of a country and certificate type split the time line into
+ * intervals in which the same rules are valid. The rules of each interval, reduced to the highest version per
+ * identifier, are computed when the index is built, so a lookup is a binary search over the interval
+ * boundaries. The index holds at most one list per boundary, each with at most one rule per identifier.</p>
+ */
+public class RuleApplicabilityIndex {
+
+    /**
+     * Rules of this certificate type apply to all certificates.
+     */
+    private static final String GENERAL_CERTIFICATE_TYPE = "General";
+
+    /**
+     * The time lines per country and upper case certificate type.
+     */
+    private final Map<String, Map<String, TimeLine>> timeLines;
+
+    /**
+     * The time lines of the rules of all certificate types per country.
+     */
+    private final Map<String, TimeLine> allTypesTimeLines;
+
+    private RuleApplicabilityIndex(Map<String, Map<String, TimeLine>> timeLines,
+                                   Map<String, TimeLine> allTypesTimeLines) {
+        this.timeLines = timeLines;
+        this.allTypesTimeLines = allTypesTimeLines;
+    }
+
+    /**
+     * Builds the index.
+     *
+     * @param ruleMetadata the metadata of the business rules per country code.
+     * @return the index.
+     */
+    public static RuleApplicabilityIndex of(Map<String, List<RuleMetadata>> ruleMetadata) {
+        Map<String, Map<String, TimeLine>> timeLines = new HashMap<>();
+        Map<String, TimeLine> allTypesTimeLines = new HashMap<>();
+        ruleMetadata.forEach((country, rules) -> {
+            Map<String, List<RuleMetadata>> byCertificateType = new HashMap<>();
+            List<RuleMetadata> generalRules = new ArrayList<>();
+            for (RuleMetadata rule : rules) {
+                String certificateType = normalize(rule.getCertificateType());
+                if (normalize(GENERAL_CERTIFICATE_TYPE).equals(certificateType)) {
+                    generalRules.add(rule);
+                } else {
+                    byCertificateType.computeIfAbsent(certificateType, t -> new ArrayList<>()).add(rule);
+                }
+            }
+
+            Map<String, TimeLine> countryTimeLines = new HashMap<>();
+            countryTimeLines.put(normalize(GENERAL_CERTIFICATE_TYPE), TimeLine.of(generalRules));
+            byCertificateType.forEach((certificateType, typeRules) -> {
+                typeRules.addAll(generalRules);
+                countryTimeLines.put(certificateType, TimeLine.of(typeRules));
+            });
+            timeLines.put(country, Collections.unmodifiableMap(countryTimeLines));
+            allTypesTimeLines.put(country, TimeLine.of(rules));
+        });
+        return new RuleApplicabilityIndex(Collections.unmodifiableMap(timeLines),
+            Collections.unmodifiableMap(allTypesTimeLines));
+    }
+
+    /**
+     * Gets the business rules which are valid at an instant, only the highest version of each rule.
+     *
+     * @param country         the country code of the rules.
+     * @param certificateType the certificate type, e.g. Vaccination, or null for the rules of all certificate
+     *                        types. Rules of certificate type General are always included.
+     * @param instant         the instant at which the rules must be valid.
+     * @return the rules ordered by identifier.
+     */
+    public List<RuleMetadata> getApplicableRules(String country, String certificateType, Instant instant) {
+        TimeLine timeLine;
+        if (certificateType == null) {
+            timeLine = allTypesTimeLines.get(country);
+        } else {
+            Map<String, TimeLine> countryTimeLines = timeLines.getOrDefault(country, Collections.emptyMap());
+            timeLine = countryTimeLines.getOrDefault(normalize(certificateType),
+                countryTimeLines.get(normalize(GENERAL_CERTIFICATE_TYPE)));
+        }
+        return timeLine == null ? Collections.emptyList() : timeLine.getRules(instant);
+    }
+
+    private static String normalize(String certificateType) {
+        return certificateType == null ? "" : certificateType.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * The rules of one country and certificate type. The interval i starts at boundary i - 1 (inclusive) and ends
+     * at boundary i (exclusive). The first and last interval are open ended.
+     */
+    private static class TimeLine {
+        private final Instant[] boundaries;
+        private final List<List<RuleMetadata>> intervals;
+
+        private TimeLine(Instant[] boundaries, List<List<RuleMetadata>> intervals) {
+            this.boundaries = boundaries;
+            this.intervals = intervals;
+        }
+
+        /**
+         * Builds the time line in one sweep over the boundaries. The valid rules are kept per identifier and only
+         * changed at the start and end of a rule, so building takes O(n log n) for n rules plus the size of the
+         * interval lists. A list is only created for an interval in which the highest versions changed.
+         */
+        static TimeLine of(Collection<RuleMetadata> rules) {
+            List<RuleMetadata> ruleList = new ArrayList<>(rules);
+            TreeMap<Instant, List<Integer>> starts = new TreeMap<>();
+            TreeMap<Instant, List<Integer>> ends = new TreeMap<>();
+            // of several rules with the same identifier and version the first one of the list is used
+            Comparator<Integer> highestVersionFirst = (left, right) -> {
+                int result = RuleFilter.compareVersions(ruleList.get(right).getVersion(),
+                    ruleList.get(left).getVersion());
+                return result != 0 ? result : Integer.compare(left, right);
+            };
+            Map<String, TreeSet<Integer>> valid = new TreeMap<>();
+            for (int i = 0; i < ruleList.size(); i++) {
+                RuleMetadata rule = ruleList.get(i);
+                if (rule.getValidFrom() == null) {
+                    valid.computeIfAbsent(rule.getIdentifier(), id -> new TreeSet<>(highestVersionFirst)).add(i);
+                } else {
+                    starts.computeIfAbsent(rule.getValidFrom(), b -> new ArrayList<>()).add(i);
+                }
+                if (rule.getValidTo() != null) {
+                    ends.computeIfAbsent(rule.getValidTo(), b -> new ArrayList<>()).add(i);
+                }
+            }
+            TreeSet<Instant> boundarySet = new TreeSet<>(starts.keySet());
+            boundarySet.addAll(ends.keySet());
+            Instant[] boundaries = boundarySet.toArray(new Instant[0]);
+
+            List<List<RuleMetadata>> intervals = new ArrayList<>(boundaries.length + 1);
+            List<RuleMetadata> previous = highestVersions(ruleList, valid);
+            intervals.add(previous);
+            for (Instant boundary : boundaries) {
+                boolean changed = false;
+                for (int i : ends.getOrDefault(boundary, Collections.emptyList())) {
+                    TreeSet<Integer> versions = valid.get(ruleList.get(i).getIdentifier());
+                    changed |= versions != null && versions.remove(i);
+                }
+                for (int i : starts.getOrDefault(boundary, Collections.emptyList())) {
+                    RuleMetadata rule = ruleList.get(i);
+                    if (rule.getValidTo() == null || rule.getValidTo().isAfter(boundary)) {
+                        valid.computeIfAbsent(rule.getIdentifier(), id -> new TreeSet<>(highestVersionFirst)).add(i);
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    List<RuleMetadata> interval = highestVersions(ruleList, valid);
+                    // neighbouring intervals with the same rules share their list
+                    previous = interval.equals(previous) ? previous : interval;
+                }
+                intervals.add(previous);
+            }
+            return new TimeLine(boundaries, Collections.unmodifiableList(intervals));
+        }
+
+        private static List<RuleMetadata> highestVersions(List<RuleMetadata> rules,
+                                                          Map<String, TreeSet<Integer>> valid) {
+            List<RuleMetadata> highest = new ArrayList<>();
+            for (TreeSet<Integer> versions : valid.values()) {
+                if (!versions.isEmpty()) {
+                    highest.add(rules.get(versions.first()));
+                }
+            }
+            return Collections.unmodifiableList(highest);
+        }
+
+        List<RuleMetadata> getRules(Instant instant) {
+            int index = Arrays.binarySearch(boundaries, instant);
+            return intervals.get(index >= 0 ? index + 1 : -index - 1);
+        }
+    }
+}
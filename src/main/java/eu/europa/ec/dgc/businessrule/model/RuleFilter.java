@@ -0,0 +1,114 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.model;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Optional criteria for the business rule lists. Criteria which are null are not applied.
+ */
+@Getter
+@AllArgsConstructor
+public class RuleFilter {
+
+    /**
+     * Rules of this certificate type apply to all certificates.
+     */
+    private static final String GENERAL_CERTIFICATE_TYPE = "General";
+
+    /**
+     * The rule type, e.g. Acceptance or Invalidation.
+     */
+    private final String type;
+
+    /**
+     * The certificate type, e.g. Vaccination. Rules of certificate type General are always included.
+     */
+    private final String certificateType;
+
+    /**
+     * The engine the rules must be written for, e.g. CERTLOGIC.
+     */
+    private final String engine;
+
+    /**
+     * The highest engine version supported by the client.
+     */
+    private final String engineVersion;
+
+    /**
+     * The instant at which the rules must be valid.
+     */
+    private final Instant validAt;
+
+    public boolean isEmpty() {
+        return type == null && certificateType == null && engine == null && engineVersion == null && validAt == null;
+    }
+
+    /**
+     * Checks the type, certificate type, engine and engine version of a rule. The validity is checked by
+     * {@link RulesSnapshot#findRules(String, RuleFilter)}.
+     *
+     * @param rule the rule to check.
+     * @return true if the rule matches the criteria.
+     */
+    public boolean matches(RuleMetadata rule) {
+        return (type == null || type.equalsIgnoreCase(rule.getType()))
+            && (certificateType == null || certificateType.equalsIgnoreCase(rule.getCertificateType())
+                || GENERAL_CERTIFICATE_TYPE.equalsIgnoreCase(rule.getCertificateType()))
+            && (engine == null || engine.equalsIgnoreCase(rule.getEngine()))
+            && (engineVersion == null || rule.getEngineVersion() == null
+                || compareVersions(rule.getEngineVersion(), engineVersion) <= 0);
+    }
+
+    /**
+     * Compares two dot separated version numbers part by part. Parts which are not numeric count as 0.
+     *
+     * @param left  the first version.
+     * @param right the second version.
+     * @return a negative number, zero or a positive number if the first version is lower, equal or higher.
+     */
+    public static int compareVersions(String left, String right) {
+        String[] leftParts = left.split("\\.");
+        String[] rightParts = right.split("\\.");
+        for (int i = 0; i < Math.max(leftParts.length, rightParts.length); i++) {
+            int result = Integer.compare(versionPart(leftParts, i), versionPart(rightParts, i));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private static int versionPart(String[] parts, int index) {
+        if (index >= parts.length) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(parts[index].trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
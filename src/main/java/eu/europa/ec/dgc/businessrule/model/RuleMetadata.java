@@ -0,0 +1,60 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.model;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The list item of a business rule together with the fields the rule lists can be filtered by.
+ */
+@Getter
+@AllArgsConstructor
+public class RuleMetadata {
+
+    private final String identifier;
+
+    private final String version;
+
+    private final String country;
+
+    private final String hash;
+
+    private final String type;
+
+    private final String certificateType;
+
+    private final String engine;
+
+    private final String engineVersion;
+
+    /**
+     * Start of the validity, null if unknown.
+     */
+    private final Instant validFrom;
+
+    /**
+     * End of the validity (exclusive), null if unknown.
+     */
+    private final Instant validTo;
+}
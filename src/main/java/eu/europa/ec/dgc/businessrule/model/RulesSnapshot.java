@@ -0,0 +1,153 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.businessrule.model;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.Getter;
+
+/**
+ * Immutable view of all business rules as they are served by the rules endpoints.
+ */
+@Getter
+public class RulesSnapshot {
+
+    /**
+     * Order of the rule metadata lists: by end of validity, rules without end of validity last.
+     */
+    public static final Comparator<RuleMetadata> VALID_TO_ORDER = Comparator.comparing(RuleMetadata::getValidTo,
+        Comparator.nullsLast(Comparator.naturalOrder()));
+
+    /**
+     * Order of the rules in the filtered lists.
+     */
+    private static final Comparator<RuleMetadata> LIST_ORDER = Comparator.comparing(RuleMetadata::getIdentifier)
+        .thenComparing(RuleMetadata::getVersion);
+
+    /**
+     * The (signed) list of all business rules.
+     */
+    private final SignedPayload list;
+
+    /**
+     * The changes of the list since its retained previous versions.
+     */
+    private final ListChanges changes;
+
+    /**
+     * The (signed) list of business rules per country code.
+     */
+    private final Map<String, SignedPayload> countryLists;
+
+    /**
+     * The business rules by country code and hash.
+     */
+    private final Map<String, Map<String, SignedPayload>> rules;
+
+    /**
+     * The list returned for countries without any business rule.
+     */
+    private final SignedPayload emptyCountryList;
+
+    /**
+     * The metadata of the business rules per country code, sorted by {@link #VALID_TO_ORDER}.
+     */
+    private final Map<String, List<RuleMetadata>> ruleMetadata;
+
+    /**
+     * The rules which apply at an instant per country and certificate type, built from the rule metadata.
+     */
+    private final RuleApplicabilityIndex applicabilityIndex;
+
+    /**
+     * Creates the snapshot and builds its applicability index.
+     */
+    public RulesSnapshot(SignedPayload list, ListChanges changes, Map<String, SignedPayload> countryLists,
+                         Map<String, Map<String, SignedPayload>> rules, SignedPayload emptyCountryList,
+                         Map<String, List<RuleMetadata>> ruleMetadata) {
+        this.list = list;
+        this.changes = changes;
+        this.countryLists = countryLists;
+        this.rules = rules;
+        this.emptyCountryList = emptyCountryList;
+        this.ruleMetadata = ruleMetadata;
+        this.applicabilityIndex = RuleApplicabilityIndex.of(ruleMetadata);
+    }
+
+    public SignedPayload getCountryList(String country) {
+        return countryLists.getOrDefault(country, emptyCountryList);
+    }
+
+    /**
+     * Gets a single business rule.
+     *
+     * @param country the country code of the rule.
+     * @param hash    the hash of the rule.
+     * @return the rule or null if there is no such rule.
+     */
+    public SignedPayload getRule(String country, String hash) {
+        return rules.getOrDefault(country, Collections.emptyMap()).get(hash);
+    }
+
+    /**
+     * Finds the business rules matching the filter.
+     *
+     * @param country the country code of the rules or null for the rules of all countries.
+     * @param filter  the criteria of the rules.
+     * @return the matching rules ordered by identifier and version.
+     */
+    public List<RuleMetadata> findRules(String country, RuleFilter filter) {
+        Stream<List<RuleMetadata>> lists = country == null
+            ? ruleMetadata.values().stream() : Stream.ofNullable(ruleMetadata.get(country));
+        return lists.flatMap(rules -> findValidRules(rules, filter.getValidAt()))
+            .filter(filter::matches)
+            .sorted(LIST_ORDER)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * As the rules are sorted by the end of their validity, the rules which expired before the instant are
+     * skipped with a binary search and only the remaining ones are checked for the start of their validity.
+     */
+    private Stream<RuleMetadata> findValidRules(List<RuleMetadata> rules, Instant validAt) {
+        if (validAt == null) {
+            return rules.stream();
+        }
+        int low = 0;
+        int high = rules.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            Instant validTo = rules.get(middle).getValidTo();
+            if (validTo != null && !validTo.isAfter(validAt)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return rules.subList(low, rules.size()).stream()
+            .filter(rule -> rule.getValidFrom() == null || !rule.getValidFrom().isAfter(validAt));
+    }
+}
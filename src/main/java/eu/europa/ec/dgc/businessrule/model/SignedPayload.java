@@ -0,0 +1,70 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.businessrule.model;
+
+import java.nio.charset.StandardCharsets;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.With;
+
+/**
+ * A pre-encoded response body together with its SHA-256 hash and its signature.
+ */
+@Getter
+@AllArgsConstructor
+public class SignedPayload {
+
+    /**
+     * UTF-8 encoded response body.
+     */
+    private final byte[] body;
+
+    /**
+     * SHA-256 Thumbprint of the body (hex encoded).
+     */
+    private final String hash;
+
+    /**
+     * Base64 encoded signature of the hash, may be null if signing is not enabled.
+     */
+    private final String signature;
+
+    /**
+     * Gzip encoded body, null if the body is too small to be worth compressing.
+     */
+    @With
+    private final byte[] gzipBody;
+
+    public static SignedPayload of(String rawData, String hash, String signature) {
+        return new SignedPayload(rawData.getBytes(StandardCharsets.UTF_8), hash, signature, null);
+    }
+
+    /**
+     * Returns the number of bytes held by the bodies of the payload.
+     */
+    public long getRetainedBytes() {
+        return body.length + (gzipBody == null ? 0 : gzipBody.length);
+    }
+
+    public boolean hasSignature() {
+        return signature != null && !signature.isEmpty();
+    }
+}
@@ -0,0 +1,42 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.businessrule.model;
+
+import lombok.Value;
+
+/**
+ * Outcome of reconciling the stored data with the data downloaded from the gateway.
+ */
+@Value
+public class UpdateResult {
+    int added;
+    int removed;
+    int unchanged;
+
+    /**
+     * Duration of the phases in milliseconds.
+     */
+    long diffMillis;
+    long signMillis;
+    long deleteMillis;
+    long insertMillis;
+    long listSigningMillis;
+}
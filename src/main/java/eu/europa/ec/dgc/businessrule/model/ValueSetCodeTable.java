@@ -0,0 +1,89 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The codes of a value set, read once from its raw data so that code lookups need no JSON parsing.
+ */
+@Getter
+@AllArgsConstructor
+public class ValueSetCodeTable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String valueSetId;
+
+    private final String hash;
+
+    private final String valueSetDate;
+
+    /**
+     * The codes of the value set by code.
+     */
+    private final Map<String, ValueSetCode> codes;
+
+    public ValueSetCode getCode(String code) {
+        return codes.get(code);
+    }
+
+    /**
+     * Reads the codes of a value set.
+     *
+     * @param valueSet the value set as served by the value set endpoints.
+     * @return the codes of the value set.
+     * @throws IOException if the value set is not valid JSON.
+     */
+    public static ValueSetCodeTable of(SignedPayload valueSet) throws IOException {
+        JsonNode json = OBJECT_MAPPER.readTree(valueSet.getBody());
+        Map<String, ValueSetCode> codes = new HashMap<>();
+        // the system, version and language are the same for most codes, so the strings are shared
+        Map<String, String> strings = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> values = json.path("valueSetValues").fields();
+        while (values.hasNext()) {
+            Map.Entry<String, JsonNode> value = values.next();
+            JsonNode code = value.getValue();
+            codes.put(value.getKey(), new ValueSetCode(text(code, "display", null),
+                text(code, "lang", strings), code.path("active").asBoolean(true),
+                text(code, "system", strings), text(code, "version", strings)));
+        }
+        return new ValueSetCodeTable(text(json, "valueSetId", null), valueSet.getHash(),
+            text(json, "valueSetDate", null), Collections.unmodifiableMap(codes));
+    }
+
+    private static String text(JsonNode json, String field, Map<String, String> strings) {
+        JsonNode value = json.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        return strings == null ? value.asText() : strings.computeIfAbsent(value.asText(), text -> text);
+    }
+}
@@ -0,0 +1,118 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.businessrule.model;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Immutable view of all value sets as they are served by the value set endpoints.
+ */
+@Getter
+@Slf4j
+public class ValueSetsSnapshot {
+
+    private static final Comparator<ValueSetCodeTable> NEWEST_LAST = Comparator
+        .comparing(ValueSetCodeTable::getValueSetDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(ValueSetCodeTable::getHash, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /**
+     * The (signed) list of all value sets.
+     */
+    private final SignedPayload list;
+
+    /**
+     * The changes of the list since its retained previous versions.
+     */
+    private final ListChanges changes;
+
+    /**
+     * The value sets by hash.
+     */
+    private final Map<String, SignedPayload> valueSets;
+
+    /**
+     * The codes of the value sets by hash.
+     */
+    private final Map<String, ValueSetCodeTable> codeTables;
+
+    /**
+     * The codes of the value sets by value set id. Of several value sets with the same id the one with the latest
+     * value set date is used.
+     */
+    private final Map<String, ValueSetCodeTable> codeTablesById;
+
+    /**
+     * Creates the snapshot and reads the codes of all value sets.
+     */
+    public ValueSetsSnapshot(SignedPayload list, ListChanges changes, Map<String, SignedPayload> valueSets) {
+        this(list, changes, valueSets, null);
+    }
+
+    /**
+     * Creates the snapshot. Only the codes of value sets which are not contained in the previous snapshot are read,
+     * the others are taken over by their hash.
+     */
+    public ValueSetsSnapshot(SignedPayload list, ListChanges changes, Map<String, SignedPayload> valueSets,
+                             ValueSetsSnapshot previous) {
+        this.list = list;
+        this.changes = changes;
+        this.valueSets = valueSets;
+
+        Map<String, ValueSetCodeTable> tables = new HashMap<>();
+        Map<String, ValueSetCodeTable> tablesById = new HashMap<>();
+        for (SignedPayload valueSet : valueSets.values()) {
+            ValueSetCodeTable table = previous == null ? null : previous.codeTables.get(valueSet.getHash());
+            if (table == null) {
+                try {
+                    table = ValueSetCodeTable.of(valueSet);
+                } catch (IOException e) {
+                    log.warn("Could not read the codes of value set {}.", valueSet.getHash());
+                    continue;
+                }
+            }
+            tables.put(valueSet.getHash(), table);
+            if (table.getValueSetId() != null) {
+                tablesById.merge(table.getValueSetId(), table, (current, other) -> {
+                    ValueSetCodeTable newest = NEWEST_LAST.compare(current, other) >= 0 ? current : other;
+                    log.warn("Value set {} is contained twice ({} and {}), using {}.", newest.getValueSetId(),
+                        current.getHash(), other.getHash(), newest.getHash());
+                    return newest;
+                });
+            }
+        }
+        this.codeTables = Collections.unmodifiableMap(tables);
+        this.codeTablesById = Collections.unmodifiableMap(tablesById);
+    }
+
+    public SignedPayload getValueSet(String hash) {
+        return valueSets.get(hash);
+    }
+
+    public ValueSetCodeTable getCodeTable(String valueSetId) {
+        return codeTablesById.get(valueSetId);
+    }
+}
@@ -25,13 +25,10 @@ import eu.europa.ec.dgc.businessrule.restapi.dto.BusinessRuleListItemDto;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface BusinessRuleRepository extends JpaRepository<BusinessRuleEntity, String> {
+public interface BusinessRuleRepository extends JpaRepository<BusinessRuleEntity, String>,
+    BatchInsertRepository<BusinessRuleEntity> {
 
     List<BusinessRuleListItemDto> findAllByOrderByIdentifierAsc();
 
-    List<BusinessRuleListItemDto> findAllByCountryOrderByIdentifierAsc(String country);
-
-    BusinessRuleEntity findOneByCountryAndHash(String country, String hash);
-
-    void deleteByHashNotIn(List<String> hashes);
+    List<BusinessRuleEntity> findAllByTypeIsNull();
 }
\ No newline at end of file
@@ -25,11 +25,8 @@ import eu.europa.ec.dgc.businessrule.restapi.dto.ValueSetListItemDto;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface ValueSetRepository extends JpaRepository<ValueSetEntity, String> {
+public interface ValueSetRepository extends JpaRepository<ValueSetEntity, String>,
+    BatchInsertRepository<ValueSetEntity> {
 
     List<ValueSetListItemDto> findAllByOrderByIdAsc();
-
-    ValueSetEntity findOneByHash(String hash);
-
-    void deleteByHashNotIn(List<String> hashes);
 }
\ No newline at end of file
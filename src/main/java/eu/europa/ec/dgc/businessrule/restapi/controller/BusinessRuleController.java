@@ -20,12 +20,27 @@
 
 package eu.europa.ec.dgc.businessrule.restapi.controller;
 
-import eu.europa.ec.dgc.businessrule.entity.BusinessRuleEntity;
-import eu.europa.ec.dgc.businessrule.entity.SignedListEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import eu.europa.ec.dgc.businessrule.config.MetricsConfig;
 import eu.europa.ec.dgc.businessrule.exception.DgcaBusinessRulesResponseException;
+import eu.europa.ec.dgc.businessrule.model.RuleFilter;
+import eu.europa.ec.dgc.businessrule.model.RuleMetadata;
+import eu.europa.ec.dgc.businessrule.model.RulesSnapshot;
+import eu.europa.ec.dgc.businessrule.model.SignedPayload;
+import eu.europa.ec.dgc.businessrule.restapi.dto.BusinessRuleKeyDto;
 import eu.europa.ec.dgc.businessrule.restapi.dto.BusinessRuleListItemDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.ListChangesDto;
 import eu.europa.ec.dgc.businessrule.restapi.dto.ProblemReportDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.RuleEvaluationBatchItemDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.RuleEvaluationBatchResultDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.RuleEvaluationDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.RuleEvaluationRequestDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.SignedBatchItemDto;
 import eu.europa.ec.dgc.businessrule.service.BusinessRuleService;
+import eu.europa.ec.dgc.businessrule.service.DataSnapshotService;
+import eu.europa.ec.dgc.businessrule.service.RuleEvaluationService;
+import eu.europa.ec.dgc.businessrule.utils.BusinessRulesUtils;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -34,9 +49,15 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.io.InputStream;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -44,11 +65,16 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
@@ -61,6 +87,16 @@ public class BusinessRuleController {
 
     public static final String X_SIGNATURE_HEADER = "X-SIGNATURE";
 
+    private final DataSnapshotService dataSnapshotService;
+
+    private final MappingJackson2HttpMessageConverter jacksonHttpMessageConverter;
+
+    private final MeterRegistry meterRegistry;
+
+    private final BusinessRulesUtils businessRulesUtils;
+
+    private final RuleEvaluationService ruleEvaluationService;
+
     private final BusinessRuleService businessRuleService;
 
     /**
@@ -71,7 +107,8 @@ public class BusinessRuleController {
         summary = "Gets the a list of all business rule ids country codes and hash values.",
         description = "This method returns a list containing the ids, country codes and hash values of all business "
             + "rules. The hash value can be used to check, if a business rule has changed and needs to be updated. "
-            + "The hash value and country code can also be used to download a specific business rule afterwards.",
+            + "The hash value and country code can also be used to download a specific business rule afterwards. "
+            + "The list can be filtered by the query parameters, filtered lists are not signed.",
         tags = {"Business Rules"},
         parameters = {
             @Parameter(
@@ -79,6 +116,33 @@ public class BusinessRuleController {
                 name = "X-VERSION",
                 description = "Version of the API. In preparation of changes in the future. Set it to \"1.0\"",
                 required = true,
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "type",
+                description = "Returns only rules of this type, e.g. Acceptance or Invalidation.",
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "certificateType",
+                description = "Returns only rules for this certificate type, e.g. Vaccination. Rules of "
+                    + "certificate type General are always returned.",
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "engine",
+                description = "Returns only rules for this engine, e.g. CERTLOGIC.",
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "engineVersion",
+                description = "Returns only rules which require at most this engine version.",
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "validAt",
+                description = "Returns only rules which are valid at this ISO 8601 date time, e.g. "
+                    + "2021-07-01T00:00:00Z.",
                 schema = @Schema(implementation = String.class))
         },
         responses = {
@@ -87,27 +151,71 @@ public class BusinessRuleController {
                 description = "Returns a list of all business rule ids country codes and hash values.",
                 content = @Content(
                     mediaType = MediaType.APPLICATION_JSON_VALUE,
-                    array = @ArraySchema(schema = @Schema(implementation = BusinessRuleListItemDto.class))))
+                    array = @ArraySchema(schema = @Schema(implementation = BusinessRuleListItemDto.class)))),
+            @ApiResponse(
+                responseCode = "304",
+                description = "The data has not changed since the version identified by the If-None-Match header.")
         }
     )
-    public ResponseEntity<List<BusinessRuleListItemDto>> getRules(
-        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion
+    public ResponseEntity<byte[]> getRules(
+        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        @RequestParam(value = "type", required = false) String type,
+        @RequestParam(value = "certificateType", required = false) String certificateType,
+        @RequestParam(value = "engine", required = false) String engine,
+        @RequestParam(value = "engineVersion", required = false) String engineVersion,
+        @RequestParam(value = "validAt", required = false) String validAt
     ) {
-        Optional<SignedListEntity> rulesList = businessRuleService.getBusinessRulesSignedList();
-        ResponseEntity responseEntity;
-        if (rulesList.isPresent()) {
-            ResponseEntity.BodyBuilder respBuilder = ResponseEntity.ok();
-            String signature = rulesList.get().getSignature();
-            if (signature != null && signature.length() > 0) {
-                HttpHeaders responseHeaders = new HttpHeaders();
-                responseHeaders.set(X_SIGNATURE_HEADER, signature);
-                respBuilder.headers(responseHeaders);
-            }
-            responseEntity = respBuilder.body(rulesList.get().getRawData());
-        } else {
-            responseEntity = ResponseEntity.ok(businessRuleService.getBusinessRulesList());
+        RulesSnapshot rules = dataSnapshotService.getSnapshot().getRules();
+        RuleFilter filter = createFilter(type, certificateType, engine, engineVersion, validAt);
+        if (filter.isEmpty()) {
+            return SignedPayloadResponses.ok(rules.getList(), acceptEncoding);
+        }
+        return SignedPayloadResponses.ok(filteredList(rules.findRules(null, filter)), acceptEncoding);
+    }
+
+    /**
+     * Http Method for getting the changes of the business rules list.
+     */
+    @GetMapping(path = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Gets the changes of the business rules list since a previous version.",
+        description = "This method returns the list items which have been added and removed since the version of the "
+            + "business rules list identified by its hash value. If the version is unknown, e.g. because it is too "
+            + "old, the full list is returned as added items and fullList is set to true.",
+        tags = {"Business Rules"},
+        parameters = {
+            @Parameter(
+                in = ParameterIn.HEADER,
+                name = "X-VERSION",
+                description = "Version of the API. In preparation of changes in the future. Set it to \"1.0\"",
+                required = true,
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "since",
+                description = "Hash value of the business rules list version known to the client.",
+                schema = @Schema(implementation = String.class))
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Returns the changes of the business rules list.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ListChangesDto.class))),
+            @ApiResponse(
+                responseCode = "304",
+                description = "The data has not changed since the version identified by the If-None-Match header.")
         }
-        return responseEntity;
+    )
+    public ResponseEntity<byte[]> getRuleChanges(
+        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        @RequestParam(value = "since", required = false) String since
+    ) {
+        return SignedPayloadResponses.ok(
+            dataSnapshotService.getSnapshot().getRules().getChanges().getChangesSince(since), acceptEncoding);
     }
 
 
@@ -120,7 +228,7 @@ public class BusinessRuleController {
         description = "This method returns a list containing the ids, country codes and hash values of all business "
             + "rules for a country. The hash value can be used to check, if a business rule has changed and needs to "
             + "be updated. The hash value and country code can also be used to download a specific business "
-            + "rule afterwards.",
+            + "rule afterwards. The list can be filtered by the query parameters, filtered lists are not signed.",
         tags = {"Business Rules"},
         parameters = {
             @Parameter(
@@ -128,6 +236,33 @@ public class BusinessRuleController {
                 name = "X-VERSION",
                 description = "Version of the API. In preparation of changes in the future. Set it to \"1.0\"",
                 required = true,
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "type",
+                description = "Returns only rules of this type, e.g. Acceptance or Invalidation.",
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "certificateType",
+                description = "Returns only rules for this certificate type, e.g. Vaccination. Rules of "
+                    + "certificate type General are always returned.",
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "engine",
+                description = "Returns only rules for this engine, e.g. CERTLOGIC.",
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "engineVersion",
+                description = "Returns only rules which require at most this engine version.",
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "validAt",
+                description = "Returns only rules which are valid at this ISO 8601 date time, e.g. "
+                    + "2021-07-01T00:00:00Z.",
                 schema = @Schema(implementation = String.class))
         },
         responses = {
@@ -137,6 +272,9 @@ public class BusinessRuleController {
                 content = @Content(
                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                     array = @ArraySchema(schema = @Schema(implementation = BusinessRuleListItemDto.class)))),
+            @ApiResponse(
+                responseCode = "304",
+                description = "The data has not changed since the version identified by the If-None-Match header."),
             @ApiResponse(
                 responseCode = "400",
                 description = "The Country Code has a wrong format.",
@@ -145,16 +283,97 @@ public class BusinessRuleController {
                     schema = @Schema(implementation = ProblemReportDto.class)))
         }
     )
-    public ResponseEntity<List<BusinessRuleListItemDto>> getRulesForCountry(
+    public ResponseEntity<byte[]> getRulesForCountry(
         @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
-        @Valid @PathVariable("country") String country
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        @Valid @PathVariable("country") String country,
+        @RequestParam(value = "type", required = false) String type,
+        @RequestParam(value = "certificateType", required = false) String certificateType,
+        @RequestParam(value = "engine", required = false) String engine,
+        @RequestParam(value = "engineVersion", required = false) String engineVersion,
+        @RequestParam(value = "validAt", required = false) String validAt
     ) {
         validateCountryParameter(country);
 
-        return ResponseEntity.ok(businessRuleService.getBusinessRulesListForCountry(country.toUpperCase(Locale.ROOT)));
+        RulesSnapshot rules = dataSnapshotService.getSnapshot().getRules();
+        RuleFilter filter = createFilter(type, certificateType, engine, engineVersion, validAt);
+        if (filter.isEmpty()) {
+            return SignedPayloadResponses.ok(rules.getCountryList(country.toUpperCase(Locale.ROOT)), acceptEncoding);
+        }
+        return SignedPayloadResponses.ok(
+            filteredList(rules.findRules(country.toUpperCase(Locale.ROOT), filter)), acceptEncoding);
     }
 
 
+    /**
+     * Http Method for getting the business rules which apply to a certificate.
+     */
+    @GetMapping(path = "/{country}/applicable", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Gets the business rules of a country which apply to a certificate type at a point in time.",
+        description = "This method returns the rules of a country which are valid at the given time and apply to "
+            + "the certificate type, including the rules of certificate type General. Of several valid versions "
+            + "of a rule only the highest one is returned, so the result is the rule set a verifier has to "
+            + "evaluate. The list is not signed.",
+        tags = {"Business Rules"},
+        parameters = {
+            @Parameter(
+                in = ParameterIn.PATH,
+                name = "country",
+                description = "Country code of the requested business rules.",
+                required = true,
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "certificateType",
+                description = "Certificate type (Vaccination, Recovery or Test). The rules of all certificate "
+                    + "types if not set.",
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "validAt",
+                description = "ISO 8601 date time at which the rules must be valid, e.g. 2021-07-01T00:00:00Z. "
+                    + "The current time if not set.",
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.HEADER,
+                name = "X-VERSION",
+                description = "Version of the API. In preparation of changes in the future. Set it to \"1.0\"",
+                required = true,
+                schema = @Schema(implementation = String.class))
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Returns the ids, country codes, versions and hash values of the applicable rules.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = BusinessRuleListItemDto.class)))),
+            @ApiResponse(
+                responseCode = "304",
+                description = "The data has not changed since the version identified by the If-None-Match header."),
+            @ApiResponse(
+                responseCode = "400",
+                description = "The Country Code or the validAt parameter has a wrong format.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemReportDto.class)))
+        }
+    )
+    public ResponseEntity<byte[]> getApplicableRules(
+        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        @Valid @PathVariable("country") String country,
+        @RequestParam(value = "certificateType", required = false) String certificateType,
+        @RequestParam(value = "validAt", required = false) String validAt
+    ) {
+        validateCountryParameter(country);
+        Instant instant = createFilter(null, certificateType, null, null, validAt).getValidAt();
+
+        return SignedPayloadResponses.ok(filteredList(businessRuleService.getApplicableRules(country,
+            certificateType, instant != null ? instant : Instant.now())), acceptEncoding);
+    }
+
     /**
      * Http Method for getting  specific business rule set .
      */
@@ -214,6 +433,9 @@ public class BusinessRuleController {
                             + "  }\n"
                             + "}")
                     })),
+            @ApiResponse(
+                responseCode = "304",
+                description = "The data has not changed since the version identified by the If-None-Match header."),
             @ApiResponse(
                 responseCode = "400",
                 description = "The Country Code has a wrong format.",
@@ -227,35 +449,267 @@ public class BusinessRuleController {
                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                     schema = @Schema(implementation = ProblemReportDto.class)))
         })
-    public ResponseEntity<String> getRuleByCountryAndHash(
+    public ResponseEntity<byte[]> getRuleByCountryAndHash(
         @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
         @Valid @PathVariable("country") String country,
         @Valid @PathVariable("hash") String hash
     ) {
-        ResponseEntity<String> responseEntity;
-
         validateCountryParameter(country);
         if (hash == null || hash.isBlank()) {
             throw new DgcaBusinessRulesResponseException(HttpStatus.BAD_REQUEST, "0x005", "Possible reasons: "
                 + "The provided hash value is not correct", hash,"");
         }
-        BusinessRuleEntity rule =
-            businessRuleService.getBusinessRuleByCountryAndHash(country.toUpperCase(Locale.ROOT), hash);
+        SignedPayload rule =
+            dataSnapshotService.getSnapshot().getRules().getRule(country.toUpperCase(Locale.ROOT), hash);
 
         if (rule == null) {
+            meterRegistry.counter(MetricsConfig.LOOKUPS_NOT_FOUND, "type", MetricsConfig.TYPE_RULE).increment();
             throw new DgcaBusinessRulesResponseException(HttpStatus.NOT_FOUND, "0x006", "Possible reasons: "
                 + "The provided hash or country may not be correct.", "country: " + country + ", hash: " + hash,"");
         }
 
-        if (rule.getSignature() != null) {
-            HttpHeaders responseHeaders = new HttpHeaders();
-            responseHeaders.set(BusinessRuleController.X_SIGNATURE_HEADER, rule.getSignature());
-            responseEntity = ResponseEntity.ok().headers(responseHeaders).body(rule.getRawData());
-        } else {
-            responseEntity = ResponseEntity.ok(rule.getRawData());
+        return SignedPayloadResponses.ok(rule, acceptEncoding);
+    }
+
+    /**
+     * Http Method for getting multiple rules at once.
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Gets multiple business rules by their country codes and hash values.",
+        description = "This method can be used to download many business rules with a single request, e.g. after "
+            + "the business rules list has been downloaded for the first time. The rules are returned as newline "
+            + "delimited JSON, one item per line, with the rule as string in the data field and its signature. "
+            + "Keys without a matching business rule are left out.",
+        tags = {"Business Rules"},
+        parameters = {
+            @Parameter(
+                in = ParameterIn.HEADER,
+                name = "X-VERSION",
+                description = "Version of the API. In preparation of changes in the future. Set it to \"1.0\"",
+                required = true,
+                schema = @Schema(implementation = String.class))
+        },
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = true,
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                array = @ArraySchema(schema = @Schema(implementation = BusinessRuleKeyDto.class)))),
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Returns the business rules as newline delimited JSON.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = SignedBatchItemDto.class))),
+            @ApiResponse(
+                responseCode = "400",
+                description = "The request contains no or too many keys or a key is malformed.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemReportDto.class)))
+        })
+    public ResponseEntity<StreamingResponseBody> getRuleBatch(
+        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @RequestBody List<BusinessRuleKeyDto> keys
+    ) {
+        if (keys.isEmpty() || keys.size() > SignedPayloadResponses.MAX_BATCH_SIZE) {
+            throw new DgcaBusinessRulesResponseException(HttpStatus.BAD_REQUEST, "0x007", "Possible reasons: "
+                + "The batch must contain between 1 and " + SignedPayloadResponses.MAX_BATCH_SIZE + " keys.",
+                String.valueOf(keys.size()), "");
         }
+        for (BusinessRuleKeyDto key : keys) {
+            if (key == null || key.getCountry() == null) {
+                throw new DgcaBusinessRulesResponseException(HttpStatus.BAD_REQUEST, "0x004", "Possible reasons: "
+                    + "The Country Code is missing.", null, "");
+            }
+            validateCountryParameter(key.getCountry());
+            if (key.getHash() == null || key.getHash().isBlank()) {
+                throw new DgcaBusinessRulesResponseException(HttpStatus.BAD_REQUEST, "0x005", "Possible reasons: "
+                    + "The provided hash value is not correct", key.getHash(), "");
+            }
+        }
+
+        RulesSnapshot rules = dataSnapshotService.getSnapshot().getRules();
+        return SignedPayloadResponses.ndjson(jacksonHttpMessageConverter.getObjectMapper(), keys.stream()
+            .map(key -> new BusinessRuleKeyDto(key.getCountry().toUpperCase(Locale.ROOT), key.getHash()))
+            .distinct()
+            .map(key -> Optional.ofNullable(rules.getRule(key.getCountry(), key.getHash()))
+                .map(rule -> SignedPayloadResponses.batchItem(key.getCountry(), rule)))
+            .flatMap(Optional::stream));
+    }
 
-        return responseEntity;
+    /**
+     * Http Method for evaluating a DCC against the business rules of a country.
+     */
+    @PostMapping(path = "/{country}/evaluate", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Evaluates a DCC against the business rules of a country of arrival.",
+        description = "This method checks the decoded payload of a DCC against the CertLogic acceptance rules of the "
+            + "country of arrival and the invalidation rules of the issuing country which are valid at the "
+            + "validation clock. Of several valid versions of a rule only the highest one is evaluated. The value "
+            + "sets of this service are used as external value sets. The signature of the DCC is not checked.",
+        tags = {"Business Rules"},
+        parameters = {
+            @Parameter(
+                in = ParameterIn.PATH,
+                name = "country",
+                description = "Country code of the country of arrival.",
+                required = true,
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.HEADER,
+                name = "X-VERSION",
+                description = "Version of the API. In preparation of changes in the future. Set it to \"1.0\"",
+                required = true,
+                schema = @Schema(implementation = String.class))
+        },
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = true,
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = RuleEvaluationRequestDto.class))),
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Returns the result per business rule and the overall result.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = RuleEvaluationDto.class))),
+            @ApiResponse(
+                responseCode = "400",
+                description = "The Country Code has a wrong format or the payload is missing.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemReportDto.class)))
+        })
+    public ResponseEntity<RuleEvaluationDto> evaluateRules(
+        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @Valid @PathVariable("country") String country,
+        @RequestBody RuleEvaluationRequestDto request
+    ) {
+        validateCountryParameter(country);
+        if (request.getPayload() == null) {
+            throw new DgcaBusinessRulesResponseException(HttpStatus.BAD_REQUEST, "0x009", "Possible reasons: "
+                + "The payload of the DCC is missing.", "", "");
+        }
+        if (request.getIssuerCountryCode() != null) {
+            validateCountryParameter(request.getIssuerCountryCode());
+        }
+
+        return ResponseEntity.ok(ruleEvaluationService.evaluate(country.toUpperCase(Locale.ROOT), request));
+    }
+
+    /**
+     * Http Method for evaluating many DCCs against the business rules of a country.
+     */
+    @PostMapping(path = "/{country}/evaluate/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+        produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Evaluates many DCCs against the business rules of a country of arrival.",
+        description = "This method evaluates DCCs like the single evaluation, but reads them as newline delimited "
+            + "JSON, one evaluation request per line, and writes one result per line as soon as it is available. "
+            + "The DCCs are evaluated in parallel, so the results are not in the order of the request. The line "
+            + "number and the optional id of a request line are repeated in its result. Lines which can not be "
+            + "evaluated get a result with an error instead of failing the whole batch.",
+        tags = {"Business Rules"},
+        parameters = {
+            @Parameter(
+                in = ParameterIn.PATH,
+                name = "country",
+                description = "Country code of the country of arrival.",
+                required = true,
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "certificateType",
+                description = "Certificate type of the rules (Vaccination, Recovery or Test). Detected per DCC "
+                    + "if not set.",
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "validationClock",
+                description = "ISO 8601 time the rules are checked for if a line has no own validation clock. "
+                    + "The current time if not set.",
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.HEADER,
+                name = "X-VERSION",
+                description = "Version of the API. In preparation of changes in the future. Set it to \"1.0\"",
+                required = true,
+                schema = @Schema(implementation = String.class))
+        },
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = true,
+            content = @Content(
+                mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                schema = @Schema(implementation = RuleEvaluationBatchItemDto.class))),
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Returns the results as newline delimited JSON.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = RuleEvaluationBatchResultDto.class))),
+            @ApiResponse(
+                responseCode = "400",
+                description = "The Country Code or the validation clock has a wrong format.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemReportDto.class)))
+        })
+    public ResponseEntity<StreamingResponseBody> evaluateRuleBatch(
+        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @Valid @PathVariable("country") String country,
+        @RequestParam(value = "certificateType", required = false) String certificateType,
+        @RequestParam(value = "validationClock", required = false) String validationClock,
+        InputStream body
+    ) {
+        validateCountryParameter(country);
+        ZonedDateTime clock;
+        try {
+            clock = validationClock == null ? null : ZonedDateTime.parse(validationClock);
+        } catch (DateTimeParseException e) {
+            throw new DgcaBusinessRulesResponseException(HttpStatus.BAD_REQUEST, "0x008", "Possible reasons: "
+                + "The validationClock parameter is not an ISO 8601 date time.", validationClock, "");
+        }
+
+        String arrivalCountry = country.toUpperCase(Locale.ROOT);
+        StreamingResponseBody results = out ->
+            ruleEvaluationService.evaluateBatch(arrivalCountry, certificateType, clock, body, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(results);
+    }
+
+    private RuleFilter createFilter(String type, String certificateType, String engine, String engineVersion,
+                                    String validAt) {
+        try {
+            return new RuleFilter(type, certificateType, engine, engineVersion,
+                validAt == null ? null : ZonedDateTime.parse(validAt).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new DgcaBusinessRulesResponseException(HttpStatus.BAD_REQUEST, "0x008", "Possible reasons: "
+                + "The validAt parameter is not an ISO 8601 date time.", validAt, "");
+        }
+    }
+
+    /**
+     * Creates the list of the filtered rules. The list is not signed, its hash is only used as ETag.
+     */
+    private SignedPayload filteredList(List<RuleMetadata> rules) {
+        List<BusinessRuleListItemDto> items = rules.stream()
+            .map(rule -> new BusinessRuleListItemDto(rule.getIdentifier(), rule.getVersion(), rule.getCountry(),
+                rule.getHash()))
+            .collect(Collectors.toList());
+        try {
+            String json = jacksonHttpMessageConverter.getObjectMapper().writeValueAsString(items);
+            return SignedPayload.of(json, businessRulesUtils.calculateHash(json), null);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not create the filtered business rules list.", e);
+        }
     }
 
     private void validateCountryParameter(String country) throws DgcaBusinessRulesResponseException {
@@ -20,8 +20,7 @@
 
 package eu.europa.ec.dgc.businessrule.restapi.controller;
 
-import eu.europa.ec.dgc.businessrule.entity.CountryListEntity;
-import eu.europa.ec.dgc.businessrule.service.CountryListService;
+import eu.europa.ec.dgc.businessrule.service.DataSnapshotService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -49,7 +48,7 @@ public class CountryListController {
 
     private static final String API_VERSION_HEADER = "X-VERSION";
 
-    private final CountryListService countryListService;
+    private final DataSnapshotService dataSnapshotService;
 
     /**
      * Http Method for getting the country list.
@@ -79,22 +78,17 @@ public class CountryListController {
                             "[\"BE\", \"EL\", \"LT\", \"PT\", \"BG\", \"ES\", \"LU\", \"RO\", \"CZ\", \"FR\", \"HU\", "
                                 + "\"SI\", \"DK\", \"HR\", \"MT\", \"SK\", \"DE\", \"IT\", \"NL\", \"FI\", \"EE\", "
                                 + "\"CY\", \"AT\", \"SE\", \"IE\", \"LV\", \"PL\"]")
-                    }))
+                    })),
+            @ApiResponse(
+                responseCode = "304",
+                description = "The data has not changed since the version identified by the If-None-Match header.")
         }
     )
-    public ResponseEntity<String> getCountryList(
-        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion
+    public ResponseEntity<byte[]> getCountryList(
+        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
-        CountryListEntity countryList = countryListService.getCountryList();
-        ResponseEntity<String> responseEntity;
-        if (countryList.getSignature() != null) {
-            HttpHeaders responseHeaders = new HttpHeaders();
-            responseHeaders.set(BusinessRuleController.X_SIGNATURE_HEADER, countryList.getSignature());
-            responseEntity = ResponseEntity.ok().headers(responseHeaders).body(countryList.getRawData());
-        } else {
-            responseEntity = ResponseEntity.ok(countryList.getRawData());
-        }
-        return responseEntity;
+        return SignedPayloadResponses.ok(dataSnapshotService.getSnapshot().getCountryList(), acceptEncoding);
     }
 
 
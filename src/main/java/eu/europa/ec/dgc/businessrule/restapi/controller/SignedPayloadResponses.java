@@ -0,0 +1,148 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.businessrule.restapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.europa.ec.dgc.businessrule.model.SignedPayload;
+import eu.europa.ec.dgc.businessrule.restapi.dto.SignedBatchItemDto;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Builds the HTTP responses for pre-encoded payloads of the data snapshot.
+ */
+final class SignedPayloadResponses {
+
+    private static final String GZIP = "gzip";
+
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    /**
+     * Maximum number of keys accepted by the batch endpoints.
+     */
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private SignedPayloadResponses() {
+    }
+
+    /**
+     * Creates a 200 response with the payload as body, its signature as X-SIGNATURE header and its hash as strong
+     * ETag. Requests with a matching If-None-Match header are answered with 304 by Spring MVC without writing
+     * the body. If the client accepts gzip and a pre-compressed body exists, the compressed body is returned.
+     *
+     * @param payload        the payload to return.
+     * @param acceptEncoding the Accept-Encoding header of the request, may be null.
+     * @return the response entity.
+     */
+    static ResponseEntity<byte[]> ok(SignedPayload payload, String acceptEncoding) {
+        boolean gzip = payload.getGzipBody() != null && acceptsGzip(acceptEncoding);
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .eTag(gzip ? payload.getHash() + GZIP_ETAG_SUFFIX : payload.getHash());
+        if (payload.hasSignature()) {
+            builder.header(BusinessRuleController.X_SIGNATURE_HEADER, payload.getSignature());
+        }
+
+        if (gzip) {
+            return builder
+                .header(HttpHeaders.CONTENT_ENCODING, GZIP)
+                .contentLength(payload.getGzipBody().length)
+                .body(payload.getGzipBody());
+        } else {
+            return builder
+                .contentLength(payload.getBody().length)
+                .body(payload.getBody());
+        }
+    }
+
+    /**
+     * Creates a 200 response which streams the items as newline delimited JSON. The stream is evaluated while
+     * the response is written, so it should only map over data which is already in memory.
+     *
+     * @param objectMapper the object mapper used to serialize the items.
+     * @param items        the items to write.
+     * @return the response entity.
+     */
+    static ResponseEntity<StreamingResponseBody> ndjson(ObjectMapper objectMapper, Stream<SignedBatchItemDto> items) {
+        StreamingResponseBody body = out -> {
+            Iterator<SignedBatchItemDto> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+
+    /**
+     * Creates the batch item for a payload.
+     */
+    static SignedBatchItemDto batchItem(String country, SignedPayload payload) {
+        String signature = payload.hasSignature() ? payload.getSignature() : null;
+        return new SignedBatchItemDto(country, payload.getHash(), signature,
+            new String(payload.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks whether gzip is an acceptable content coding according to the Accept-Encoding header. An explicit
+     * gzip entry takes precedence over the wildcard.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (GZIP.equalsIgnoreCase(name)) {
+                gzipQuality = quality(parts);
+            } else if ("*".equals(name)) {
+                wildcardQuality = quality(parts);
+            }
+        }
+        Double quality = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return quality != null && quality > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -21,13 +21,20 @@
 package eu.europa.ec.dgc.businessrule.restapi.controller;
 
 
-import eu.europa.ec.dgc.businessrule.entity.SignedListEntity;
-import eu.europa.ec.dgc.businessrule.entity.ValueSetEntity;
+import eu.europa.ec.dgc.businessrule.config.MetricsConfig;
 import eu.europa.ec.dgc.businessrule.exception.DgcaBusinessRulesResponseException;
+import eu.europa.ec.dgc.businessrule.model.SignedPayload;
+import eu.europa.ec.dgc.businessrule.model.ValueSetCode;
+import eu.europa.ec.dgc.businessrule.model.ValueSetCodeTable;
+import eu.europa.ec.dgc.businessrule.model.ValueSetsSnapshot;
+import eu.europa.ec.dgc.businessrule.restapi.dto.ListChangesDto;
 import eu.europa.ec.dgc.businessrule.restapi.dto.ProblemReportDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.SignedBatchItemDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.ValueSetCodeDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.ValueSetCodeKeyDto;
 import eu.europa.ec.dgc.businessrule.restapi.dto.ValueSetListItemDto;
-import eu.europa.ec.dgc.businessrule.service.ValueSetService;
-import eu.europa.ec.dgc.businessrule.utils.BusinessRulesUtils;
+import eu.europa.ec.dgc.businessrule.service.DataSnapshotService;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -37,7 +44,8 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.stream.Collectors;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -45,11 +53,16 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/valuesets")
@@ -59,9 +72,11 @@ public class ValueSetController {
 
     private static final String API_VERSION_HEADER = "X-VERSION";
 
-    private final BusinessRulesUtils businessRulesUtils;
+    private final DataSnapshotService dataSnapshotService;
 
-    private final ValueSetService valueSetService;
+    private final MappingJackson2HttpMessageConverter jacksonHttpMessageConverter;
+
+    private final MeterRegistry meterRegistry;
 
 
     /**
@@ -124,27 +139,61 @@ public class ValueSetController {
                             + "        \"hash\": \"8651c3db9ed5332c8fa42943d4656d442a5264debc8482b6d11d4c9176149146\"\n"
                             + "    }\n"
                             + "]")
-                    }))
+                    })),
+            @ApiResponse(
+                responseCode = "304",
+                description = "The data has not changed since the version identified by the If-None-Match header.")
         }
     )
-    public ResponseEntity<List<ValueSetListItemDto>> getValueSetList(
-        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion
+    public ResponseEntity<byte[]> getValueSetList(
+        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
-        Optional<SignedListEntity> rulesList = valueSetService.getValueSetsSignedList();
-        ResponseEntity responseEntity;
-        if (rulesList.isPresent()) {
-            ResponseEntity.BodyBuilder respBuilder = ResponseEntity.ok();
-            String signature = rulesList.get().getSignature();
-            if (signature != null & signature.length() > 0) {
-                HttpHeaders responseHeaders = new HttpHeaders();
-                responseHeaders.set(BusinessRuleController.X_SIGNATURE_HEADER, signature);
-                respBuilder.headers(responseHeaders);
-            }
-            responseEntity = respBuilder.body(rulesList.get().getRawData());
-        } else {
-            responseEntity = ResponseEntity.ok(valueSetService.getValueSetsList());
+        return SignedPayloadResponses.ok(dataSnapshotService.getSnapshot().getValueSets().getList(), acceptEncoding);
+    }
+
+    /**
+     * Http Method for getting the changes of the value set list.
+     */
+    @GetMapping(path = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Gets the changes of the value set list since a previous version.",
+        description = "This method returns the list items which have been added and removed since the version of the "
+            + "value set list identified by its hash value. If the version is unknown, e.g. because it is too old, "
+            + "the full list is returned as added items and fullList is set to true.",
+        tags = {"Value Sets"},
+        parameters = {
+            @Parameter(
+                in = ParameterIn.HEADER,
+                name = "X-VERSION",
+                description = "Version of the API. In preparation of changes in the future. Set it to \"1.0\"",
+                required = true,
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.QUERY,
+                name = "since",
+                description = "Hash value of the value set list version known to the client.",
+                schema = @Schema(implementation = String.class))
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Returns the changes of the value set list.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ListChangesDto.class))),
+            @ApiResponse(
+                responseCode = "304",
+                description = "The data has not changed since the version identified by the If-None-Match header.")
         }
-        return responseEntity;
+    )
+    public ResponseEntity<byte[]> getValueSetChanges(
+        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        @RequestParam(value = "since", required = false) String since
+    ) {
+        return SignedPayloadResponses.ok(
+            dataSnapshotService.getSnapshot().getValueSets().getChanges().getChangesSince(since), acceptEncoding);
     }
 
     /**
@@ -192,6 +241,9 @@ public class ValueSetController {
                             + "    }\n"
                             + "}")
                     })),
+            @ApiResponse(
+                responseCode = "304",
+                description = "The data has not changed since the version identified by the If-None-Match header."),
             @ApiResponse(
                 responseCode = "404",
                 description = "Value set could not be found for the given hash value.",
@@ -201,28 +253,210 @@ public class ValueSetController {
                 ))
         })
 
-    public ResponseEntity<String> getValueSet(
+    public ResponseEntity<byte[]> getValueSet(
         @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
         @Valid @PathVariable("hash") String hash
     ) {
-        ResponseEntity<String> responseEntity;
-
-        ValueSetEntity vse = valueSetService.getValueSetByHash(hash);
+        SignedPayload valueSet = dataSnapshotService.getSnapshot().getValueSets().getValueSet(hash);
 
-        if (vse == null) {
+        if (valueSet == null) {
+            meterRegistry.counter(MetricsConfig.LOOKUPS_NOT_FOUND, "type", MetricsConfig.TYPE_VALUE_SET).increment();
             throw new DgcaBusinessRulesResponseException(HttpStatus.NOT_FOUND, "0x001", "Possible reasons: "
                 + "The provided hash value is not correct", hash, "");
         }
 
-        if (vse.getSignature() != null) {
-            HttpHeaders responseHeaders = new HttpHeaders();
-            responseHeaders.set(BusinessRuleController.X_SIGNATURE_HEADER, vse.getSignature());
-            responseEntity = ResponseEntity.ok().headers(responseHeaders).body(vse.getRawData());
-        } else {
-            responseEntity = ResponseEntity.ok(vse.getRawData());
+        return SignedPayloadResponses.ok(valueSet, acceptEncoding);
+    }
+
+    /**
+     * Http Method for getting multiple value sets at once.
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Gets multiple value sets by their hash values.",
+        description = "This method can be used to download many value sets with a single request, e.g. after the "
+            + "value set list has been downloaded for the first time. The value sets are returned as newline "
+            + "delimited JSON, one item per line, with the value set as string in the data field and its signature. "
+            + "Hash values without a matching value set are left out.",
+        tags = {"Value Sets"},
+        parameters = {
+            @Parameter(
+                in = ParameterIn.HEADER,
+                name = "X-VERSION",
+                description = "Version of the API. In preparation of changes in the future. Set it to \"1.0\"",
+                required = true,
+                schema = @Schema(implementation = String.class))
+        },
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = true,
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                array = @ArraySchema(schema = @Schema(implementation = String.class)))),
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Returns the value sets as newline delimited JSON.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = SignedBatchItemDto.class))),
+            @ApiResponse(
+                responseCode = "400",
+                description = "The request contains no or too many hash values.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemReportDto.class)))
+        })
+    public ResponseEntity<StreamingResponseBody> getValueSetBatch(
+        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @RequestBody List<String> hashes
+    ) {
+        if (hashes.isEmpty() || hashes.size() > SignedPayloadResponses.MAX_BATCH_SIZE) {
+            throw new DgcaBusinessRulesResponseException(HttpStatus.BAD_REQUEST, "0x007", "Possible reasons: "
+                + "The batch must contain between 1 and " + SignedPayloadResponses.MAX_BATCH_SIZE + " keys.",
+                String.valueOf(hashes.size()), "");
         }
 
-        return responseEntity;
+        ValueSetsSnapshot valueSets = dataSnapshotService.getSnapshot().getValueSets();
+        return SignedPayloadResponses.ndjson(jacksonHttpMessageConverter.getObjectMapper(), hashes.stream()
+            .distinct()
+            .map(valueSets::getValueSet)
+            .filter(Objects::nonNull)
+            .map(valueSet -> SignedPayloadResponses.batchItem(null, valueSet)));
+    }
+
+    /**
+     * Http Method for looking up a single code of a value set.
+     */
+    @GetMapping(path = "/by-id/{id}/codes/{*code}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Looks up a code of a value set.",
+        description = "This method checks whether a value set contains a code and returns its display name and "
+            + "properties, without downloading the whole value set. The code is the rest of the path, so codes "
+            + "containing slashes like EU/1/20/1528 can be used as they are.",
+        tags = {"Value Sets"},
+        parameters = {
+            @Parameter(
+                in = ParameterIn.PATH,
+                name = "id",
+                description = "Id of the value set, e.g. vaccines-covid-19-names",
+                required = true,
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.PATH,
+                name = "code",
+                description = "The code to look up, e.g. EU/1/20/1528",
+                required = true,
+                schema = @Schema(implementation = String.class)),
+            @Parameter(
+                in = ParameterIn.HEADER,
+                name = "X-VERSION",
+                description = "Version of the API. In preparation of changes in the future. Set it to \"1.0\"",
+                required = true,
+                schema = @Schema(implementation = String.class))
+        },
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Returns the properties of the code.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ValueSetCodeDto.class))),
+            @ApiResponse(
+                responseCode = "404",
+                description = "The value set does not exist or does not contain the code.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemReportDto.class)))
+        })
+    public ResponseEntity<ValueSetCodeDto> getValueSetCode(
+        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @PathVariable("id") String id,
+        @PathVariable("code") String code
+    ) {
+        // the catch all path variable starts with the separating slash
+        ValueSetCodeDto valueSetCode = lookupCode(dataSnapshotService.getSnapshot().getValueSets(), id,
+            code.startsWith("/") ? code.substring(1) : code);
+
+        if (!valueSetCode.isMember()) {
+            meterRegistry.counter(MetricsConfig.LOOKUPS_NOT_FOUND, "type", MetricsConfig.TYPE_VALUE_SET).increment();
+            throw new DgcaBusinessRulesResponseException(HttpStatus.NOT_FOUND, "0x00A", "Possible reasons: "
+                + "The value set does not exist or does not contain the code.", valueSetCode.getCode(), "");
+        }
+
+        return ResponseEntity.ok(valueSetCode);
+    }
+
+    /**
+     * Http Method for looking up multiple codes at once.
+     */
+    @PostMapping(path = "/codes", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Looks up multiple codes of value sets.",
+        description = "This method checks for each pair of value set id and code whether the value set contains "
+            + "the code. The result contains one item per requested pair in the order of the request, with the "
+            + "display name and properties of the codes which are contained.",
+        tags = {"Value Sets"},
+        parameters = {
+            @Parameter(
+                in = ParameterIn.HEADER,
+                name = "X-VERSION",
+                description = "Version of the API. In preparation of changes in the future. Set it to \"1.0\"",
+                required = true,
+                schema = @Schema(implementation = String.class))
+        },
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            required = true,
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                array = @ArraySchema(schema = @Schema(implementation = ValueSetCodeKeyDto.class)))),
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Returns the membership and properties of each code.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = ValueSetCodeDto.class)))),
+            @ApiResponse(
+                responseCode = "400",
+                description = "The request contains no or too many codes or a key is malformed.",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemReportDto.class)))
+        })
+    public ResponseEntity<List<ValueSetCodeDto>> getValueSetCodes(
+        @RequestHeader(value = API_VERSION_HEADER, required = false) String apiVersion,
+        @RequestBody List<ValueSetCodeKeyDto> keys
+    ) {
+        if (keys.isEmpty() || keys.size() > SignedPayloadResponses.MAX_BATCH_SIZE) {
+            throw new DgcaBusinessRulesResponseException(HttpStatus.BAD_REQUEST, "0x007", "Possible reasons: "
+                + "The batch must contain between 1 and " + SignedPayloadResponses.MAX_BATCH_SIZE + " keys.",
+                String.valueOf(keys.size()), "");
+        }
+        for (ValueSetCodeKeyDto key : keys) {
+            if (key == null || key.getValueSetId() == null || key.getValueSetId().isBlank()
+                || key.getCode() == null || key.getCode().isBlank()) {
+                throw new DgcaBusinessRulesResponseException(HttpStatus.BAD_REQUEST, "0x004", "Possible reasons: "
+                    + "Each key must contain a value set id and a code.", String.valueOf(key), "");
+            }
+        }
+
+        ValueSetsSnapshot valueSets = dataSnapshotService.getSnapshot().getValueSets();
+        return ResponseEntity.ok(keys.stream()
+            .map(key -> lookupCode(valueSets, key.getValueSetId(), key.getCode()))
+            .collect(Collectors.toList()));
+    }
+
+    private ValueSetCodeDto lookupCode(ValueSetsSnapshot valueSets, String valueSetId, String code) {
+        ValueSetCodeTable table = valueSets.getCodeTable(valueSetId);
+        ValueSetCode valueSetCode = table == null ? null : table.getCode(code);
+        if (valueSetCode == null) {
+            return new ValueSetCodeDto(valueSetId, code, false, null, null, null, null, null);
+        }
+        return new ValueSetCodeDto(valueSetId, code, true, valueSetCode.getDisplay(), valueSetCode.getLang(),
+            valueSetCode.isActive(), valueSetCode.getSystem(), valueSetCode.getVersion());
     }
 
 
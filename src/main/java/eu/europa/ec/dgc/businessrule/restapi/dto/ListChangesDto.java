@@ -0,0 +1,63 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.businessrule.restapi.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.Value;
+
+@Schema(
+    name = "ListChanges",
+    type = "object",
+    example = "{"
+        + "\"since\":\"2ef6bd0e4e42a9a2c7b0d4cfc6c6cbf7b19e2bb8e5bd3d4e8d36a4a1a7b7c4b5\","
+        + "\"hash\":\"39b9b4b3c5e7a3b2ee6c1e1d8d3ab6f0d2b52dc3d0e0e7de1be61a2dbf6d0c1a\","
+        + "\"fullList\":false,"
+        + "\"added\":[{\"identifier\":\"VR-DE-1\",\"version\":\"1.0.1\",\"country\":\"DE\","
+        + "\"hash\":\"6821d518570fe9f4417c482ff0d2582a7b6440f243a9034f812e0d71611b611f\"}],"
+        + "\"removed\":[{\"identifier\":\"VR-DE-1\",\"version\":\"1.0.0\",\"country\":\"DE\","
+        + "\"hash\":\"7221d518570fe9f4417c482ff0d2582a7b6440f243a9034f812e0d71611b611f\"}]"
+        + "}"
+)
+
+@Value
+public class ListChangesDto {
+
+    /**
+     * Hash of the list version the changes are based on. Null if the changes contain the full list.
+     */
+    String since;
+
+    /**
+     * Hash of the current list version.
+     */
+    String hash;
+
+    /**
+     * True if the requested list version is unknown and added contains the full current list.
+     */
+    boolean fullList;
+
+    List<JsonNode> added;
+
+    List<JsonNode> removed;
+}
@@ -0,0 +1,50 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.restapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Schema(
+    name = "RuleEvaluationBatchItem",
+    type = "object",
+    example = "{"
+        + "\"id\":\"4711\","
+        + "\"payload\":{\"ver\":\"1.3.0\",\"dob\":\"1964-08-12\",\"v\":[{\"tg\":\"840539006\",\"vp\":\"1119349007\","
+        + "\"mp\":\"EU/1/20/1528\",\"ma\":\"ORG-100030215\",\"dn\":2,\"sd\":2,\"dt\":\"2021-05-29\",\"co\":\"DE\","
+        + "\"is\":\"Robert Koch-Institut\",\"ci\":\"URN:UVCI:01DE/IZ12345A/5CWLU12RNOB9RXSEOP6FG8#W\"}]},"
+        + "\"issuerCountryCode\":\"DE\""
+        + "}"
+)
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class RuleEvaluationBatchItemDto extends RuleEvaluationRequestDto {
+
+    /**
+     * An optional id of the client which is repeated in the result of this item.
+     */
+    private String id;
+}
@@ -0,0 +1,82 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.restapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(
+    name = "RuleEvaluationRequest",
+    type = "object",
+    example = "{"
+        + "\"payload\":{\"ver\":\"1.3.0\",\"dob\":\"1964-08-12\",\"v\":[{\"tg\":\"840539006\",\"vp\":\"1119349007\","
+        + "\"mp\":\"EU/1/20/1528\",\"ma\":\"ORG-100030215\",\"dn\":2,\"sd\":2,\"dt\":\"2021-05-29\",\"co\":\"DE\","
+        + "\"is\":\"Robert Koch-Institut\",\"ci\":\"URN:UVCI:01DE/IZ12345A/5CWLU12RNOB9RXSEOP6FG8#W\"}]},"
+        + "\"validationClock\":\"2021-07-01T12:00:00Z\","
+        + "\"issuerCountryCode\":\"DE\""
+        + "}"
+)
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleEvaluationRequestDto {
+
+    /**
+     * The decoded payload of the DCC (the content of the hcert claim).
+     */
+    private Map<String, Object> payload;
+
+    /**
+     * The time the rules are checked for, the current time if not set.
+     */
+    private ZonedDateTime validationClock;
+
+    /**
+     * The country which issued the DCC. Its invalidation rules are only checked if it is set.
+     */
+    private String issuerCountryCode;
+
+    /**
+     * The issuing time of the DCC (iat claim).
+     */
+    private ZonedDateTime issuedAt;
+
+    /**
+     * The expiration time of the DCC (exp claim).
+     */
+    private ZonedDateTime expiresAt;
+
+    /**
+     * The key identifier of the DSC the DCC was signed with.
+     */
+    private String kid;
+
+    /**
+     * The region within the country of arrival.
+     */
+    private String region;
+}
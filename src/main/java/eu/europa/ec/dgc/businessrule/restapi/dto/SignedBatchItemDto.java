@@ -0,0 +1,58 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.businessrule.restapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+
+@Schema(
+    name = "SignedBatchItem",
+    type = "object",
+    example = "{"
+        + "\"country\":\"DE\","
+        + "\"hash\":\"6821d518570fe9f4417c482ff0d2582a7b6440f243a9034f812e0d71611b611f\","
+        + "\"signature\":\"MEUCIQDZ3Qx6sqWrGNULXXWkl1Dr7qwkCRjCcR/9gm12GOXR4QIgSnl6tXzGIa0bc0ArEvBeG9YW4ipK3HO==\","
+        + "\"data\":\"{\\\"Identifier\\\":\\\"VR-DE-1\\\"}\""
+        + "}"
+)
+
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SignedBatchItemDto {
+
+    /**
+     * Country code of a business rule. Not set for value sets.
+     */
+    String country;
+
+    String hash;
+
+    /**
+     * Signature of the hash. Not set if the service has no signing key.
+     */
+    String signature;
+
+    /**
+     * The data exactly as served by the single item endpoint, so hash and signature can be verified.
+     */
+    String data;
+}
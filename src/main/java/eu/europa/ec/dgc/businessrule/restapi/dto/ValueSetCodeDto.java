@@ -0,0 +1,68 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.restapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+
+@Schema(
+    name = "ValueSetCode",
+    type = "object",
+    example = "{"
+        + "\"valueSetId\":\"vaccines-covid-19-names\","
+        + "\"code\":\"EU/1/20/1528\","
+        + "\"member\":true,"
+        + "\"display\":\"Comirnaty\","
+        + "\"lang\":\"en\","
+        + "\"active\":true,"
+        + "\"system\":\"https://ec.europa.eu/health/documents/community-register/html/\","
+        + "\"version\":\"\""
+        + "}"
+)
+
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ValueSetCodeDto {
+
+    String valueSetId;
+
+    String code;
+
+    /**
+     * True if the value set contains the code.
+     */
+    boolean member;
+
+    /**
+     * The display name of the code. Only set for members.
+     */
+    String display;
+
+    String lang;
+
+    Boolean active;
+
+    String system;
+
+    String version;
+}
@@ -20,22 +20,27 @@
 
 package eu.europa.ec.dgc.businessrule.service;
 
+import eu.europa.ec.dgc.businessrule.config.CacheConfig;
 import eu.europa.ec.dgc.businessrule.entity.BusinessRuleEntity;
 import eu.europa.ec.dgc.businessrule.entity.ListType;
-import eu.europa.ec.dgc.businessrule.entity.SignedListEntity;
 import eu.europa.ec.dgc.businessrule.model.BusinessRuleItem;
+import eu.europa.ec.dgc.businessrule.model.RuleMetadata;
+import eu.europa.ec.dgc.businessrule.model.UpdateResult;
 import eu.europa.ec.dgc.businessrule.repository.BusinessRuleRepository;
-import eu.europa.ec.dgc.businessrule.repository.SignedListRepository;
 import eu.europa.ec.dgc.businessrule.restapi.dto.BusinessRuleListItemDto;
 import eu.europa.ec.dgc.businessrule.utils.BusinessRulesUtils;
 import eu.europa.ec.dgc.gateway.connector.model.ValidationRule;
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
-import javax.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -52,80 +57,119 @@ public class BusinessRuleService {
     private final BusinessRuleRepository businessRuleRepository;
     private final ListSigningService listSigningService;
     private final Optional<SigningService> signingService;
-    private final SignedListRepository signedListRepository;
+    private final DataSnapshotService dataSnapshotService;
+    private final DataVersionService dataVersionService;
 
     private final BusinessRulesUtils businessRulesUtils;
 
     /**
-     * Creates the signature for the empty rules list after start up.
+     * Creates the signatures for the rules lists after start up. The metadata of rules which have been stored
+     * before it was extracted is read from their raw data.
      */
-    @PostConstruct
     @Transactional
     public void businessRuleServiceInit() {
-        listSigningService.updateSignedList(getBusinessRulesList(),ListType.Rules);
+        backfillRuleMetadata();
+        List<BusinessRuleListItemDto> rules = getBusinessRulesList();
+        listSigningService.updateSignedList(rules,ListType.Rules);
+        listSigningService.updateSignedCountryRuleLists(rules);
+        dataSnapshotService.publishRules();
     }
 
     /**
      *  Gets list of all business rules ids and hashes.
      *
      */
-    @Cacheable("business_rules")
+    @Cacheable(CacheConfig.BUSINESS_RULES_LIST)
     public List<BusinessRuleListItemDto> getBusinessRulesList() {
         log.debug("Get Rules list executed.");
         List<BusinessRuleListItemDto> rulesItems = businessRuleRepository.findAllByOrderByIdentifierAsc();
         return rulesItems;
     }
 
-    @Cacheable("business_rules")
-    public Optional<SignedListEntity> getBusinessRulesSignedList() {
-        log.debug("Get Rules list executed.");
-        return signedListRepository.findById(ListType.Rules);
-    }
-
     /**
-     *  Gets list of all business rules ids and hashes for a country.
+     * Gets the business rules of a country which apply to a certificate type at an instant. Of several valid
+     * versions of a rule only the highest one is returned. The rules are looked up in the applicability index of
+     * the current rules snapshot, which is rebuilt whenever the business rules are updated.
+     *
+     * @param country         the country code of the rules.
+     * @param certificateType the certificate type, e.g. Vaccination, or null for the rules of all certificate
+     *                        types. Rules of certificate type General are always included.
+     * @param instant         the instant at which the rules must be valid.
+     * @return the rules ordered by identifier.
      */
-    @Cacheable("business_rules")
-    public List<BusinessRuleListItemDto> getBusinessRulesListForCountry(String country) {
-        log.debug("Get Rules list for country ({}) executed.", country);
-        List<BusinessRuleListItemDto> rulesItems =
-            businessRuleRepository.findAllByCountryOrderByIdentifierAsc(country.toUpperCase(Locale.ROOT));
-        return rulesItems;
+    public List<RuleMetadata> getApplicableRules(String country, String certificateType, Instant instant) {
+        return dataSnapshotService.getSnapshot().getRules().getApplicabilityIndex()
+            .getApplicableRules(country.toUpperCase(Locale.ROOT), certificateType, instant);
     }
 
-    /**f
-     *  Gets  a business rule by country and hash.
+    /**
+     * Updates the list of business rules. Only the rules which are new or no longer contained are written.
+     * @param businessRules list of actual business rules
+     * @return the counts and timings of the update
      */
     @Transactional
-    @Cacheable("business_rules")
-    public BusinessRuleEntity getBusinessRuleByCountryAndHash(String country, String hash) {
-        log.debug("Get rule for country ({}) and hash ({}) executed.", country, hash);
-        return  businessRuleRepository.findOneByCountryAndHash(country, hash);
+    @CacheEvict(value = CacheConfig.BUSINESS_RULES_LIST, allEntries = true)
+    public UpdateResult updateBusinessRules(List<BusinessRuleItem> businessRules) {
+        return updateBusinessRules(businessRules, Collections.emptySet());
     }
 
     /**
-     * Updates the list of business rules.
-     * @param businessRules list of actual value sets
+     * Updates the list of business rules. The stored rules of countries which could not be downloaded are kept.
+     * @param businessRules list of actual business rules
+     * @param unavailableCountries country codes whose rules could not be downloaded
+     * @return the counts and timings of the update
      */
     @Transactional
-    @CacheEvict(value = "business_rules", allEntries = true)
-    public void updateBusinessRules(List<BusinessRuleItem> businessRules) {
-        List<String> ruleHashes =
-            businessRules.stream().map(BusinessRuleItem::getHash).collect(Collectors.toList());
-        List<String> alreadyStoredRules = getBusinessRulesHashList();
-
-        if (ruleHashes.isEmpty()) {
-            businessRuleRepository.deleteAll();
-        } else {
-            businessRuleRepository.deleteByHashNotIn(ruleHashes);
+    @CacheEvict(value = CacheConfig.BUSINESS_RULES_LIST, allEntries = true)
+    public UpdateResult updateBusinessRules(List<BusinessRuleItem> businessRules,
+                                            Set<String> unavailableCountries) {
+        final long start = System.currentTimeMillis();
+        Map<String, BusinessRuleItem> rulesByHash = new LinkedHashMap<>();
+        businessRules.forEach(rule -> rulesByHash.putIfAbsent(rule.getHash(), rule));
+        List<BusinessRuleListItemDto> storedRules = getBusinessRulesList();
+        Set<String> alreadyStoredRules = storedRules.stream()
+            .map(BusinessRuleListItemDto::getHash)
+            .collect(Collectors.toSet());
+
+        List<String> removedRules = storedRules.stream()
+            .filter(rule -> !rulesByHash.containsKey(rule.getHash()))
+            .filter(rule -> !unavailableCountries.contains(rule.getCountry()))
+            .map(BusinessRuleListItemDto::getHash)
+            .collect(Collectors.toList());
+        List<BusinessRuleItem> newRules = rulesByHash.values().stream()
+            .filter(rule -> !alreadyStoredRules.contains(rule.getHash()))
+            .collect(Collectors.toList());
+        final long diffDone = System.currentTimeMillis();
+        Map<String, String> signatures = computeSignatures(newRules.stream()
+            .map(BusinessRuleItem::getHash)
+            .collect(Collectors.toList()));
+        List<BusinessRuleEntity> addedRules = newRules.stream()
+            .map(rule -> toEntity(rule, signatures.get(rule.getHash())))
+            .collect(Collectors.toList());
+        final long signDone = System.currentTimeMillis();
+
+        if (!removedRules.isEmpty()) {
+            businessRuleRepository.deleteAllByIdInBatch(removedRules);
         }
+        final long deleteDone = System.currentTimeMillis();
 
-        for (BusinessRuleItem rule : businessRules) {
-            if (!alreadyStoredRules.contains(rule.getHash())) {
-                saveBusinessRule(rule);
-            }
+        businessRuleRepository.insertAll(addedRules);
+        final long insertDone = System.currentTimeMillis();
+
+        List<BusinessRuleListItemDto> rules = getBusinessRulesList();
+        listSigningService.updateSignedList(rules,ListType.Rules);
+        listSigningService.updateSignedCountryRuleLists(rules);
+        dataSnapshotService.publishRules();
+        if (!addedRules.isEmpty() || !removedRules.isEmpty()) {
+            dataVersionService.markChanged(DataVersionService.RULES);
         }
-        listSigningService.updateSignedList(getBusinessRulesList(),ListType.Rules);
+        long end = System.currentTimeMillis();
+
+        UpdateResult result = new UpdateResult(addedRules.size(), removedRules.size(),
+            alreadyStoredRules.size() - removedRules.size(), diffDone - start, signDone - diffDone,
+            deleteDone - signDone, insertDone - deleteDone, end - insertDone);
+        log.info("Updated business rules: {}", result);
+        return result;
     }
 
     /**
@@ -134,18 +178,42 @@ public class BusinessRuleService {
      */
     @Transactional
     public void saveBusinessRule(BusinessRuleItem rule) {
+        businessRuleRepository.save(toEntity(rule,
+            signingService.map(service -> service.computeSignature(rule.getHash())).orElse(null)));
+    }
+
+    private void backfillRuleMetadata() {
+        List<BusinessRuleEntity> rules = businessRuleRepository.findAllByTypeIsNull();
+        if (rules.isEmpty()) {
+            return;
+        }
+        rules.forEach(businessRulesUtils::applyRuleMetadata);
+        businessRuleRepository.saveAll(rules);
+        log.info("Extracted the metadata of {} stored business rules.", rules.size());
+    }
+
+    private Map<String, String> computeSignatures(List<String> hashes) {
+        return signingService.map(service -> service.computeSignatures(hashes)).orElse(Collections.emptyMap());
+    }
+
+    private BusinessRuleEntity toEntity(BusinessRuleItem rule, String signature) {
         BusinessRuleEntity bre = new BusinessRuleEntity();
         bre.setHash(rule.getHash());
         bre.setIdentifier(rule.getIdentifier());
         bre.setCountry(rule.getCountry().toUpperCase(Locale.ROOT));
         bre.setVersion(rule.getVersion());
         bre.setRawData(rule.getRawData());
-
-        if (signingService.isPresent()) {
-            bre.setSignature(signingService.get().computeSignature(bre.getHash()));
+        bre.setSignature(signature);
+        bre.setType(rule.getType());
+        bre.setCertificateType(rule.getCertificateType());
+        bre.setEngine(rule.getEngine());
+        bre.setEngineVersion(rule.getEngineVersion());
+        bre.setValidFrom(rule.getValidFrom());
+        bre.setValidTo(rule.getValidTo());
+        if (bre.getType() == null) {
+            businessRulesUtils.applyRuleMetadata(bre);
         }
-
-        businessRuleRepository.save(bre);
+        return bre;
     }
 
     /**
@@ -165,18 +233,16 @@ public class BusinessRuleService {
             businessRuleItem.setCountry(validationRule.getCountry());
             businessRuleItem.setVersion(validationRule.getVersion());
             businessRuleItem.setRawData(validationRule.getRawJson());
+            businessRuleItem.setType(validationRule.getType());
+            businessRuleItem.setCertificateType(validationRule.getCertificateType());
+            businessRuleItem.setEngine(validationRule.getEngine());
+            businessRuleItem.setEngineVersion(validationRule.getEngineVersion());
+            businessRuleItem.setValidFrom(validationRule.getValidFrom());
+            businessRuleItem.setValidTo(validationRule.getValidTo());
 
             businessRuleItems.add(businessRuleItem);
         }
 
         return businessRuleItems;
     }
-
-    /**
-     * Gets a list of hash values of all stored business rules.
-     * @return List of hash values
-     */
-    private List<String> getBusinessRulesHashList() {
-        return getBusinessRulesList().stream().map(BusinessRuleListItemDto::getHash).collect(Collectors.toList());
-    }
 }
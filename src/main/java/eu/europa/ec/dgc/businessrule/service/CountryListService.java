@@ -20,6 +20,7 @@
 
 package eu.europa.ec.dgc.businessrule.service;
 
+import eu.europa.ec.dgc.businessrule.config.CacheConfig;
 import eu.europa.ec.dgc.businessrule.entity.CountryListEntity;
 import eu.europa.ec.dgc.businessrule.repository.CountryListRepository;
 import eu.europa.ec.dgc.businessrule.utils.BusinessRulesUtils;
@@ -37,18 +38,29 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class CountryListService {
 
-    private static final Long COUNTRY_LIST_ID = 1L;
+    static final Long COUNTRY_LIST_ID = 1L;
 
     private final CountryListRepository countryListRepository;
     private final Optional<SigningService> signingService;
     private final BusinessRulesUtils businessRulesUtils;
+    private final DataSnapshotService dataSnapshotService;
+    private final DataVersionService dataVersionService;
+
+    /**
+     * Makes sure a country list exists and publishes it after start up.
+     */
+    @Transactional
+    public void countryListServiceInit() {
+        getCountryList();
+        dataSnapshotService.publishCountryList();
+    }
 
     /**
      * Gets the actual country list.
      * @return the country list.
      */
     @Transactional
-    @Cacheable("country_list")
+    @Cacheable(CacheConfig.COUNTRY_LIST)
     public CountryListEntity getCountryList() {
         log.debug("Get country list executed");
         CountryListEntity  cle = countryListRepository.getFirstById(COUNTRY_LIST_ID);
@@ -65,11 +77,13 @@ public class CountryListService {
      * @param newCountryListData new country list data
      */
     @Transactional
-    @CacheEvict(value = "country_list", allEntries = true)
+    @CacheEvict(value = CacheConfig.COUNTRY_LIST, allEntries = true)
     public void updateCountryList(String newCountryListData) {
         CountryListEntity oldList = getCountryList();
         if (!newCountryListData.equals(oldList.getRawData())) {
             countryListRepository.save(createCountryListEntity(newCountryListData));
+            dataSnapshotService.publishCountryList();
+            dataVersionService.markChanged(DataVersionService.COUNTRY_LIST);
         }
     }
 
@@ -0,0 +1,108 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.service;
+
+import eu.europa.ec.dgc.businessrule.config.DgcConfigProperties;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Signs the stored lists and publishes the snapshot after start up. The business rules, value sets and the
+ * country list are independent, so they are initialized in parallel. If deferring is enabled and the snapshot has
+ * been restored from the snapshot file, the initialization runs after the application is ready, as the restored
+ * snapshot can be served until then. In read only mode the restored snapshot is not initialized at all.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class DataInitService implements SmartInitializingSingleton {
+
+    private final BusinessRuleService businessRuleService;
+    private final ValueSetService valueSetService;
+    private final CountryListService countryListService;
+    private final DataSnapshotService dataSnapshotService;
+    private final DgcConfigProperties dgcConfigProperties;
+
+    private boolean deferred;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (dgcConfigProperties.isReadOnly() && dataSnapshotService.isRestoredFromFile()) {
+            log.info("Serving the restored snapshot read only, data initialization is skipped.");
+            return;
+        }
+        deferred = dgcConfigProperties.getStartup().isDeferInit() && dataSnapshotService.isRestoredFromFile();
+        if (deferred) {
+            log.info("Serving the restored snapshot, data initialization is deferred until the application is ready.");
+        } else {
+            initData();
+        }
+    }
+
+    /**
+     * Runs the deferred initialization in the background once the application accepts traffic.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (deferred) {
+            CompletableFuture.runAsync(this::initData).exceptionally(e -> {
+                log.error("Deferred data initialization failed. Serving the restored snapshot.", e);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Initializes the business rules, value sets and the country list in parallel.
+     */
+    public void initData() {
+        long start = System.currentTimeMillis();
+        List<Runnable> tasks = List.of(
+            businessRuleService::businessRuleServiceInit,
+            valueSetService::valueSetServiceInit,
+            countryListService::countryListServiceInit);
+
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            CompletableFuture.allOf(tasks.stream()
+                .map(task -> CompletableFuture.runAsync(task, executor))
+                .collect(Collectors.toList())
+                .toArray(CompletableFuture[]::new))
+                .join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        } finally {
+            executor.shutdown();
+        }
+        log.info("Data initialization finished in {} ms.", System.currentTimeMillis() - start);
+    }
+}
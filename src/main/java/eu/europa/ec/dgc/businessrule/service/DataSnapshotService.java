@@ -0,0 +1,446 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.businessrule.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.europa.ec.dgc.businessrule.entity.BusinessRuleEntity;
+import eu.europa.ec.dgc.businessrule.entity.CountryListEntity;
+import eu.europa.ec.dgc.businessrule.entity.ListType;
+import eu.europa.ec.dgc.businessrule.entity.SignedCountryRuleListEntity;
+import eu.europa.ec.dgc.businessrule.entity.SignedListEntity;
+import eu.europa.ec.dgc.businessrule.entity.SignedListHistoryEntity;
+import eu.europa.ec.dgc.businessrule.entity.ValueSetEntity;
+import eu.europa.ec.dgc.businessrule.model.DataSnapshot;
+import eu.europa.ec.dgc.businessrule.model.DataSnapshotPublishedEvent;
+import eu.europa.ec.dgc.businessrule.model.ListChanges;
+import eu.europa.ec.dgc.businessrule.model.RuleMetadata;
+import eu.europa.ec.dgc.businessrule.model.RulesSnapshot;
+import eu.europa.ec.dgc.businessrule.model.SignedPayload;
+import eu.europa.ec.dgc.businessrule.model.ValueSetsSnapshot;
+import eu.europa.ec.dgc.businessrule.repository.BusinessRuleRepository;
+import eu.europa.ec.dgc.businessrule.repository.CountryListRepository;
+import eu.europa.ec.dgc.businessrule.repository.SignedCountryRuleListRepository;
+import eu.europa.ec.dgc.businessrule.repository.SignedListHistoryRepository;
+import eu.europa.ec.dgc.businessrule.repository.SignedListRepository;
+import eu.europa.ec.dgc.businessrule.repository.ValueSetRepository;
+import eu.europa.ec.dgc.businessrule.restapi.dto.BusinessRuleListItemDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.ListChangesDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.ValueSetListItemDto;
+import eu.europa.ec.dgc.businessrule.utils.BusinessRulesUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Holds the immutable snapshot of all served data. The snapshot is rebuilt from the database after every update
+ * and swapped in atomically, so the read endpoints never access the database.
+ */
+@Slf4j
+@Service
+public class DataSnapshotService {
+
+    private static final String EMPTY_LIST = "[]";
+
+    /**
+     * Bodies smaller than this are not worth compressing.
+     */
+    private static final int MIN_COMPRESSION_SIZE = 256;
+
+    private final BusinessRuleRepository businessRuleRepository;
+    private final ValueSetRepository valueSetRepository;
+    private final SignedListRepository signedListRepository;
+    private final SignedListHistoryRepository signedListHistoryRepository;
+    private final SignedCountryRuleListRepository signedCountryRuleListRepository;
+    private final CountryListRepository countryListRepository;
+    private final ObjectMapper objectMapper;
+    private final BusinessRulesUtils businessRulesUtils;
+    private final TransactionTemplate transactionTemplate;
+    private final SnapshotFileService snapshotFileService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<DataSnapshot> snapshot;
+    private final boolean restoredFromFile;
+    private final Object snapshotFileLock = new Object();
+    private DataSnapshot storedSnapshot;
+
+    /**
+     * Creates the service with the snapshot stored in the snapshot file, or an empty snapshot if there is none.
+     */
+    public DataSnapshotService(BusinessRuleRepository businessRuleRepository,
+                               ValueSetRepository valueSetRepository,
+                               SignedListRepository signedListRepository,
+                               SignedListHistoryRepository signedListHistoryRepository,
+                               SignedCountryRuleListRepository signedCountryRuleListRepository,
+                               CountryListRepository countryListRepository,
+                               MappingJackson2HttpMessageConverter jacksonHttpMessageConverter,
+                               BusinessRulesUtils businessRulesUtils,
+                               PlatformTransactionManager transactionManager,
+                               SnapshotFileService snapshotFileService,
+                               ApplicationEventPublisher eventPublisher) {
+        this.businessRuleRepository = businessRuleRepository;
+        this.valueSetRepository = valueSetRepository;
+        this.signedListRepository = signedListRepository;
+        this.signedListHistoryRepository = signedListHistoryRepository;
+        this.signedCountryRuleListRepository = signedCountryRuleListRepository;
+        this.countryListRepository = countryListRepository;
+        this.objectMapper = jacksonHttpMessageConverter.getObjectMapper();
+        this.businessRulesUtils = businessRulesUtils;
+        this.snapshotFileService = snapshotFileService;
+        this.eventPublisher = eventPublisher;
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+
+        SignedPayload emptyList = unsignedPayload(EMPTY_LIST);
+        ListChanges noChanges = new ListChanges(Collections.emptyMap(),
+            unsignedPayload(toJson(new ListChangesDto(null, emptyList.getHash(), true,
+                Collections.emptyList(), Collections.emptyList()))));
+        this.snapshot = new AtomicReference<>(new DataSnapshot(
+            new RulesSnapshot(emptyList, noChanges, Collections.emptyMap(), Collections.emptyMap(), emptyList,
+                Collections.emptyMap()),
+            new ValueSetsSnapshot(emptyList, noChanges, Collections.emptyMap()),
+            emptyList));
+        Optional<DataSnapshot> storedSnapshot = snapshotFileService.read();
+        storedSnapshot.ifPresent(this.snapshot::set);
+        this.restoredFromFile = storedSnapshot.isPresent();
+    }
+
+    /**
+     * Gets the currently published snapshot.
+     *
+     * @return the snapshot.
+     */
+    public DataSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Checks whether the snapshot has been restored from the snapshot file on start up.
+     *
+     * @return true if the stored snapshot has been loaded.
+     */
+    public boolean isRestoredFromFile() {
+        return restoredFromFile;
+    }
+
+    /**
+     * Rebuilds the business rules part of the snapshot. If called within a transaction the snapshot is rebuilt
+     * after the transaction has been committed.
+     */
+    public void publishRules() {
+        publish("business rules", current -> buildRulesSnapshot(current.getRules()), DataSnapshot::withRules);
+    }
+
+    /**
+     * Rebuilds the value sets part of the snapshot. If called within a transaction the snapshot is rebuilt
+     * after the transaction has been committed.
+     */
+    public void publishValueSets() {
+        publish("value sets", current -> buildValueSetsSnapshot(current.getValueSets()),
+            DataSnapshot::withValueSets);
+    }
+
+    /**
+     * Rebuilds the country list part of the snapshot. If called within a transaction the snapshot is rebuilt
+     * after the transaction has been committed.
+     */
+    public void publishCountryList() {
+        publish("country list", current -> buildCountryList(current.getCountryList()),
+            DataSnapshot::withCountryList);
+    }
+
+    private <T> void publish(String name, Function<DataSnapshot, T> builder,
+                             BiFunction<DataSnapshot, T, DataSnapshot> update) {
+        Runnable task = () -> {
+            try {
+                T part = transactionTemplate.execute(status -> builder.apply(snapshot.get()));
+                DataSnapshot published = snapshot.updateAndGet(current -> update.apply(current, part));
+                log.debug("Published new snapshot of {}.", name);
+                eventPublisher.publishEvent(new DataSnapshotPublishedEvent(published));
+                storeSnapshot();
+            } catch (RuntimeException e) {
+                log.error("Failed to publish snapshot of {}. Keeping the previous one.", name, e);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Stores the current snapshot in the snapshot file. The snapshot is read while holding the lock, so a publish
+     * running in parallel can never overwrite the file with an older snapshot.
+     */
+    private void storeSnapshot() {
+        synchronized (snapshotFileLock) {
+            DataSnapshot current = snapshot.get();
+            if (current != storedSnapshot) {
+                snapshotFileService.write(current);
+                storedSnapshot = current;
+            }
+        }
+    }
+
+    private RulesSnapshot buildRulesSnapshot(RulesSnapshot previous) {
+        Map<String, byte[]> previousGzipBodies = new HashMap<>();
+        collectGzipBodies(previousGzipBodies, previous.getList());
+        collectGzipBodies(previousGzipBodies, previous.getChanges());
+        previous.getCountryLists().values().forEach(list -> collectGzipBodies(previousGzipBodies, list));
+        previous.getRules().values().forEach(byHash ->
+            byHash.values().forEach(rule -> collectGzipBodies(previousGzipBodies, rule)));
+
+        List<BusinessRuleEntity> rules = businessRuleRepository.findAll(Sort.by("identifier", "version"));
+
+        Map<String, SignedPayload> countryLists = new HashMap<>();
+        for (SignedCountryRuleListEntity countryList : signedCountryRuleListRepository.findAll()) {
+            countryLists.put(countryList.getCountry(), compress(SignedPayload.of(countryList.getRawData(),
+                countryList.getHash(), countryList.getSignature()), previousGzipBodies));
+        }
+        rules.stream()
+            .filter(rule -> !countryLists.containsKey(rule.getCountry()))
+            .collect(Collectors.groupingBy(BusinessRuleEntity::getCountry,
+                Collectors.mapping(this::toListItem, Collectors.toList())))
+            .forEach((country, items) ->
+                countryLists.put(country, compress(unsignedPayload(toJson(items)), previousGzipBodies)));
+
+        Map<String, Map<String, SignedPayload>> rulesByCountry = new HashMap<>();
+        for (BusinessRuleEntity rule : rules) {
+            rulesByCountry.computeIfAbsent(rule.getCountry(), c -> new HashMap<>())
+                .put(rule.getHash(), compress(SignedPayload.of(rule.getRawData(), rule.getHash(),
+                    rule.getSignature()), previousGzipBodies));
+        }
+        rulesByCountry.replaceAll((country, byHash) -> Collections.unmodifiableMap(byHash));
+
+        Map<String, List<RuleMetadata>> metadataByCountry = rules.stream()
+            .map(this::toMetadata)
+            .collect(Collectors.groupingBy(RuleMetadata::getCountry, Collectors.collectingAndThen(
+                Collectors.toList(), metadata -> {
+                    metadata.sort(RulesSnapshot.VALID_TO_ORDER);
+                    return Collections.unmodifiableList(metadata);
+                })));
+
+        SignedPayload list = signedListRepository.findById(ListType.Rules)
+            .map(this::signedListPayload)
+            .orElseGet(() -> unsignedPayload(toJson(rules.stream().map(this::toListItem)
+                .collect(Collectors.toList()))));
+
+        return new RulesSnapshot(compress(list, previousGzipBodies),
+            buildChanges(ListType.Rules, list, previousGzipBodies), Collections.unmodifiableMap(countryLists),
+            Collections.unmodifiableMap(rulesByCountry), unsignedPayload(EMPTY_LIST),
+            Collections.unmodifiableMap(metadataByCountry));
+    }
+
+    private ValueSetsSnapshot buildValueSetsSnapshot(ValueSetsSnapshot previous) {
+        Map<String, byte[]> previousGzipBodies = new HashMap<>();
+        collectGzipBodies(previousGzipBodies, previous.getList());
+        collectGzipBodies(previousGzipBodies, previous.getChanges());
+        previous.getValueSets().values().forEach(valueSet -> collectGzipBodies(previousGzipBodies, valueSet));
+
+        List<ValueSetEntity> valueSets = valueSetRepository.findAll(Sort.by("id"));
+
+        SignedPayload list = signedListRepository.findById(ListType.ValueSets)
+            .map(this::signedListPayload)
+            .orElseGet(() -> unsignedPayload(toJson(valueSets.stream()
+                .map(vs -> new ValueSetListItemDto(vs.getId(), vs.getHash()))
+                .collect(Collectors.toList()))));
+
+        Map<String, SignedPayload> valueSetsByHash = new HashMap<>();
+        for (ValueSetEntity valueSet : valueSets) {
+            valueSetsByHash.put(valueSet.getHash(), compress(
+                SignedPayload.of(valueSet.getRawData(), valueSet.getHash(), valueSet.getSignature()),
+                previousGzipBodies));
+        }
+
+        return new ValueSetsSnapshot(compress(list, previousGzipBodies),
+            buildChanges(ListType.ValueSets, list, previousGzipBodies),
+            Collections.unmodifiableMap(valueSetsByHash), previous);
+    }
+
+    private SignedPayload buildCountryList(SignedPayload previous) {
+        Map<String, byte[]> previousGzipBodies = new HashMap<>();
+        collectGzipBodies(previousGzipBodies, previous);
+
+        return compress(
+            Optional.ofNullable(countryListRepository.getFirstById(CountryListService.COUNTRY_LIST_ID))
+                .map(this::countryListPayload)
+                .orElseGet(() -> unsignedPayload(EMPTY_LIST)),
+            previousGzipBodies);
+    }
+
+    /**
+     * Computes the added and removed items between each retained version of the list and the current list.
+     * Items are compared as a whole, so a changed item shows up as removed and added.
+     */
+    private ListChanges buildChanges(ListType listType, SignedPayload currentList,
+                                     Map<String, byte[]> previousGzipBodies) {
+        List<JsonNode> currentItems = readItems(currentList.getBody());
+        Set<JsonNode> currentItemSet = new HashSet<>(currentItems);
+
+        Map<String, SignedPayload> changesSince = new HashMap<>();
+        changesSince.put(currentList.getHash(), unsignedPayload(toJson(new ListChangesDto(currentList.getHash(),
+            currentList.getHash(), false, Collections.emptyList(), Collections.emptyList()))));
+
+        for (SignedListHistoryEntity version : signedListHistoryRepository.findAllByListTypeOrderByIdDesc(listType)) {
+            if (changesSince.containsKey(version.getHash())) {
+                continue;
+            }
+            List<JsonNode> versionItems = readItems(version.getRawData().getBytes(StandardCharsets.UTF_8));
+            Set<JsonNode> versionItemSet = new HashSet<>(versionItems);
+
+            List<JsonNode> added = currentItems.stream()
+                .filter(item -> !versionItemSet.contains(item))
+                .collect(Collectors.toList());
+            List<JsonNode> removed = versionItems.stream()
+                .filter(item -> !currentItemSet.contains(item))
+                .collect(Collectors.toList());
+
+            changesSince.put(version.getHash(), compress(unsignedPayload(toJson(new ListChangesDto(
+                version.getHash(), currentList.getHash(), false, added, removed))), previousGzipBodies));
+        }
+
+        SignedPayload fullList = unsignedPayload(toJson(new ListChangesDto(null, currentList.getHash(), true,
+            currentItems, Collections.emptyList())));
+        return new ListChanges(Collections.unmodifiableMap(changesSince), compress(fullList, previousGzipBodies));
+    }
+
+    private List<JsonNode> readItems(byte[] listJson) {
+        try {
+            List<JsonNode> items = new ArrayList<>();
+            objectMapper.readTree(listJson).forEach(items::add);
+            return items;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not parse list version.", e);
+        }
+    }
+
+    /**
+     * Adds the gzip encoded body to the payload. Bodies which have already been compressed for the previous
+     * snapshot are reused, so only changed data is compressed on each publish.
+     */
+    private SignedPayload compress(SignedPayload payload, Map<String, byte[]> previousGzipBodies) {
+        if (payload.getBody().length < MIN_COMPRESSION_SIZE) {
+            return payload;
+        }
+        byte[] gzipBody = previousGzipBodies.get(payload.getHash());
+        if (gzipBody == null) {
+            gzipBody = gzip(payload.getBody());
+        }
+        return gzipBody.length < payload.getBody().length ? payload.withGzipBody(gzipBody) : payload;
+    }
+
+    private void collectGzipBodies(Map<String, byte[]> gzipBodies, ListChanges changes) {
+        collectGzipBodies(gzipBodies, changes.getFullList());
+        changes.getChangesSince().values().forEach(payload -> collectGzipBodies(gzipBodies, payload));
+    }
+
+    private void collectGzipBodies(Map<String, byte[]> gzipBodies, SignedPayload payload) {
+        if (payload.getGzipBody() != null) {
+            gzipBodies.put(payload.getHash(), payload.getGzipBody());
+        }
+    }
+
+    private byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not compress snapshot payload.", e);
+        }
+        return out.toByteArray();
+    }
+
+    private BusinessRuleListItemDto toListItem(BusinessRuleEntity rule) {
+        return new BusinessRuleListItemDto(rule.getIdentifier(), rule.getVersion(), rule.getCountry(),
+            rule.getHash());
+    }
+
+    private RuleMetadata toMetadata(BusinessRuleEntity rule) {
+        return new RuleMetadata(rule.getIdentifier(), rule.getVersion(), rule.getCountry(), rule.getHash(),
+            BusinessRulesUtils.UNKNOWN_TYPE.equals(rule.getType()) ? null : rule.getType(),
+            rule.getCertificateType(), rule.getEngine(), rule.getEngineVersion(),
+            rule.getValidFrom() == null ? null : rule.getValidFrom().toInstant(),
+            rule.getValidTo() == null ? null : rule.getValidTo().toInstant());
+    }
+
+    private SignedPayload signedListPayload(SignedListEntity signedList) {
+        return SignedPayload.of(signedList.getRawData(), signedList.getHash(), signedList.getSignature());
+    }
+
+    private SignedPayload countryListPayload(CountryListEntity countryList) {
+        String hash = countryList.getHash() != null ? countryList.getHash() : hash(countryList.getRawData());
+        return SignedPayload.of(countryList.getRawData(), hash, countryList.getSignature());
+    }
+
+    private SignedPayload unsignedPayload(String rawData) {
+        return SignedPayload.of(rawData, hash(rawData), null);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize snapshot list.", e);
+        }
+    }
+
+    private String hash(String data) {
+        try {
+            return businessRulesUtils.calculateHash(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
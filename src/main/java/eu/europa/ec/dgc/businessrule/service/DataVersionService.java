@@ -0,0 +1,150 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.service;
+
+import eu.europa.ec.dgc.businessrule.config.CacheConfig;
+import eu.europa.ec.dgc.businessrule.entity.DataVersionEntity;
+import eu.europa.ec.dgc.businessrule.repository.DataVersionRepository;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the caches and the snapshot of all instances coherent. Only the instance holding the scheduler lock
+ * downloads and stores new data, it increments the version of the data type in the database. All instances poll
+ * the versions and refresh their caches and snapshot when a version changed on another instance.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class DataVersionService {
+
+    public static final String RULES = "rules";
+    public static final String VALUE_SETS = "value_sets";
+    public static final String COUNTRY_LIST = "country_list";
+
+    private final DataVersionRepository dataVersionRepository;
+    private final DataSnapshotService dataSnapshotService;
+    private final CacheManager cacheManager;
+
+    private final Map<String, Long> knownVersions = new ConcurrentHashMap<>();
+    private final Map<String, Long> pendingVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Reads the current versions. The data is loaded after start up, so only later changes need a refresh.
+     */
+    @PostConstruct
+    public void dataVersionServiceInit() {
+        dataVersionRepository.findAll()
+            .forEach(version -> knownVersions.put(version.getDataType(), version.getVersion()));
+    }
+
+    /**
+     * Increments the version of a data type within the current transaction. The new version is known to this
+     * instance once the transaction has been committed, as this instance has already refreshed its data. Until
+     * then it is kept as pending, so a poll between the commit and the callback does not refresh it again.
+     *
+     * @param dataType the changed data type.
+     */
+    @Transactional
+    public void markChanged(String dataType) {
+        if (dataVersionRepository.incrementVersion(dataType, ZonedDateTime.now()) == 0) {
+            dataVersionRepository.save(new DataVersionEntity(dataType, 1L, ZonedDateTime.now()));
+        }
+        long version = dataVersionRepository.findById(dataType)
+            .map(DataVersionEntity::getVersion)
+            .orElseThrow();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingVersions.put(dataType, version);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // the version becomes known before it is no longer pending, pollVersions reads them in reverse
+                    if (status == STATUS_COMMITTED) {
+                        knownVersions.merge(dataType, version, Math::max);
+                    }
+                    pendingVersions.remove(dataType, version);
+                }
+            });
+        } else {
+            knownVersions.merge(dataType, version, Math::max);
+        }
+    }
+
+    /**
+     * Polls the versions and refreshes the data types which were changed by another instance. Runs on every
+     * instance, so it is not locked.
+     */
+    @Scheduled(fixedDelayString = "${dgc.dataVersionPoll.timeInterval}")
+    public void pollVersions() {
+        for (DataVersionEntity version : dataVersionRepository.findAll()) {
+            Long pending = pendingVersions.get(version.getDataType());
+            Long known = knownVersions.get(version.getDataType());
+            if (!Objects.equals(pending, version.getVersion()) && !Objects.equals(known, version.getVersion())) {
+                log.info("Version of {} changed from {} to {}. Refreshing local data.",
+                    version.getDataType(), known, version.getVersion());
+                refresh(version.getDataType());
+                knownVersions.put(version.getDataType(), version.getVersion());
+            }
+        }
+    }
+
+    private void refresh(String dataType) {
+        switch (dataType) {
+            case RULES:
+                clearCaches(CacheConfig.BUSINESS_RULES_LIST);
+                dataSnapshotService.publishRules();
+                break;
+            case VALUE_SETS:
+                clearCaches(CacheConfig.VALUE_SETS_LIST);
+                dataSnapshotService.publishValueSets();
+                break;
+            case COUNTRY_LIST:
+                clearCaches(CacheConfig.COUNTRY_LIST);
+                dataSnapshotService.publishCountryList();
+                break;
+            default:
+                log.warn("Unknown data type {} in data versions.", dataType);
+        }
+    }
+
+    private void clearCaches(String... names) {
+        for (String name : names) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+}
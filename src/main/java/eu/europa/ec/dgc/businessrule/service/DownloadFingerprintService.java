@@ -0,0 +1,99 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.businessrule.service;
+
+import eu.europa.ec.dgc.businessrule.entity.DownloadFingerprintEntity;
+import eu.europa.ec.dgc.businessrule.repository.DownloadFingerprintRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.util.encoders.Hex;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Remembers a fingerprint of the raw data of the last applied gateway download, so unchanged downloads can be
+ * skipped before parsing, hashing and updating the database. The fingerprints are stored in the database and
+ * shared by all instances.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class DownloadFingerprintService {
+
+    public static final String BUSINESS_RULES = "business_rules";
+    public static final String VALUE_SETS = "value_sets";
+
+    private final DownloadFingerprintRepository downloadFingerprintRepository;
+
+    /**
+     * Calculates the fingerprint of a download. The parts are sorted first, so the fingerprint does not depend on
+     * the order in which the gateway returns them.
+     *
+     * @param parts the raw data of the download.
+     * @return SHA-256 over the sorted parts (hex encoded).
+     */
+    public String calculateFingerprint(Stream<String> parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Iterator<String> sortedParts = parts.sorted().iterator();
+        while (sortedParts.hasNext()) {
+            digest.update(sortedParts.next().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return Hex.toHexString(digest.digest());
+    }
+
+    /**
+     * Checks whether the fingerprint equals the one of the last applied download.
+     *
+     * @param downloadName the name of the download.
+     * @param fingerprint  the fingerprint of the current download.
+     * @return true if the data has not changed since the last applied download.
+     */
+    public boolean isUnchanged(String downloadName, String fingerprint) {
+        return downloadFingerprintRepository.findById(downloadName)
+            .map(stored -> stored.getFingerprint().equals(fingerprint))
+            .orElse(false);
+    }
+
+    /**
+     * Stores the fingerprint of a download which has been applied to the database.
+     *
+     * @param downloadName the name of the download.
+     * @param fingerprint  the fingerprint of the applied download.
+     */
+    @Transactional
+    public void saveFingerprint(String downloadName, String fingerprint) {
+        downloadFingerprintRepository.save(new DownloadFingerprintEntity(downloadName, fingerprint,
+            ZonedDateTime.now()));
+        log.debug("Stored fingerprint {} for download {}.", fingerprint, downloadName);
+    }
+}
@@ -13,38 +13,55 @@ import com.google.gson.stream.JsonWriter;
 import com.sap.cloud.sdk.cloudplatform.connectivity.DestinationAccessor;
 import com.sap.cloud.sdk.cloudplatform.connectivity.HttpClientAccessor;
 import com.sap.cloud.sdk.cloudplatform.connectivity.HttpDestination;
+import eu.europa.ec.dgc.businessrule.config.DgcConfigProperties;
 import eu.europa.ec.dgc.businessrule.model.BusinessRuleItem;
+import eu.europa.ec.dgc.businessrule.model.UpdateResult;
 import eu.europa.ec.dgc.businessrule.model.ValueSetItem;
+import eu.europa.ec.dgc.businessrule.utils.VirtualThreads;
 import eu.europa.ec.dgc.businessrule.utils.btp.JsonNodeDeserializer;
 import eu.europa.ec.dgc.gateway.connector.dto.TrustListItemDto;
 import eu.europa.ec.dgc.gateway.connector.dto.ValidationRuleDto;
 import eu.europa.ec.dgc.gateway.connector.model.ValidationRule;
 import eu.europa.ec.dgc.signing.SignedStringMessageParser;
 import eu.europa.ec.dgc.utils.CertificateUtils;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.util.EntityUtils;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.slf4j.MDC;
 import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
 @Slf4j
@@ -63,6 +80,42 @@ public class GatewayDataDownloadBtpServiceImpl implements GatewayDataDownloadSer
     private final ValueSetService valueSetService;
     private final CountryListService countryListService;
     private final CertificateUtils certificateUtils;
+    private final DownloadFingerprintService downloadFingerprintService;
+    private final SyncMetricsService syncMetricsService;
+    private final DgcConfigProperties dgcConfigProperties;
+
+    private ExecutorService fetchExecutor;
+    private Semaphore fetchPermits;
+    private RequestConfig requestConfig;
+
+    /**
+     * Creates the executor and the timeouts for the gateway requests. The fetches run on a bounded thread pool, or
+     * on virtual threads if enabled and supported by the runtime. The number of concurrent requests is limited
+     * in both cases.
+     */
+    @PostConstruct
+    public void initFetchExecutor() {
+        DgcConfigProperties.GatewayFetch config = dgcConfigProperties.getGatewayFetch();
+        int maxConcurrentRequests = Math.max(1, config.getMaxConcurrentRequests());
+        if (dgcConfigProperties.isVirtualThreads() && VirtualThreads.isAvailable()) {
+            fetchExecutor = VirtualThreads.newThreadPerTaskExecutor("gateway-fetch-");
+        } else {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("gateway-fetch-");
+            threadFactory.setDaemon(true);
+            fetchExecutor = Executors.newFixedThreadPool(maxConcurrentRequests, threadFactory);
+        }
+        fetchPermits = new Semaphore(maxConcurrentRequests);
+        requestConfig = RequestConfig.custom()
+            .setConnectTimeout(config.getConnectTimeout())
+            .setConnectionRequestTimeout(config.getConnectTimeout())
+            .setSocketTimeout(config.getSocketTimeout())
+            .build();
+    }
+
+    @PreDestroy
+    public void shutdownFetchExecutor() {
+        fetchExecutor.shutdownNow();
+    }
 
     @Override
     @Scheduled(fixedDelayString = "${dgc.businessRulesDownload.timeInterval}")
@@ -72,19 +125,49 @@ public class GatewayDataDownloadBtpServiceImpl implements GatewayDataDownloadSer
         try {
             initializeLogging();
             log.debug("Business rules download started.");
+            syncMetricsService.recordRun(SyncMetricsService.RULES);
 
+            HttpClient httpClient = gatewayHttpClient();
             //List<X509CertificateHolder> uploadCerts = fetchUploadCerts(httpClient);
-            List<String> countryCodes = fetchCountryList();
+            List<String> countryCodes = fetchCountryList(httpClient);
+
+            Timer.Sample fetch = syncMetricsService.startTimer();
+            FetchResult<String, String> fetchedResponses = fetchValidationRules(httpClient, countryCodes);
+            syncMetricsService.recordStage(fetch, SyncMetricsService.RULES, SyncMetricsService.STAGE_FETCH);
+            String fingerprint = downloadFingerprintService.calculateFingerprint(
+                fetchedResponses.getValues().entrySet().stream()
+                    .map(entry -> entry.getKey() + "\n" + entry.getValue()));
+            if (fetchedResponses.getFailed().isEmpty()
+                && downloadFingerprintService.isUnchanged(DownloadFingerprintService.BUSINESS_RULES, fingerprint)) {
+                log.info("Business rules unchanged since last download. No data will be changed.");
+                syncMetricsService.recordSuccess(SyncMetricsService.RULES);
+                return;
+            }
 
+            Timer.Sample parse = syncMetricsService.startTimer();
+            FetchResult<String, List<ValidationRule>> fetchedRules =
+                parseValidationRulesAndVerify(fetchedResponses.getValues());
+            syncMetricsService.recordStage(parse, SyncMetricsService.RULES, SyncMetricsService.STAGE_PARSE);
+            fetchedRules.getFailed().addAll(fetchedResponses.getFailed());
             List<BusinessRuleItem> ruleItems = new ArrayList<>();
             try {
-                ruleItems = businessRuleService.createBusinessRuleItemList(fetchValidationRulesAndVerify(countryCodes));
+                Timer.Sample hash = syncMetricsService.startTimer();
+                ruleItems = businessRuleService.createBusinessRuleItemList(fetchedRules.getValues().values().stream()
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList()));
+                syncMetricsService.recordStage(hash, SyncMetricsService.RULES, SyncMetricsService.STAGE_HASH);
             } catch (NoSuchAlgorithmException e) {
                 log.error("Could not create business rule item list: {}", e.getMessage(), e);
             }
 
             if (!ruleItems.isEmpty()) {
-                businessRuleService.updateBusinessRules(ruleItems);
+                UpdateResult result = businessRuleService.updateBusinessRules(ruleItems, fetchedRules.getFailed());
+                syncMetricsService.recordUpdate(SyncMetricsService.RULES, result);
+                if (fetchedRules.getFailed().isEmpty()) {
+                    downloadFingerprintService.saveFingerprint(DownloadFingerprintService.BUSINESS_RULES,
+                        fingerprint);
+                    syncMetricsService.recordSuccess(SyncMetricsService.RULES);
+                }
             } else {
                 log.warn("The download of the business rules seems to fail, as the download connector "
                         + "returns an empty list. No data will be changed.");
@@ -105,11 +188,27 @@ public class GatewayDataDownloadBtpServiceImpl implements GatewayDataDownloadSer
         try {
             initializeLogging();
             log.debug("Value sets download started.");
+            syncMetricsService.recordRun(SyncMetricsService.VALUE_SETS);
             List<ValueSetItem> valueSetItems;
-            List<String> valueSetIds = fetchValueSetIds();
+            HttpClient httpClient = gatewayHttpClient();
+            Timer.Sample fetch = syncMetricsService.startTimer();
+            List<String> valueSetIds = fetchValueSetIds(httpClient);
+            FetchResult<String, String> fetchedValueSets = fetchValueSets(httpClient, valueSetIds);
+            syncMetricsService.recordStage(fetch, SyncMetricsService.VALUE_SETS, SyncMetricsService.STAGE_FETCH);
+            String fingerprint = downloadFingerprintService.calculateFingerprint(
+                fetchedValueSets.getValues().entrySet().stream()
+                    .map(entry -> entry.getKey() + "\n" + entry.getValue()));
+            if (fetchedValueSets.getFailed().isEmpty()
+                && downloadFingerprintService.isUnchanged(DownloadFingerprintService.VALUE_SETS, fingerprint)) {
+                log.info("Value sets unchanged since last download. No data will be changed.");
+                syncMetricsService.recordSuccess(SyncMetricsService.VALUE_SETS);
+                return;
+            }
 
             try {
-                valueSetItems = valueSetService.createValueSetItemListFromMap(fetchValueSets(valueSetIds));
+                Timer.Sample hash = syncMetricsService.startTimer();
+                valueSetItems = valueSetService.createValueSetItemListFromMap(fetchedValueSets.getValues());
+                syncMetricsService.recordStage(hash, SyncMetricsService.VALUE_SETS, SyncMetricsService.STAGE_HASH);
                 log.debug("Downloaded {} value set items.", valueSetItems.size());
             } catch (NoSuchAlgorithmException e) {
                 log.error("Failed to hash value set on download.",e);
@@ -117,7 +216,12 @@ public class GatewayDataDownloadBtpServiceImpl implements GatewayDataDownloadSer
             }
 
             if (!valueSetItems.isEmpty()) {
-                valueSetService.updateValueSets(valueSetItems);
+                UpdateResult result = valueSetService.updateValueSets(valueSetItems, fetchedValueSets.getFailed());
+                syncMetricsService.recordUpdate(SyncMetricsService.VALUE_SETS, result);
+                if (fetchedValueSets.getFailed().isEmpty()) {
+                    downloadFingerprintService.saveFingerprint(DownloadFingerprintService.VALUE_SETS, fingerprint);
+                    syncMetricsService.recordSuccess(SyncMetricsService.VALUE_SETS);
+                }
             } else {
                 log.warn("The download of the value sets seems to fail, as the download connector "
                         + "returns an empty list. No data will be changed.");
@@ -137,12 +241,16 @@ public class GatewayDataDownloadBtpServiceImpl implements GatewayDataDownloadSer
         try {
             initializeLogging();
             log.debug("Country list download started.");
+            syncMetricsService.recordRun(SyncMetricsService.COUNTRY_LIST);
 
-            List<String> countryList = fetchCountryList();
+            Timer.Sample fetch = syncMetricsService.startTimer();
+            List<String> countryList = fetchCountryList(gatewayHttpClient());
+            syncMetricsService.recordStage(fetch, SyncMetricsService.COUNTRY_LIST, SyncMetricsService.STAGE_FETCH);
             log.debug("Downloaded {} country codes.", countryList.size());
 
             if (!countryList.isEmpty()) {
                 countryListService.updateCountryList(gson().toJson(countryList));
+                syncMetricsService.recordSuccess(SyncMetricsService.COUNTRY_LIST);
             } else {
                 log.warn("The download of the country list seems to fail as the gateway "
                         + "returns an empty list. No data will be changed.");
@@ -175,32 +283,31 @@ public class GatewayDataDownloadBtpServiceImpl implements GatewayDataDownloadSer
         return listOfUploadCerts;
     }
 
-    private List<String> fetchCountryList() {
+    private HttpClient gatewayHttpClient() {
         HttpDestination httpDestination = DestinationAccessor.getDestination(DGCG_DESTINATION).asHttp();
-        HttpClient httpClient = HttpClientAccessor.getHttpClient(httpDestination);
+        return HttpClientAccessor.getHttpClient(httpDestination);
+    }
+
+    private List<String> fetchCountryList(HttpClient httpClient) {
         List<String> countryList = new ArrayList<>();
 
         try {
-            HttpResponse response = httpClient.execute(RequestBuilder.get(DCCG_COUNTRY_LIST_ENDPOINT).build());
-            countryList = new ArrayList<>(gson().fromJson(toJsonString(response.getEntity()),
+            countryList = new ArrayList<>(gson().fromJson(get(httpClient, DCCG_COUNTRY_LIST_ENDPOINT),
                     new TypeToken<List<String>>() {}.getType()));
-        } catch (IOException e) {
+        } catch (IOException | JsonSyntaxException e) {
             log.error("Could not fetch country list from gateway: {}", e.getMessage(), e);
         }
 
         return countryList;
     }
 
-    private List<String> fetchValueSetIds() {
-        HttpDestination httpDestination = DestinationAccessor.getDestination(DGCG_DESTINATION).asHttp();
-        HttpClient httpClient = HttpClientAccessor.getHttpClient(httpDestination);
+    private List<String> fetchValueSetIds(HttpClient httpClient) {
         List<String> valueSetIds = new ArrayList<>();
 
         try {
-            HttpResponse response = httpClient.execute(RequestBuilder.get(DCCG_VALUE_SETS_ENDPOINT).build());
-            valueSetIds = new ArrayList<>(gson().fromJson(toJsonString(response.getEntity()),
+            valueSetIds = new ArrayList<>(gson().fromJson(get(httpClient, DCCG_VALUE_SETS_ENDPOINT),
                     new TypeToken<List<String>>() {}.getType()));
-        } catch (IOException e) {
+        } catch (IOException | JsonSyntaxException e) {
             log.error("Could not fetch value set IDs from gateway: {}", e.getMessage());
         }
 
@@ -245,6 +352,93 @@ public class GatewayDataDownloadBtpServiceImpl implements GatewayDataDownloadSer
         return EntityUtils.toString(entity);
     }
 
+    /**
+     * Sends a GET request with the configured timeouts and returns the body of a successful response.
+     */
+    private String get(HttpClient httpClient, String path) throws IOException {
+        HttpResponse response = httpClient.execute(RequestBuilder.get(path).setConfig(requestConfig).build());
+        String body = toJsonString(response.getEntity());
+        int status = response.getStatusLine().getStatusCode();
+        if (status != HttpStatus.SC_OK) {
+            throw new IOException("Gateway responded with status " + status + " for " + path);
+        }
+        return body;
+    }
+
+    /**
+     * Fetches the data for all keys in parallel, bounded by the maximum number of concurrent requests. A failing
+     * key does not affect the others, it is logged and reported in the result.
+     */
+    private <K, V> FetchResult<K, V> fetchAll(List<K> keys, String description, Fetch<K, V> fetch) {
+        Map<String, String> loggingContext = MDC.getCopyOfContextMap();
+        Map<K, Future<V>> futures = new LinkedHashMap<>();
+        for (K key : keys) {
+            futures.put(key, fetchExecutor.submit(() -> {
+                if (loggingContext != null) {
+                    MDC.setContextMap(loggingContext);
+                }
+                try {
+                    fetchPermits.acquire();
+                    try {
+                        return fetch.apply(key);
+                    } finally {
+                        fetchPermits.release();
+                    }
+                } finally {
+                    MDC.clear();
+                }
+            }));
+        }
+
+        FetchResult<K, V> result = new FetchResult<>();
+        for (Map.Entry<K, Future<V>> future : futures.entrySet()) {
+            try {
+                result.getValues().put(future.getKey(), future.getValue().get());
+            } catch (ExecutionException e) {
+                log.warn("Could not fetch {} '{}': {}", description, future.getKey(), e.getCause().getMessage(),
+                    e.getCause());
+                result.getFailed().add(future.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(pending -> pending.cancel(true));
+                log.warn("Fetching {} has been interrupted.", description);
+                futures.keySet().stream()
+                    .filter(key -> !result.getValues().containsKey(key))
+                    .forEach(result.getFailed()::add);
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Records the latency and failures of the fetches per key.
+     */
+    private <V> Fetch<String, V> timed(String dataType, Fetch<String, V> fetch) {
+        return key -> {
+            Timer.Sample sample = syncMetricsService.startTimer();
+            try {
+                V value = fetch.apply(key);
+                syncMetricsService.recordFetch(sample, dataType, key, true);
+                return value;
+            } catch (IOException | RuntimeException e) {
+                syncMetricsService.recordFetch(sample, dataType, key, false);
+                throw e;
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Fetch<K, V> {
+        V apply(K key) throws IOException;
+    }
+
+    @Getter
+    private static class FetchResult<K, V> {
+        private final Map<K, V> values = new LinkedHashMap<>();
+        private final Set<K> failed = new HashSet<>();
+    }
+
     private boolean checkThumbprintIntegrity(TrustListItemDto trustListItem) {
         byte[] certificateRawData = Base64.getDecoder().decode(trustListItem.getRawData());
 
@@ -289,32 +483,31 @@ public class GatewayDataDownloadBtpServiceImpl implements GatewayDataDownloadSer
         return true;
     }
 
-    private List<ValidationRule> fetchValidationRulesAndVerify(List<String> countryCodes) {
-        HttpDestination httpDestination = DestinationAccessor.getDestination(DGCG_DESTINATION).asHttp();
-        HttpClient httpClient = HttpClientAccessor.getHttpClient(httpDestination);
-        List<ValidationRule> allRules = new ArrayList<>();
-
-        for (String countryCode : countryCodes) {
+    private FetchResult<String, String> fetchValidationRules(HttpClient httpClient, List<String> countryCodes) {
+        return fetchAll(countryCodes, "rules for country", timed(SyncMetricsService.RULES, countryCode -> {
             log.debug("Fetching rules for country '{}'...", countryCode);
+            return get(httpClient, DCCG_BUSINESS_RULES_ENDPOINT + "/" + countryCode);
+        }));
+    }
+
+    private FetchResult<String, List<ValidationRule>> parseValidationRulesAndVerify(Map<String, String> responses) {
+        return fetchAll(new ArrayList<>(responses.keySet()), "rules for country", countryCode -> {
+            Map<String, ValidationRuleDto[]> fetchedForCountry;
             try {
-                HttpResponse response = httpClient
-                        .execute(RequestBuilder.get(DCCG_BUSINESS_RULES_ENDPOINT + "/" + countryCode).build());
-                Map<String, ValidationRuleDto[]> fetchedForCountry = gson().fromJson(toJsonString(response.getEntity()),
-                        new TypeToken<Map<String, ValidationRuleDto[]>>() {}.getType());
-
-                log.debug("Fetched {} rule(s) for country '{}'. Parsing now...", fetchedForCountry.values().size(),
-                        countryCode);
-                allRules.addAll(fetchedForCountry.values().stream().flatMap(Arrays::stream).map(this::mapRule)
-                        .filter(Objects::nonNull).collect(Collectors.toList()));
-            } catch (IOException | JsonSyntaxException e) {
-                log.warn("Could not fetch rules for country '{}': {}", countryCode, e.getMessage(), e);
+                fetchedForCountry = gson().fromJson(responses.get(countryCode),
+                    new TypeToken<Map<String, ValidationRuleDto[]>>() {}.getType());
+            } catch (JsonSyntaxException e) {
+                throw new IOException("Invalid rules response for country " + countryCode, e);
             }
-        }
 
-        return allRules;
+            log.debug("Fetched {} rule(s) for country '{}'. Parsing now...", fetchedForCountry.values().size(),
+                countryCode);
+            return fetchedForCountry.values().stream().flatMap(Arrays::stream).map(this::mapRule)
+                .filter(Objects::nonNull).collect(Collectors.toList());
+        });
     }
 
-    private ValidationRule mapRule(ValidationRuleDto dto) {
+    ValidationRule mapRule(ValidationRuleDto dto) {
         try {
             SignedStringMessageParser parser = new SignedStringMessageParser(dto.getCms());
             ValidationRule validationRule = gsonForValidationRule().fromJson(parser.getPayload(), ValidationRule.class);
@@ -326,22 +519,9 @@ public class GatewayDataDownloadBtpServiceImpl implements GatewayDataDownloadSer
         return null;
     }
 
-    private Map<String, String> fetchValueSets(List<String> valueSetIds) {
-        HttpDestination httpDestination = DestinationAccessor.getDestination(DGCG_DESTINATION).asHttp();
-        HttpClient httpClient = HttpClientAccessor.getHttpClient(httpDestination);
-        Map<String, String> valueSets = new HashMap<>();
-
-        for (String valueSetId : valueSetIds) {
-            try {
-                HttpResponse response = httpClient
-                        .execute(RequestBuilder.get(DCCG_VALUE_SETS_ENDPOINT + "/" + valueSetId).build());
-                valueSets.put(valueSetId, toJsonString(response.getEntity()));
-            } catch (IOException e) {
-                log.warn("Could not fetch value set with ID '{}': {}", valueSetId, e.getMessage(), e);
-            }
-        }
-
-        return valueSets;
+    private FetchResult<String, String> fetchValueSets(HttpClient httpClient, List<String> valueSetIds) {
+        return fetchAll(valueSetIds, "value set with ID", timed(SyncMetricsService.VALUE_SETS,
+            valueSetId -> get(httpClient, DCCG_VALUE_SETS_ENDPOINT + "/" + valueSetId)));
     }
 
     private static final String CORRELATION_ID_LOG_VAR_NAME = "correlation_id";
@@ -25,8 +25,11 @@ import eu.europa.ec.dgc.businessrule.model.ValueSetItem;
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayCountryListDownloadConnector;
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayValidationRuleDownloadConnector;
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayValueSetDownloadConnector;
+import eu.europa.ec.dgc.gateway.connector.model.ValidationRule;
+import io.micrometer.core.instrument.Timer;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
@@ -60,6 +63,10 @@ public class GatewayDataDownloadServiceImpl implements GatewayDataDownloadServic
 
     private final CountryListService countryListService;
 
+    private final DownloadFingerprintService downloadFingerprintService;
+
+    private final SyncMetricsService syncMetricsService;
+
     @Value("${dgc.valueSetsDownload.enabled}")
     private boolean valueSetsDownloadEnabled;
 
@@ -80,17 +87,33 @@ public class GatewayDataDownloadServiceImpl implements GatewayDataDownloadServic
 
         if (businessRulesDownloadEnabled) {
             log.info("Business rules download started");
+            syncMetricsService.recordRun(SyncMetricsService.RULES);
+
+            Timer.Sample fetch = syncMetricsService.startTimer();
+            List<ValidationRule> validationRules = dgcRuleConnector.getValidationRules().flat();
+            syncMetricsService.recordStage(fetch, SyncMetricsService.RULES, SyncMetricsService.STAGE_FETCH);
+            String fingerprint = downloadFingerprintService.calculateFingerprint(
+                validationRules.stream().map(ValidationRule::getRawJson));
+            if (downloadFingerprintService.isUnchanged(DownloadFingerprintService.BUSINESS_RULES, fingerprint)) {
+                log.info("Business rules unchanged since last download -> No data was changed.");
+                syncMetricsService.recordSuccess(SyncMetricsService.RULES);
+                return;
+            }
 
             try {
-                ruleItems = businessRuleService
-                        .createBusinessRuleItemList(dgcRuleConnector.getValidationRules().flat());
+                Timer.Sample hash = syncMetricsService.startTimer();
+                ruleItems = businessRuleService.createBusinessRuleItemList(validationRules);
+                syncMetricsService.recordStage(hash, SyncMetricsService.RULES, SyncMetricsService.STAGE_HASH);
             } catch (NoSuchAlgorithmException e) {
                 log.error("Failed to hash business rules on download.", e);
                 return;
             }
 
             if (!ruleItems.isEmpty()) {
-                businessRuleService.updateBusinessRules(ruleItems);
+                syncMetricsService.recordUpdate(SyncMetricsService.RULES,
+                    businessRuleService.updateBusinessRules(ruleItems));
+                downloadFingerprintService.saveFingerprint(DownloadFingerprintService.BUSINESS_RULES, fingerprint);
+                syncMetricsService.recordSuccess(SyncMetricsService.RULES);
             } else {
                 log.warn("The download of the business rules seems to fail, as the download connector "
                         + "returns an empty business rules list.-> No data was changed.");
@@ -113,16 +136,33 @@ public class GatewayDataDownloadServiceImpl implements GatewayDataDownloadServic
         if (valueSetsDownloadEnabled) {
             List<ValueSetItem> valueSetItems;
             log.info("Valuesets download started");
+            syncMetricsService.recordRun(SyncMetricsService.VALUE_SETS);
+
+            Timer.Sample fetch = syncMetricsService.startTimer();
+            Map<String, String> valueSets = dgcValueSetConnector.getValueSets();
+            syncMetricsService.recordStage(fetch, SyncMetricsService.VALUE_SETS, SyncMetricsService.STAGE_FETCH);
+            String fingerprint = downloadFingerprintService.calculateFingerprint(
+                valueSets.entrySet().stream().map(entry -> entry.getKey() + "\n" + entry.getValue()));
+            if (downloadFingerprintService.isUnchanged(DownloadFingerprintService.VALUE_SETS, fingerprint)) {
+                log.info("Valuesets unchanged since last download -> No data was changed.");
+                syncMetricsService.recordSuccess(SyncMetricsService.VALUE_SETS);
+                return;
+            }
 
             try {
-                valueSetItems = valueSetService.createValueSetItemListFromMap(dgcValueSetConnector.getValueSets());
+                Timer.Sample hash = syncMetricsService.startTimer();
+                valueSetItems = valueSetService.createValueSetItemListFromMap(valueSets);
+                syncMetricsService.recordStage(hash, SyncMetricsService.VALUE_SETS, SyncMetricsService.STAGE_HASH);
             } catch (NoSuchAlgorithmException e) {
                 log.error("Failed to hash business rules on download.", e);
                 return;
             }
 
             if (!valueSetItems.isEmpty()) {
-                valueSetService.updateValueSets(valueSetItems);
+                syncMetricsService.recordUpdate(SyncMetricsService.VALUE_SETS,
+                    valueSetService.updateValueSets(valueSetItems));
+                downloadFingerprintService.saveFingerprint(DownloadFingerprintService.VALUE_SETS, fingerprint);
+                syncMetricsService.recordSuccess(SyncMetricsService.VALUE_SETS);
             } else {
                 log.warn("The download of the value sets seems to fail, as the download connector "
                         + "returns an empty value sets list.-> No data was changed.");
@@ -145,12 +185,16 @@ public class GatewayDataDownloadServiceImpl implements GatewayDataDownloadServic
         if (countryListDownloadEnabled) {
 
             log.info("Country list download started");
+            syncMetricsService.recordRun(SyncMetricsService.COUNTRY_LIST);
 
+            Timer.Sample fetch = syncMetricsService.startTimer();
             List<String> countryList = dgcCountryListConnector.getCountryList();
+            syncMetricsService.recordStage(fetch, SyncMetricsService.COUNTRY_LIST, SyncMetricsService.STAGE_FETCH);
 
             if (!countryList.isEmpty()) {
                 String countryListJsonStr = JSONArray.toJSONString(countryList);
                 countryListService.updateCountryList(countryListJsonStr);
+                syncMetricsService.recordSuccess(SyncMetricsService.COUNTRY_LIST);
             } else {
                 log.warn("The download of the country list seems to fail, as the download connector "
                         + "returns an empty country list.-> No data was changed.");
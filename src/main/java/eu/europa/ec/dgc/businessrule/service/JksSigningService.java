@@ -20,6 +20,8 @@
 
 package eu.europa.ec.dgc.businessrule.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import eu.europa.ec.dgc.businessrule.config.JksSigningConfig;
 import java.io.File;
 import java.io.FileInputStream;
@@ -55,6 +57,16 @@ public class JksSigningService implements SigningService {
     private Certificate cert;
     private PrivateKey privateKey;
 
+    /**
+     * Initialized signers per thread, getInstance and initSign are too costly to be repeated for every signature.
+     */
+    private final ThreadLocal<Signature> signers = ThreadLocal.withInitial(this::createSigner);
+
+    /**
+     * Signatures by hash, so content which has been signed with the loaded key is not signed again.
+     */
+    private Cache<String, String> signatures;
+
     /**
      * PostConstruct method to load KeyStore for issuing certificates.
      */
@@ -91,16 +103,33 @@ public class JksSigningService implements SigningService {
             cert = keyStore.getCertificate(keyName);
             privateKey = privateKeyEntry.getPrivateKey();
         }
+        signatures = Caffeine.newBuilder()
+            .maximumSize(jksSigningConfig.getSignatureCacheSize())
+            .build();
     }
 
     @Override
     public String computeSignature(String hash) {
+        return signatures.get(hash, this::sign);
+    }
+
+    private String sign(String hash) {
+        Signature sig = signers.get();
         try {
-            Signature sig = Signature.getInstance("SHA256withECDSA");
-            sig.initSign(privateKey);
             sig.update(hash.getBytes(StandardCharsets.UTF_8));
             return Base64.getEncoder().encodeToString(sig.sign());
-        } catch (NoSuchAlgorithmException | InvalidKeyException | SignatureException e) {
+        } catch (SignatureException e) {
+            signers.remove();
+            throw new IllegalArgumentException("can not compute signature", e);
+        }
+    }
+
+    private Signature createSigner() {
+        try {
+            Signature sig = Signature.getInstance("SHA256withECDSA");
+            sig.initSign(privateKey);
+            return sig;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
             throw new IllegalArgumentException("can not compute signature", e);
         }
     }
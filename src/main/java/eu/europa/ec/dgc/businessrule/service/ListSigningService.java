@@ -21,13 +21,24 @@
 package eu.europa.ec.dgc.businessrule.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import eu.europa.ec.dgc.businessrule.config.DgcConfigProperties;
 import eu.europa.ec.dgc.businessrule.entity.ListType;
+import eu.europa.ec.dgc.businessrule.entity.SignedCountryRuleListEntity;
 import eu.europa.ec.dgc.businessrule.entity.SignedListEntity;
+import eu.europa.ec.dgc.businessrule.entity.SignedListHistoryEntity;
+import eu.europa.ec.dgc.businessrule.repository.SignedCountryRuleListRepository;
+import eu.europa.ec.dgc.businessrule.repository.SignedListHistoryRepository;
 import eu.europa.ec.dgc.businessrule.repository.SignedListRepository;
+import eu.europa.ec.dgc.businessrule.restapi.dto.BusinessRuleListItemDto;
 import eu.europa.ec.dgc.businessrule.utils.BusinessRulesUtils;
 import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
@@ -38,6 +49,9 @@ import org.springframework.stereotype.Service;
 @Service
 public class ListSigningService {
     private final SignedListRepository signedListRepository;
+    private final SignedListHistoryRepository signedListHistoryRepository;
+    private final SignedCountryRuleListRepository signedCountryRuleListRepository;
+    private final DgcConfigProperties dgcConfigProperties;
     private final MappingJackson2HttpMessageConverter jacksonHttpMessageConverter;
     private final Optional<SigningService> signingService;
     private final BusinessRulesUtils businessRulesUtils;
@@ -60,12 +74,14 @@ public class ListSigningService {
                 signedListEntity.setRawData(listRaw);
                 calculateSignature(signedListEntity);
                 signedListRepository.save(signedListEntity);
+                addHistoryEntry(signedListEntity);
             } else {
                 if (!ruleList.get().getHash().equals(hash)) {
                     ruleList.get().setHash(hash);
                     ruleList.get().setRawData(listRaw);
                     calculateSignature(ruleList.get());
                     signedListRepository.save(ruleList.get());
+                    addHistoryEntry(ruleList.get());
                 }
             }
         } catch (JsonProcessingException | NoSuchAlgorithmException e) {
@@ -73,12 +89,56 @@ public class ListSigningService {
         }
     }
 
-    private void calculateSignature(SignedListEntity signedListEntity) {
-        if (signingService.isPresent()) {
-            signedListEntity.setSignature(signingService.get().computeSignature(signedListEntity.getHash()));
-        } else {
-            signedListEntity.setSignature("");
+    /**
+     * update or create the signed business rule lists per country. Only the lists of countries whose rules have
+     * changed are signed and stored again, the lists of countries without rules are deleted.
+     * @param rules list of all business rules
+     */
+    public void updateSignedCountryRuleLists(List<BusinessRuleListItemDto> rules) {
+        Map<String, List<BusinessRuleListItemDto>> rulesByCountry = rules.stream()
+            .collect(Collectors.groupingBy(BusinessRuleListItemDto::getCountry, LinkedHashMap::new,
+                Collectors.toList()));
+        Map<String, SignedCountryRuleListEntity> storedLists = signedCountryRuleListRepository.findAll().stream()
+            .collect(Collectors.toMap(SignedCountryRuleListEntity::getCountry, Function.identity()));
+
+        try {
+            for (Map.Entry<String, List<BusinessRuleListItemDto>> countryRules : rulesByCountry.entrySet()) {
+                String listRaw = jacksonHttpMessageConverter.getObjectMapper()
+                    .writeValueAsString(countryRules.getValue());
+                String hash = businessRulesUtils.calculateHash(listRaw);
+                SignedCountryRuleListEntity storedList = storedLists.remove(countryRules.getKey());
+                if (storedList == null || !storedList.getHash().equals(hash)) {
+                    signedCountryRuleListRepository.save(new SignedCountryRuleListEntity(countryRules.getKey(),
+                        hash, computeSignature(hash), listRaw));
+                }
+            }
+            signedCountryRuleListRepository.deleteAll(storedLists.values());
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            log.error("can not create country rule lists", e);
         }
     }
 
+    /**
+     * Records a list version for the changes endpoints and drops the versions beyond the configured history size.
+     */
+    private void addHistoryEntry(SignedListEntity signedListEntity) {
+        signedListHistoryRepository.save(new SignedListHistoryEntity(null, signedListEntity.getListType(),
+            signedListEntity.getHash(), signedListEntity.getRawData(), ZonedDateTime.now()));
+
+        List<SignedListHistoryEntity> history =
+            signedListHistoryRepository.findAllByListTypeOrderByIdDesc(signedListEntity.getListType());
+        int historySize = Math.max(1, dgcConfigProperties.getSignedListHistorySize());
+        if (history.size() > historySize) {
+            signedListHistoryRepository.deleteAllInBatch(history.subList(historySize, history.size()));
+        }
+    }
+
+    private void calculateSignature(SignedListEntity signedListEntity) {
+        signedListEntity.setSignature(computeSignature(signedListEntity.getHash()));
+    }
+
+    private String computeSignature(String hash) {
+        return signingService.map(service -> service.computeSignature(hash)).orElse("");
+    }
+
 }
@@ -0,0 +1,509 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.europa.ec.dgc.businessrule.config.DgcConfigProperties;
+import eu.europa.ec.dgc.businessrule.model.CompiledRule;
+import eu.europa.ec.dgc.businessrule.model.DataSnapshot;
+import eu.europa.ec.dgc.businessrule.model.DataSnapshotPublishedEvent;
+import eu.europa.ec.dgc.businessrule.model.RuleApplicabilityIndex;
+import eu.europa.ec.dgc.businessrule.model.RuleMetadata;
+import eu.europa.ec.dgc.businessrule.model.RulesSnapshot;
+import eu.europa.ec.dgc.businessrule.model.SignedPayload;
+import eu.europa.ec.dgc.businessrule.model.ValueSetCodeTable;
+import eu.europa.ec.dgc.businessrule.model.ValueSetsSnapshot;
+import eu.europa.ec.dgc.businessrule.restapi.dto.RuleEvaluationBatchItemDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.RuleEvaluationBatchResultDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.RuleEvaluationDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.RuleEvaluationRequestDto;
+import eu.europa.ec.dgc.businessrule.restapi.dto.RuleEvaluationResultDto;
+import eu.europa.ec.dgc.businessrule.utils.certlogic.CertLogicCompiler;
+import eu.europa.ec.dgc.businessrule.utils.certlogic.CertLogicException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Evaluates DCC payloads against the CertLogic business rules of the served snapshot. The rules are compiled
+ * once per rule hash when a new snapshot is used for the first time.
+ */
+@Slf4j
+@Service
+public class RuleEvaluationService {
+
+    public static final String RESULT_PASSED = "PASSED";
+
+    public static final String RESULT_FAIL = "FAIL";
+
+    public static final String RESULT_OPEN = "OPEN";
+
+    private static final String CERTLOGIC_ENGINE = "CERTLOGIC";
+
+    private static final String ACCEPTANCE = "Acceptance";
+
+    private static final String INVALIDATION = "Invalidation";
+
+    private final DataSnapshotService dataSnapshotService;
+
+    private final ObjectMapper objectMapper;
+
+    private final DgcConfigProperties dgcConfigProperties;
+
+    private volatile CompiledRules compiledRules = new CompiledRules(null, Collections.emptyMap());
+
+    private volatile ValueSetCodes valueSetCodes = new ValueSetCodes(null, Collections.emptyMap());
+
+    private ExecutorService evaluationExecutor;
+
+    /**
+     * Creates the service.
+     */
+    public RuleEvaluationService(DataSnapshotService dataSnapshotService,
+                                 MappingJackson2HttpMessageConverter jacksonHttpMessageConverter,
+                                 DgcConfigProperties dgcConfigProperties) {
+        this.dataSnapshotService = dataSnapshotService;
+        this.objectMapper = jacksonHttpMessageConverter.getObjectMapper();
+        this.dgcConfigProperties = dgcConfigProperties;
+    }
+
+    /**
+     * Creates the thread pool for batch evaluations. Evaluating rules is CPU bound, so it uses one thread per
+     * core unless configured otherwise.
+     */
+    @PostConstruct
+    public void initEvaluationExecutor() {
+        Integer threads = dgcConfigProperties.getEvaluation().getThreads();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rule-evaluation-");
+        threadFactory.setDaemon(true);
+        evaluationExecutor = Executors.newFixedThreadPool(
+            threads != null && threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), threadFactory);
+    }
+
+    @PreDestroy
+    public void shutdownEvaluationExecutor() {
+        evaluationExecutor.shutdownNow();
+    }
+
+    /**
+     * Evaluates a DCC against the acceptance rules of the country of arrival and the invalidation rules of the
+     * issuing country which are valid at the validation clock. Of several valid versions of a rule only the
+     * highest one is evaluated.
+     *
+     * @param country the country of arrival.
+     * @param request the DCC payload and the external parameters.
+     * @return the result per rule and the overall result.
+     */
+    public RuleEvaluationDto evaluate(String country, RuleEvaluationRequestDto request) {
+        return evaluate(currentContext(), country, null, request);
+    }
+
+    private RuleEvaluationDto evaluate(EvaluationContext context, String country, String certificateType,
+                                       RuleEvaluationRequestDto request) {
+        ZonedDateTime validationClock =
+            request.getValidationClock() != null ? request.getValidationClock() : ZonedDateTime.now();
+        if (certificateType == null) {
+            certificateType = certificateType(request.getPayload());
+        }
+
+        RuleApplicabilityIndex index = context.rules.getApplicabilityIndex();
+        List<RuleMetadata> applicableRules = new ArrayList<>();
+        addRules(applicableRules, index.getApplicableRules(country, certificateType, validationClock.toInstant()),
+            ACCEPTANCE);
+        if (request.getIssuerCountryCode() != null) {
+            addRules(applicableRules, index.getApplicableRules(
+                request.getIssuerCountryCode().toUpperCase(Locale.ROOT), certificateType,
+                validationClock.toInstant()), INVALIDATION);
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("payload", request.getPayload());
+        data.put("external", external(country, validationClock, context.valueSetCodes, request));
+
+        List<RuleEvaluationResultDto> results = new ArrayList<>();
+        for (RuleMetadata rule : applicableRules) {
+            results.add(evaluateRule(rule, context.compiledRules.get(rule.getHash()), data));
+        }
+        return new RuleEvaluationDto(overallResult(results), results);
+    }
+
+    /**
+     * Evaluates the DCCs of a newline delimited JSON stream and writes one result line per DCC in the order the
+     * evaluations complete. The DCCs are evaluated in parallel, but only a bounded number of lines is read ahead
+     * of the written results, so a slow client slows down reading the request instead of filling the memory.
+     * All DCCs are evaluated with the rules compiled for the snapshot at the start of the batch. If writing the
+     * results fails or the request times out, the evaluations which have not completed yet are cancelled.
+     *
+     * @param country         the country of arrival.
+     * @param certificateType the certificate type of the rules, taken from each DCC if null.
+     * @param validationClock the time the rules are checked for if a line has no own validation clock, the
+     *                        current time if null.
+     * @param in              the lines with the DCC payloads and the external parameters.
+     * @param out             the stream the result lines are written to.
+     * @throws IOException if reading the request or writing the response fails.
+     */
+    public void evaluateBatch(String country, String certificateType, ZonedDateTime validationClock,
+                              InputStream in, OutputStream out) throws IOException {
+        final EvaluationContext context = currentContext();
+        final ZonedDateTime defaultValidationClock = validationClock != null ? validationClock : ZonedDateTime.now();
+        final int maxPendingItems = Math.max(1, dgcConfigProperties.getEvaluation().getMaxPendingItems());
+        CompletionService<RuleEvaluationBatchResultDto> completionService =
+            new ExecutorCompletionService<>(evaluationExecutor);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        Set<Future<RuleEvaluationBatchResultDto>> pending = new HashSet<>();
+        try {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (pending.size() == maxPendingItems) {
+                    writeResult(out, takeResult(completionService, pending));
+                }
+                final String item = line;
+                final long itemLineNumber = lineNumber;
+                pending.add(completionService.submit(() -> evaluateBatchItem(context, country, certificateType,
+                    defaultValidationClock, itemLineNumber, item)));
+
+                boolean written = false;
+                Future<RuleEvaluationBatchResultDto> done;
+                while ((done = completionService.poll()) != null) {
+                    pending.remove(done);
+                    writeResult(out, getResult(done));
+                    written = true;
+                }
+                if (written) {
+                    out.flush();
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeResult(out, takeResult(completionService, pending));
+            }
+            out.flush();
+        } finally {
+            // on a failed write or a timeout of the request the remaining items are no longer needed
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private RuleEvaluationBatchResultDto evaluateBatchItem(EvaluationContext context, String country,
+                                                           String certificateType, ZonedDateTime validationClock,
+                                                           long lineNumber, String line) {
+        RuleEvaluationBatchItemDto item;
+        try {
+            item = objectMapper.readValue(line, RuleEvaluationBatchItemDto.class);
+        } catch (JsonProcessingException e) {
+            return new RuleEvaluationBatchResultDto(lineNumber, null, null, null, "The line is not valid JSON.");
+        }
+        if (item.getPayload() == null) {
+            return new RuleEvaluationBatchResultDto(lineNumber, item.getId(), null, null,
+                "The payload of the DCC is missing.");
+        }
+        if (item.getIssuerCountryCode() != null && !item.getIssuerCountryCode().matches("^[a-zA-Z]{2}$")) {
+            return new RuleEvaluationBatchResultDto(lineNumber, item.getId(), null, null,
+                "The issuer country code has a wrong format. Should be 2 char format.");
+        }
+        if (item.getValidationClock() == null) {
+            item.setValidationClock(validationClock);
+        }
+        RuleEvaluationDto evaluation;
+        try {
+            evaluation = evaluate(context, country, certificateType, item);
+        } catch (RuntimeException e) {
+            // the status of the response has already been sent, so the error is reported in the result line
+            log.warn("Could not evaluate the DCC in line {} of a batch.", lineNumber, e);
+            return new RuleEvaluationBatchResultDto(lineNumber, item.getId(), null, null,
+                "The DCC could not be evaluated.");
+        }
+        return new RuleEvaluationBatchResultDto(lineNumber, item.getId(), evaluation.getResult(),
+            evaluation.getResults(), null);
+    }
+
+    private RuleEvaluationBatchResultDto takeResult(CompletionService<RuleEvaluationBatchResultDto> completionService,
+                                                    Set<Future<RuleEvaluationBatchResultDto>> pending)
+        throws IOException {
+        try {
+            Future<RuleEvaluationBatchResultDto> done = completionService.take();
+            pending.remove(done);
+            return getResult(done);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the batch evaluation.");
+        }
+    }
+
+    private RuleEvaluationBatchResultDto getResult(Future<RuleEvaluationBatchResultDto> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the batch evaluation.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not evaluate a batch item.", e.getCause());
+        }
+    }
+
+    private void writeResult(OutputStream out, RuleEvaluationBatchResultDto result) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+    }
+
+    private RuleEvaluationResultDto evaluateRule(RuleMetadata rule, CompiledRule compiledRule,
+                                                 Map<String, Object> data) {
+        String result;
+        String message = null;
+        if (compiledRule == null || compiledRule.getLogic() == null) {
+            result = RESULT_OPEN;
+            message = compiledRule == null ? "The rule is not available." : compiledRule.getError();
+        } else {
+            try {
+                result = CertLogicCompiler.isTruthy(compiledRule.getLogic().evaluate(data))
+                    ? RESULT_PASSED : RESULT_FAIL;
+            } catch (CertLogicException e) {
+                result = RESULT_OPEN;
+                message = e.getMessage();
+            }
+        }
+        return new RuleEvaluationResultDto(rule.getIdentifier(), rule.getVersion(), rule.getCountry(),
+            rule.getHash(), rule.getType(), result, compiledRule == null ? null : compiledRule.getDescription(),
+            message);
+    }
+
+    private String overallResult(List<RuleEvaluationResultDto> results) {
+        String overall = RESULT_PASSED;
+        for (RuleEvaluationResultDto result : results) {
+            if (RESULT_FAIL.equals(result.getResult())) {
+                return RESULT_FAIL;
+            } else if (RESULT_OPEN.equals(result.getResult())) {
+                overall = RESULT_OPEN;
+            }
+        }
+        return overall;
+    }
+
+    private void addRules(List<RuleMetadata> target, List<RuleMetadata> rules, String type) {
+        for (RuleMetadata rule : rules) {
+            if (type.equalsIgnoreCase(rule.getType())) {
+                target.add(rule);
+            }
+        }
+    }
+
+    private String certificateType(Map<String, Object> payload) {
+        if (payload == null) {
+            return null;
+        } else if (hasEntries(payload.get("v"))) {
+            return "Vaccination";
+        } else if (hasEntries(payload.get("t"))) {
+            return "Test";
+        } else if (hasEntries(payload.get("r"))) {
+            return "Recovery";
+        }
+        return null;
+    }
+
+    private boolean hasEntries(Object value) {
+        return value instanceof List && !((List<?>) value).isEmpty();
+    }
+
+    private Map<String, Object> external(String country, ZonedDateTime validationClock,
+                                         Map<String, List<String>> valueSets, RuleEvaluationRequestDto request) {
+        Map<String, Object> external = new HashMap<>();
+        external.put("validationClock", DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(validationClock));
+        external.put("valueSets", valueSets);
+        external.put("countryCode", country);
+        external.put("issuerCountryCode", request.getIssuerCountryCode());
+        external.put("exp", request.getExpiresAt() == null ? null
+            : DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(request.getExpiresAt()));
+        external.put("iat", request.getIssuedAt() == null ? null
+            : DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(request.getIssuedAt()));
+        external.put("kid", request.getKid());
+        external.put("region", request.getRegion());
+        return external;
+    }
+
+    /**
+     * Compiles the rules and collects the value set codes of a newly published snapshot, so the first evaluation
+     * does not have to wait for it.
+     *
+     * @param event the published snapshot.
+     */
+    @EventListener
+    public void onSnapshotPublished(DataSnapshotPublishedEvent event) {
+        // the current snapshot, a later publish may already have replaced the one of the event
+        currentContext();
+    }
+
+    private EvaluationContext currentContext() {
+        DataSnapshot snapshot = dataSnapshotService.getSnapshot();
+        return new EvaluationContext(snapshot.getRules(), getCompiledRules(snapshot.getRules()),
+            getValueSetCodes(snapshot.getValueSets()));
+    }
+
+    private Map<String, CompiledRule> getCompiledRules(RulesSnapshot rules) {
+        CompiledRules current = compiledRules;
+        return current.snapshot == rules ? current.rules : compileRules(rules);
+    }
+
+    /**
+     * Compiles the rules of a new snapshot. Rules which have already been compiled for the previous snapshot
+     * are taken over by their hash.
+     */
+    private synchronized Map<String, CompiledRule> compileRules(RulesSnapshot rules) {
+        CompiledRules current = compiledRules;
+        if (current.snapshot == rules) {
+            return current.rules;
+        }
+        Map<String, CompiledRule> compiled = new HashMap<>();
+        int newRules = 0;
+        for (Map<String, SignedPayload> byHash : rules.getRules().values()) {
+            for (Map.Entry<String, SignedPayload> rule : byHash.entrySet()) {
+                CompiledRule compiledRule = current.rules.get(rule.getKey());
+                if (compiledRule == null) {
+                    compiledRule = compile(rule.getValue());
+                    newRules++;
+                }
+                compiled.put(rule.getKey(), compiledRule);
+            }
+        }
+        log.debug("Compiled {} new business rules.", newRules);
+        compiledRules = new CompiledRules(rules, Collections.unmodifiableMap(compiled));
+        return compiledRules.rules;
+    }
+
+    private CompiledRule compile(SignedPayload payload) {
+        JsonNode rule;
+        try {
+            rule = objectMapper.readTree(payload.getBody());
+        } catch (IOException e) {
+            return new CompiledRule(null, null, "The rule is not valid JSON.");
+        }
+        String description = englishDescription(rule);
+        if (!CERTLOGIC_ENGINE.equalsIgnoreCase(rule.path("Engine").asText())) {
+            return new CompiledRule(null, description, "The engine of the rule is not supported.");
+        }
+        try {
+            return new CompiledRule(CertLogicCompiler.compile(rule.get("Logic")), description, null);
+        } catch (CertLogicException e) {
+            log.warn("Could not compile the logic of business rule {}: {}", payload.getHash(), e.getMessage());
+            return new CompiledRule(null, description, e.getMessage());
+        }
+    }
+
+    private String englishDescription(JsonNode rule) {
+        for (JsonNode description : rule.path("Description")) {
+            if ("en".equals(description.path("lang").asText())) {
+                return description.path("desc").asText(null);
+            }
+        }
+        return null;
+    }
+
+    private Map<String, List<String>> getValueSetCodes(ValueSetsSnapshot valueSets) {
+        ValueSetCodes current = valueSetCodes;
+        return current.snapshot == valueSets ? current.codes : collectValueSetCodes(valueSets);
+    }
+
+    /**
+     * Collects the codes of all value sets of a new snapshot from its code tables, as needed for external.valueSets.
+     */
+    private synchronized Map<String, List<String>> collectValueSetCodes(ValueSetsSnapshot valueSets) {
+        ValueSetCodes current = valueSetCodes;
+        if (current.snapshot == valueSets) {
+            return current.codes;
+        }
+        Map<String, List<String>> codes = new HashMap<>();
+        for (ValueSetCodeTable table : valueSets.getCodeTablesById().values()) {
+            codes.put(table.getValueSetId(), List.copyOf(table.getCodes().keySet()));
+        }
+        valueSetCodes = new ValueSetCodes(valueSets, Collections.unmodifiableMap(codes));
+        return valueSetCodes.codes;
+    }
+
+    /**
+     * The rules, compiled rules and value set codes of one snapshot, shared by all items of a batch.
+     */
+    private static class EvaluationContext {
+        private final RulesSnapshot rules;
+        private final Map<String, CompiledRule> compiledRules;
+        private final Map<String, List<String>> valueSetCodes;
+
+        EvaluationContext(RulesSnapshot rules, Map<String, CompiledRule> compiledRules,
+                          Map<String, List<String>> valueSetCodes) {
+            this.rules = rules;
+            this.compiledRules = compiledRules;
+            this.valueSetCodes = valueSetCodes;
+        }
+    }
+
+    private static class CompiledRules {
+        private final RulesSnapshot snapshot;
+        private final Map<String, CompiledRule> rules;
+
+        CompiledRules(RulesSnapshot snapshot, Map<String, CompiledRule> rules) {
+            this.snapshot = snapshot;
+            this.rules = rules;
+        }
+    }
+
+    private static class ValueSetCodes {
+        private final ValueSetsSnapshot snapshot;
+        private final Map<String, List<String>> codes;
+
+        ValueSetCodes(ValueSetsSnapshot snapshot, Map<String, List<String>> codes) {
+            this.snapshot = snapshot;
+            this.codes = codes;
+        }
+    }
+}
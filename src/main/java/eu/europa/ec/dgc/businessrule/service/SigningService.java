@@ -20,6 +20,11 @@
 
 package eu.europa.ec.dgc.businessrule.service;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 public interface SigningService {
     /**
      * compute hash.
@@ -29,6 +34,17 @@ public interface SigningService {
      */
     String computeSignature(String hash);
 
+    /**
+     * compute the signatures of several hashes in parallel.
+     * @param hashes hashes
+     * @return ans1 base64 coded signatures by hash
+     */
+    default Map<String, String> computeSignatures(Collection<String> hashes) {
+        return hashes.parallelStream()
+            .distinct()
+            .collect(Collectors.toConcurrentMap(Function.identity(), this::computeSignature));
+    }
+
     /**
      * get signing public key .
      * @return base64 der encoded key
@@ -0,0 +1,363 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.service;
+
+import eu.europa.ec.dgc.businessrule.config.DgcConfigProperties;
+import eu.europa.ec.dgc.businessrule.model.DataSnapshot;
+import eu.europa.ec.dgc.businessrule.model.ListChanges;
+import eu.europa.ec.dgc.businessrule.model.RuleMetadata;
+import eu.europa.ec.dgc.businessrule.model.RulesSnapshot;
+import eu.europa.ec.dgc.businessrule.model.SignedPayload;
+import eu.europa.ec.dgc.businessrule.model.ValueSetsSnapshot;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.util.encoders.Hex;
+import org.springframework.stereotype.Service;
+
+/**
+ * Stores the published snapshot in a local file and loads it on start up, so an instance can serve the last
+ * known data before the snapshot has been rebuilt from the database. The file ends with a SHA-256 checksum of its
+ * content, which is signed if a signing service is configured. Files with a wrong checksum or signature are
+ * ignored, files without a signature are only loaded if that is explicitly allowed.
+ */
+@Slf4j
+@Service
+public class SnapshotFileService {
+
+    private static final int MAGIC = 0x44474353;
+    private static final int FORMAT_VERSION = 2;
+    private static final int NULL_LENGTH = -1;
+
+    private final Path path;
+    private final boolean readOnly;
+    private final boolean allowUnsigned;
+    private final Optional<SigningService> signingService;
+
+    /**
+     * Creates the service, the file is disabled if no path is configured.
+     */
+    public SnapshotFileService(DgcConfigProperties dgcConfigProperties, Optional<SigningService> signingService) {
+        String configuredPath = dgcConfigProperties.getSnapshotFile().getPath();
+        this.path = configuredPath == null || configuredPath.isEmpty() ? null : Paths.get(configuredPath);
+        this.readOnly = dgcConfigProperties.isReadOnly();
+        this.allowUnsigned = dgcConfigProperties.getSnapshotFile().isAllowUnsigned();
+        this.signingService = signingService;
+    }
+
+    /**
+     * Loads the snapshot from the file. The file is memory mapped, only the bodies are copied to the heap.
+     *
+     * @return the stored snapshot, empty if the file is disabled, missing or not valid.
+     */
+    public Optional<DataSnapshot> read() {
+        if (path == null || !Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Optional<DataSnapshot> snapshot = parse(buffer);
+            snapshot.ifPresent(s -> log.info("Loaded snapshot from {} ({} bytes).", path, buffer.capacity()));
+            return snapshot;
+        } catch (IOException e) {
+            log.warn("Could not read snapshot file {}.", path, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the snapshot in the file. The file is written next to the target and moved, so a crash never leaves
+     * a partial file behind. Nothing is stored in read only mode.
+     *
+     * @param snapshot the published snapshot.
+     */
+    public synchronized void write(DataSnapshot snapshot) {
+        if (path == null || readOnly) {
+            return;
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (OutputStream file = Files.newOutputStream(temporary)) {
+                DigestOutputStream digestStream = new DigestOutputStream(new BufferedOutputStream(file), digest);
+                DataOutputStream out = new DataOutputStream(digestStream);
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeRules(out, snapshot.getRules());
+                writeValueSets(out, snapshot.getValueSets());
+                writePayload(out, snapshot.getCountryList());
+                out.flush();
+                final long contentLength = out.size();
+
+                digestStream.on(false);
+                String checksum = Hex.toHexString(digest.digest());
+                writeBytes(out, checksum.getBytes(StandardCharsets.UTF_8));
+                writeBytes(out, signingService
+                    .map(service -> service.computeSignature(checksum).getBytes(StandardCharsets.UTF_8))
+                    .orElse(null));
+                out.writeLong(contentLength);
+                out.flush();
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Stored snapshot in {}.", path);
+        } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+            log.warn("Could not store snapshot in {}.", path, e);
+        }
+    }
+
+    Optional<DataSnapshot> parse(ByteBuffer buffer) {
+        try {
+            int contentLength = (int) buffer.getLong(buffer.capacity() - Long.BYTES);
+            if (contentLength < 2 * Integer.BYTES || contentLength > buffer.capacity() - Long.BYTES) {
+                log.warn("Ignoring snapshot file {}, it is truncated.", path);
+                return Optional.empty();
+            }
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(buffer.duplicate().limit(contentLength));
+            String checksum = Hex.toHexString(digest.digest());
+
+            ByteBuffer trailer = buffer.duplicate().position(contentLength);
+            String storedChecksum = readString(trailer);
+            String signature = readString(trailer);
+            if (!checksum.equals(storedChecksum)) {
+                log.warn("Ignoring snapshot file {}, its checksum does not match.", path);
+                return Optional.empty();
+            }
+            if (!hasValidSignature(checksum, signature)) {
+                log.warn("Ignoring snapshot file {}, its signature is not valid.", path);
+                return Optional.empty();
+            }
+
+            ByteBuffer content = buffer.duplicate().limit(contentLength);
+            if (content.getInt() != MAGIC || content.getInt() != FORMAT_VERSION) {
+                log.warn("Ignoring snapshot file {}, its format is not supported.", path);
+                return Optional.empty();
+            }
+            return Optional.of(new DataSnapshot(readRules(content), readValueSets(content), readPayload(content)));
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+            | DateTimeParseException | NoSuchAlgorithmException e) {
+            log.warn("Ignoring snapshot file {}, it is not valid.", path, e);
+            return Optional.empty();
+        }
+    }
+
+    private boolean hasValidSignature(String checksum, String signature) {
+        if (signingService.isEmpty()) {
+            return allowUnsigned;
+        }
+        if (signature == null) {
+            return false;
+        }
+        try {
+            PublicKey publicKey = KeyFactory.getInstance("EC").generatePublic(
+                new X509EncodedKeySpec(Base64.getDecoder().decode(signingService.get().getPublicKey())));
+            Signature verifier = Signature.getInstance("SHA256withECDSA");
+            verifier.initVerify(publicKey);
+            verifier.update(checksum.getBytes(StandardCharsets.UTF_8));
+            return verifier.verify(Base64.getDecoder().decode(signature));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            log.warn("Could not verify the signature of the snapshot file.", e);
+            return false;
+        }
+    }
+
+    private void writeRules(DataOutputStream out, RulesSnapshot rules) throws IOException {
+        writePayload(out, rules.getList());
+        writeChanges(out, rules.getChanges());
+        writePayloads(out, rules.getCountryLists());
+        out.writeInt(rules.getRules().size());
+        for (Map.Entry<String, Map<String, SignedPayload>> country : rules.getRules().entrySet()) {
+            writeString(out, country.getKey());
+            writePayloads(out, country.getValue());
+        }
+        writePayload(out, rules.getEmptyCountryList());
+        out.writeInt(rules.getRuleMetadata().size());
+        for (Map.Entry<String, List<RuleMetadata>> country : rules.getRuleMetadata().entrySet()) {
+            writeString(out, country.getKey());
+            out.writeInt(country.getValue().size());
+            for (RuleMetadata rule : country.getValue()) {
+                writeRuleMetadata(out, rule);
+            }
+        }
+    }
+
+    private RulesSnapshot readRules(ByteBuffer in) {
+        SignedPayload list = readPayload(in);
+        ListChanges changes = readChanges(in);
+        Map<String, SignedPayload> countryLists = readPayloads(in);
+        int countries = in.getInt();
+        Map<String, Map<String, SignedPayload>> rules = new HashMap<>();
+        for (int i = 0; i < countries; i++) {
+            rules.put(readString(in), readPayloads(in));
+        }
+        SignedPayload emptyCountryList = readPayload(in);
+        int metadataCountries = in.getInt();
+        Map<String, List<RuleMetadata>> ruleMetadata = new HashMap<>();
+        for (int i = 0; i < metadataCountries; i++) {
+            String country = readString(in);
+            int size = in.getInt();
+            List<RuleMetadata> metadata = new ArrayList<>();
+            for (int j = 0; j < size; j++) {
+                metadata.add(readRuleMetadata(in));
+            }
+            ruleMetadata.put(country, Collections.unmodifiableList(metadata));
+        }
+        return new RulesSnapshot(list, changes, countryLists, Collections.unmodifiableMap(rules), emptyCountryList,
+            Collections.unmodifiableMap(ruleMetadata));
+    }
+
+    private void writeRuleMetadata(DataOutputStream out, RuleMetadata rule) throws IOException {
+        writeString(out, rule.getIdentifier());
+        writeString(out, rule.getVersion());
+        writeString(out, rule.getCountry());
+        writeString(out, rule.getHash());
+        writeString(out, rule.getType());
+        writeString(out, rule.getCertificateType());
+        writeString(out, rule.getEngine());
+        writeString(out, rule.getEngineVersion());
+        writeString(out, rule.getValidFrom() == null ? null : rule.getValidFrom().toString());
+        writeString(out, rule.getValidTo() == null ? null : rule.getValidTo().toString());
+    }
+
+    private RuleMetadata readRuleMetadata(ByteBuffer in) {
+        String identifier = readString(in);
+        String version = readString(in);
+        String country = readString(in);
+        String hash = readString(in);
+        String type = readString(in);
+        String certificateType = readString(in);
+        String engine = readString(in);
+        String engineVersion = readString(in);
+        String validFrom = readString(in);
+        String validTo = readString(in);
+        return new RuleMetadata(identifier, version, country, hash, type, certificateType, engine, engineVersion,
+            validFrom == null ? null : Instant.parse(validFrom), validTo == null ? null : Instant.parse(validTo));
+    }
+
+    private void writeValueSets(DataOutputStream out, ValueSetsSnapshot valueSets) throws IOException {
+        writePayload(out, valueSets.getList());
+        writeChanges(out, valueSets.getChanges());
+        writePayloads(out, valueSets.getValueSets());
+    }
+
+    private ValueSetsSnapshot readValueSets(ByteBuffer in) {
+        return new ValueSetsSnapshot(readPayload(in), readChanges(in), readPayloads(in));
+    }
+
+    private void writeChanges(DataOutputStream out, ListChanges changes) throws IOException {
+        writePayloads(out, changes.getChangesSince());
+        writePayload(out, changes.getFullList());
+    }
+
+    private ListChanges readChanges(ByteBuffer in) {
+        return new ListChanges(readPayloads(in), readPayload(in));
+    }
+
+    private void writePayloads(DataOutputStream out, Map<String, SignedPayload> payloads) throws IOException {
+        out.writeInt(payloads.size());
+        for (Map.Entry<String, SignedPayload> payload : payloads.entrySet()) {
+            writeString(out, payload.getKey());
+            writePayload(out, payload.getValue());
+        }
+    }
+
+    private Map<String, SignedPayload> readPayloads(ByteBuffer in) {
+        int size = in.getInt();
+        Map<String, SignedPayload> payloads = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            payloads.put(readString(in), readPayload(in));
+        }
+        return Collections.unmodifiableMap(payloads);
+    }
+
+    private void writePayload(DataOutputStream out, SignedPayload payload) throws IOException {
+        writeBytes(out, payload.getBody());
+        writeString(out, payload.getHash());
+        writeString(out, payload.getSignature());
+        writeBytes(out, payload.getGzipBody());
+    }
+
+    private SignedPayload readPayload(ByteBuffer in) {
+        return new SignedPayload(readBytes(in), readString(in), readString(in), readBytes(in));
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String readString(ByteBuffer in) {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private byte[] readBytes(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Invalid length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,181 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package eu.europa.ec.dgc.businessrule.service;
+
+import eu.europa.ec.dgc.businessrule.model.UpdateResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Meters of the gateway downloads: the duration of each stage, the fetch latency and failures per country or
+ * value set, the outcome of the last reconciliation and the time since the last successful download.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class SyncMetricsService {
+
+    public static final String RULES = "rules";
+    public static final String VALUE_SETS = "value_sets";
+    public static final String COUNTRY_LIST = "country_list";
+
+    public static final String STAGE_FETCH = "fetch";
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_HASH = "hash";
+
+    public static final String STAGE_DURATION = "dgca.sync.stage.duration";
+    public static final String FETCH_DURATION = "dgca.sync.fetch.duration";
+    public static final String FETCH_FAILURES = "dgca.sync.fetch.failures";
+    public static final String ITEMS = "dgca.sync.items";
+    public static final String LAST_SUCCESS_AGE = "dgca.sync.last.success.age";
+    public static final String RUNS = "dgca.sync.runs";
+
+    private static final String[] DATA_TYPES = {RULES, VALUE_SETS, COUNTRY_LIST};
+    private static final String[] ITEM_CHANGES = {"added", "removed", "unchanged"};
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicLong> lastSuccess = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lastItems = new ConcurrentHashMap<>();
+    private String node;
+
+    /**
+     * Registers the gauges. The age of the last successful download is NaN until the first download of the data
+     * type on this node succeeded.
+     */
+    @PostConstruct
+    public void registerGauges() {
+        node = hostName();
+        for (String dataType : DATA_TYPES) {
+            AtomicLong success = lastSuccess.computeIfAbsent(dataType, key -> new AtomicLong());
+            Gauge.builder(LAST_SUCCESS_AGE, success, last -> last.get() == 0 ? Double.NaN
+                    : (System.currentTimeMillis() - last.get()) / 1000.0)
+                .tag("type", dataType)
+                .baseUnit("seconds")
+                .description("Time since the last successful download")
+                .register(meterRegistry);
+
+            for (String change : ITEM_CHANGES) {
+                Gauge.builder(ITEMS, lastItems.computeIfAbsent(dataType + change, key -> new AtomicLong()),
+                        AtomicLong::get)
+                    .tags("type", dataType, "change", change)
+                    .description("Number of items changed by the last reconciliation")
+                    .register(meterRegistry);
+            }
+        }
+    }
+
+    public Timer.Sample startTimer() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Records the duration of a stage of a download.
+     *
+     * @param sample   the sample started with the stage.
+     * @param dataType the downloaded data type.
+     * @param stage    the stage.
+     */
+    public void recordStage(Timer.Sample sample, String dataType, String stage) {
+        sample.stop(stageTimer(dataType, stage));
+    }
+
+    /**
+     * Records the fetch of a single country or value set.
+     *
+     * @param sample   the sample started with the fetch.
+     * @param dataType the downloaded data type.
+     * @param key      the country code or value set id.
+     * @param success  whether the fetch succeeded.
+     */
+    public void recordFetch(Timer.Sample sample, String dataType, String key, boolean success) {
+        sample.stop(Timer.builder(FETCH_DURATION)
+            .tags("type", dataType, "key", key)
+            .description("Duration of the requests to the gateway")
+            .register(meterRegistry));
+        if (!success) {
+            meterRegistry.counter(FETCH_FAILURES, "type", dataType, "key", key).increment();
+        }
+    }
+
+    /**
+     * Records the stages and the counts of a reconciliation. It is recorded for downloads with failed countries
+     * or value sets as well, only complete downloads are recorded as success.
+     *
+     * @param dataType the downloaded data type.
+     * @param result   the result of the reconciliation.
+     */
+    public void recordUpdate(String dataType, UpdateResult result) {
+        stageTimer(dataType, "diff").record(result.getDiffMillis(), TimeUnit.MILLISECONDS);
+        stageTimer(dataType, "sign").record(result.getSignMillis(), TimeUnit.MILLISECONDS);
+        stageTimer(dataType, "persist").record(result.getDeleteMillis() + result.getInsertMillis(),
+            TimeUnit.MILLISECONDS);
+        stageTimer(dataType, "list_signing").record(result.getListSigningMillis(), TimeUnit.MILLISECONDS);
+        lastItems.get(dataType + "added").set(result.getAdded());
+        lastItems.get(dataType + "removed").set(result.getRemoved());
+        lastItems.get(dataType + "unchanged").set(result.getUnchanged());
+    }
+
+    /**
+     * Records a download which ended with the current data being stored, whether it changed or not.
+     *
+     * @param dataType the downloaded data type.
+     */
+    public void recordSuccess(String dataType) {
+        lastSuccess.get(dataType).set(System.currentTimeMillis());
+    }
+
+    /**
+     * Records that this node holds the scheduler lock of a download and runs it.
+     *
+     * @param dataType the downloaded data type.
+     */
+    public void recordRun(String dataType) {
+        meterRegistry.counter(RUNS, "type", dataType, "node", node).increment();
+        log.info("Node {} holds the lock for the {} download.", node, dataType);
+    }
+
+    private Timer stageTimer(String dataType, String stage) {
+        return Timer.builder(STAGE_DURATION)
+            .tags("type", dataType, "stage", stage)
+            .description("Duration of the stages of the downloads")
+            .register(meterRegistry);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
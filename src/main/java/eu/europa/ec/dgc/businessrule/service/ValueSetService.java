@@ -20,21 +20,23 @@
 
 package eu.europa.ec.dgc.businessrule.service;
 
+import eu.europa.ec.dgc.businessrule.config.CacheConfig;
 import eu.europa.ec.dgc.businessrule.entity.ListType;
-import eu.europa.ec.dgc.businessrule.entity.SignedListEntity;
 import eu.europa.ec.dgc.businessrule.entity.ValueSetEntity;
+import eu.europa.ec.dgc.businessrule.model.UpdateResult;
 import eu.europa.ec.dgc.businessrule.model.ValueSetItem;
-import eu.europa.ec.dgc.businessrule.repository.SignedListRepository;
 import eu.europa.ec.dgc.businessrule.repository.ValueSetRepository;
 import eu.europa.ec.dgc.businessrule.restapi.dto.ValueSetListItemDto;
 import eu.europa.ec.dgc.businessrule.utils.BusinessRulesUtils;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
-import javax.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -51,76 +53,99 @@ public class ValueSetService {
 
     private final ValueSetRepository valueSetRepository;
     private final ListSigningService listSigningService;
-    private final SignedListRepository signedListRepository;
     private final Optional<SigningService> signingService;
+    private final DataSnapshotService dataSnapshotService;
+    private final DataVersionService dataVersionService;
 
     /**
      * Creates the signature for the empty value sets list after start up.
      */
-    @PostConstruct
     @Transactional
     public void valueSetServiceInit() {
         listSigningService.updateSignedList(getValueSetsList(), ListType.ValueSets);
+        dataSnapshotService.publishValueSets();
     }
 
     /**
      *  Gets list of all value set ids and hashes.
      */
-    @Cacheable("value_sets")
+    @Cacheable(CacheConfig.VALUE_SETS_LIST)
     public List<ValueSetListItemDto> getValueSetsList() {
         log.debug("Get value sets list executed");
         List<ValueSetListItemDto> valueSetItems = valueSetRepository.findAllByOrderByIdAsc();
         return valueSetItems;
     }
 
-    @Cacheable("value_sets")
-    public Optional<SignedListEntity> getValueSetsSignedList() {
-        log.debug("Get value sets list (SignedList) executed");
-        return signedListRepository.findById(ListType.ValueSets);
-    }
-
-
     /**
-     *  Gets a value set by its hash value.
+     * Updates the list of value sets. Only the value sets which are new or no longer contained are written.
+     * @param valueSets list of actual value sets
+     * @return the counts and timings of the update
      */
     @Transactional
-    @Cacheable("value_sets")
-    public ValueSetEntity getValueSetByHash(String hash) {
-        log.debug("Get value set ({})executed", hash);
-        return  valueSetRepository.findOneByHash(hash);
+    @CacheEvict(value = CacheConfig.VALUE_SETS_LIST, allEntries = true)
+    public UpdateResult updateValueSets(List<ValueSetItem> valueSets) {
+        return updateValueSets(valueSets, Collections.emptySet());
     }
 
     /**
-     * Updates the list of value sets.
+     * Updates the list of value sets. The stored value sets with IDs which could not be downloaded are kept.
      * @param valueSets list of actual value sets
+     * @param unavailableIds IDs of the value sets which could not be downloaded
+     * @return the counts and timings of the update
      */
     @Transactional
-    @CacheEvict(value = "value_sets", allEntries = true)
-    public void updateValueSets(List<ValueSetItem> valueSets) {
-        List<String> valueSetsHashes = valueSets.stream().map(ValueSetItem::getHash).collect(Collectors.toList());
-        List<String> alreadyStoredValueSets = getValueSetsHashList();
+    @CacheEvict(value = CacheConfig.VALUE_SETS_LIST, allEntries = true)
+    public UpdateResult updateValueSets(List<ValueSetItem> valueSets, Set<String> unavailableIds) {
+        final long start = System.currentTimeMillis();
+        Map<String, ValueSetItem> valueSetsByHash = new LinkedHashMap<>();
+        valueSets.forEach(valueSet -> valueSetsByHash.putIfAbsent(valueSet.getHash(), valueSet));
+        List<ValueSetListItemDto> storedValueSets = getValueSetsList();
+        Set<String> alreadyStoredValueSets = storedValueSets.stream()
+            .map(ValueSetListItemDto::getHash)
+            .collect(Collectors.toSet());
         log.debug("Got {} value sets from gateway and {} already stored in the database. Processing update now...",
-                valueSetsHashes.size(), alreadyStoredValueSets.size());
-
-        if (valueSetsHashes.isEmpty()) {
-            log.info("Got no value sets from gateway. Deleting all stored value sets.");
-            valueSetRepository.deleteAll();
-        } else {
-            log.info("Deleting value sets not contained in latest response from gateway.");
-            valueSetRepository.deleteByHashNotIn(valueSetsHashes);
+                valueSetsByHash.size(), alreadyStoredValueSets.size());
+
+        List<String> removedValueSets = storedValueSets.stream()
+            .filter(valueSet -> !valueSetsByHash.containsKey(valueSet.getHash()))
+            .filter(valueSet -> !unavailableIds.contains(valueSet.getId()))
+            .map(ValueSetListItemDto::getHash)
+            .collect(Collectors.toList());
+        List<ValueSetItem> newValueSets = valueSetsByHash.values().stream()
+            .filter(valueSet -> !alreadyStoredValueSets.contains(valueSet.getHash()))
+            .collect(Collectors.toList());
+        final long diffDone = System.currentTimeMillis();
+        Map<String, String> signatures = computeSignatures(newValueSets.stream()
+            .map(ValueSetItem::getHash)
+            .collect(Collectors.toList()));
+        List<ValueSetEntity> addedValueSets = newValueSets.stream()
+            .map(valueSet -> toEntity(valueSet.getHash(), valueSet.getId(), valueSet.getRawData(),
+                signatures.get(valueSet.getHash())))
+            .collect(Collectors.toList());
+        final long signDone = System.currentTimeMillis();
+
+        if (!removedValueSets.isEmpty()) {
+            log.info("Deleting {} value sets not contained in latest response from gateway.",
+                removedValueSets.size());
+            valueSetRepository.deleteAllByIdInBatch(removedValueSets);
         }
+        final long deleteDone = System.currentTimeMillis();
+
+        valueSetRepository.insertAll(addedValueSets);
+        final long insertDone = System.currentTimeMillis();
 
-        for (ValueSetItem valueSet : valueSets) {
-            log.debug("Processing value set with hash '{}'.", valueSet.getHash());
-            if (!alreadyStoredValueSets.contains(valueSet.getHash())) {
-                saveValueSet(valueSet.getHash(), valueSet.getId(), valueSet.getRawData());
-                log.debug("Saved value set '{}'.", valueSet.getHash());
-            } else {
-                log.debug("Value set already exists in database. Persisting skipped.");
-            }
-        }
         listSigningService.updateSignedList(getValueSetsList(), ListType.ValueSets);
+        dataSnapshotService.publishValueSets();
+        if (!addedValueSets.isEmpty() || !removedValueSets.isEmpty()) {
+            dataVersionService.markChanged(DataVersionService.VALUE_SETS);
+        }
+        long end = System.currentTimeMillis();
 
+        UpdateResult result = new UpdateResult(addedValueSets.size(), removedValueSets.size(),
+            alreadyStoredValueSets.size() - removedValueSets.size(), diffDone - start, signDone - diffDone,
+            deleteDone - signDone, insertDone - deleteDone, end - insertDone);
+        log.info("Updated value sets: {}", result);
+        return result;
     }
 
     /**
@@ -131,17 +156,21 @@ public class ValueSetService {
      */
     @Transactional
     public void saveValueSet(String hash, String valueSetName, String valueSetData) {
+        valueSetRepository.save(toEntity(hash, valueSetName, valueSetData,
+            signingService.map(service -> service.computeSignature(hash)).orElse(null)));
+    }
 
+    private Map<String, String> computeSignatures(List<String> hashes) {
+        return signingService.map(service -> service.computeSignatures(hashes)).orElse(Collections.emptyMap());
+    }
+
+    private ValueSetEntity toEntity(String hash, String valueSetName, String valueSetData, String signature) {
         ValueSetEntity vse = new ValueSetEntity();
         vse.setHash(hash);
         vse.setId(valueSetName);
         vse.setRawData(valueSetData);
-
-        if (signingService.isPresent()) {
-            vse.setSignature(signingService.get().computeSignature(vse.getHash()));
-        }
-
-        valueSetRepository.save(vse);
+        vse.setSignature(signature);
+        return vse;
     }
 
     /**
@@ -164,12 +193,4 @@ public class ValueSetService {
         return valueSetItems;
     }
 
-    /**
-     * Gets a list of hash values of all stored value sets.
-     * @return List of hash values
-     */
-    private List<String> getValueSetsHashList() {
-        return getValueSetsList().stream().map(ValueSetListItemDto::getHash).collect(Collectors.toList());
-    }
-
 }
@@ -20,9 +20,15 @@
 
 package eu.europa.ec.dgc.businessrule.utils;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.europa.ec.dgc.businessrule.entity.BusinessRuleEntity;
 import eu.europa.ec.dgc.utils.CertificateUtils;
 import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -31,6 +37,13 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 public class BusinessRulesUtils {
+    /**
+     * Type stored for rules without a type in their raw data, so their metadata is only extracted once.
+     */
+    public static final String UNKNOWN_TYPE = "";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final CertificateUtils certificateUtils;
 
     /**
@@ -40,4 +53,45 @@ public class BusinessRulesUtils {
         return certificateUtils.calculateHash(data.getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Sets the type, certificate type, engine and validity of the rule from its raw data. Fields which are
+     * missing or malformed in the raw data are left empty, a missing type is set to {@link #UNKNOWN_TYPE}.
+     *
+     * @param rule the rule with raw data.
+     */
+    public void applyRuleMetadata(BusinessRuleEntity rule) {
+        JsonNode json;
+        try {
+            json = OBJECT_MAPPER.readTree(rule.getRawData());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not read the metadata of business rule {}.", rule.getHash());
+            rule.setType(UNKNOWN_TYPE);
+            return;
+        }
+        String type = textValue(json, "Type");
+        rule.setType(type == null ? UNKNOWN_TYPE : type);
+        rule.setCertificateType(textValue(json, "CertificateType"));
+        rule.setEngine(textValue(json, "Engine"));
+        rule.setEngineVersion(textValue(json, "EngineVersion"));
+        rule.setValidFrom(dateTimeValue(json, "ValidFrom"));
+        rule.setValidTo(dateTimeValue(json, "ValidTo"));
+    }
+
+    private String textValue(JsonNode json, String field) {
+        JsonNode value = json.get(field);
+        return value != null && value.isTextual() ? value.textValue() : null;
+    }
+
+    private ZonedDateTime dateTimeValue(JsonNode json, String field) {
+        String value = textValue(json, field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
 }
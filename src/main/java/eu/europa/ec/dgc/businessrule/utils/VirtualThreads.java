@@ -0,0 +1,84 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.utils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads if the runtime supports them (Java 21 or later). The service is compiled for Java 11,
+ * so the API is accessed by reflection.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Checks whether the runtime supports virtual threads.
+     *
+     * @return true if virtual threads can be created.
+     */
+    public static boolean isAvailable() {
+        try {
+            threadFactory("probe-");
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates an executor which starts a new virtual thread for each task.
+     *
+     * @param namePrefix the prefix of the thread names, followed by a counter.
+     * @return the executor.
+     * @throws IllegalStateException if the runtime does not support virtual threads.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory threadFactory = threadFactory(namePrefix);
+        try {
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor",
+                ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not supported by this runtime.", e);
+        }
+    }
+
+    private static ThreadFactory threadFactory(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (InvocationTargetException e) {
+            // preview API of Java 19 and 20 without --enable-preview
+            throw new IllegalStateException("Virtual threads are not enabled in this runtime.", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not supported by this runtime.", e);
+        }
+    }
+}
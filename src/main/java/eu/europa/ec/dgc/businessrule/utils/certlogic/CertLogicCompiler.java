@@ -0,0 +1,528 @@
+/*-
+ * ---license-start
+ * eu-digital-green-certificates / dgca-businessrule-service
+ * ---
+ * Copyright (C) 2021 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package eu.europa.ec.dgc.businessrule.utils.certlogic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles CertLogic expressions into trees of {@link CertLogicExpression}s. The operations and their operands
+ * are checked and the var paths are split once when a rule is compiled, so evaluating a compiled rule does not
+ * touch its JSON anymore.
+ *
+ * <p>Values are represented as null, {@link Boolean}, {@link Integer} or {@link Long}, {@link String},
+ * {@link List}, {@link Map} and {@link Instant} for dates.
+ */
+public final class CertLogicCompiler {
+
+    private static final Set<String> TIME_UNITS = Set.of("year", "month", "day", "hour");
+
+    private static final String UVCI_PREFIX = "URN:UVCI:";
+
+    private static final Pattern UVCI_SEPARATORS = Pattern.compile("[/#:]");
+
+    private static final Pattern PARTIAL_DATE = Pattern.compile("(\\d{4})(?:-(\\d{2})(?:-(\\d{2}))?)?");
+
+    private CertLogicCompiler() {
+    }
+
+    /**
+     * Compiles a CertLogic expression.
+     *
+     * @param logic the expression, e.g. the Logic field of a business rule.
+     * @return the compiled expression.
+     * @throws CertLogicException if the expression is not valid CertLogic.
+     */
+    public static CertLogicExpression compile(JsonNode logic) {
+        if (logic == null) {
+            throw new CertLogicException("The expression is missing.");
+        }
+        if (logic.isNull()) {
+            return data -> null;
+        }
+        if (logic.isTextual() || logic.isBoolean() || logic.isIntegralNumber()) {
+            Object value = literal(logic);
+            return data -> value;
+        }
+        if (logic.isArray()) {
+            List<CertLogicExpression> items = compileAll(logic);
+            return data -> {
+                List<Object> values = new ArrayList<>(items.size());
+                for (CertLogicExpression item : items) {
+                    values.add(item.evaluate(data));
+                }
+                return values;
+            };
+        }
+        if (logic.isObject() && logic.size() == 1) {
+            Map.Entry<String, JsonNode> operation = logic.fields().next();
+            return compileOperation(operation.getKey(), operation.getValue());
+        }
+        throw new CertLogicException("Invalid expression: " + logic);
+    }
+
+    /**
+     * Checks whether a value is truthy in the sense of CertLogic. False, null, the empty string, 0 and empty
+     * arrays and objects are falsy, all other values are truthy.
+     *
+     * @param value the value to check.
+     * @return true if the value is truthy.
+     */
+    public static boolean isTruthy(Object value) {
+        if (value == null) {
+            return false;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof String) {
+            return !((String) value).isEmpty();
+        } else if (value instanceof Number) {
+            return ((Number) value).doubleValue() != 0;
+        } else if (value instanceof List) {
+            return !((List<?>) value).isEmpty();
+        } else if (value instanceof Map) {
+            return !((Map<?, ?>) value).isEmpty();
+        }
+        return true;
+    }
+
+    private static CertLogicExpression compileOperation(String operator, JsonNode operand) {
+        switch (operator) {
+            case "var":
+                return compileVar(operand);
+            case "if":
+                return compileIf(operands(operator, operand, 3, 3));
+            case "!":
+                CertLogicExpression negated = compile(operands(operator, operand, 1, 1).get(0));
+                return data -> !isTruthy(negated.evaluate(data));
+            case "and":
+                return compileAnd(operands(operator, operand, 2, Integer.MAX_VALUE));
+            case "===":
+                return compileEquals(operands(operator, operand, 2, 2));
+            case "in":
+                return compileIn(operands(operator, operand, 2, 2));
+            case "+":
+                return compilePlus(operands(operator, operand, 2, 2));
+            case "<":
+                return compileComparison(operator, operand, result -> result < 0);
+            case "<=":
+                return compileComparison(operator, operand, result -> result <= 0);
+            case ">":
+                return compileComparison(operator, operand, result -> result > 0);
+            case ">=":
+                return compileComparison(operator, operand, result -> result >= 0);
+            case "before":
+                return compileDateComparison(operator, operand, result -> result < 0);
+            case "not-after":
+                return compileDateComparison(operator, operand, result -> result <= 0);
+            case "after":
+                return compileDateComparison(operator, operand, result -> result > 0);
+            case "not-before":
+                return compileDateComparison(operator, operand, result -> result >= 0);
+            case "plusTime":
+                return compilePlusTime(operands(operator, operand, 3, 3));
+            case "reduce":
+                return compileReduce(operands(operator, operand, 3, 3));
+            case "extractFromUVCI":
+                return compileExtractFromUvci(operands(operator, operand, 2, 2));
+            case "dccDateOfBirth":
+                CertLogicExpression dateOfBirth = compile(operands(operator, operand, 1, 1).get(0));
+                return data -> dccDateOfBirth(dateOfBirth.evaluate(data));
+            default:
+                throw new CertLogicException("Unknown operation: " + operator);
+        }
+    }
+
+    /**
+     * The path is split once, numeric fragments are used as array indices.
+     */
+    private static CertLogicExpression compileVar(JsonNode operand) {
+        if (!operand.isTextual()) {
+            throw new CertLogicException("The operand of var must be a path string: " + operand);
+        }
+        String path = operand.textValue();
+        if (path.isEmpty()) {
+            return data -> data;
+        }
+        String[] fragments = path.split("\\.");
+        int[] indices = new int[fragments.length];
+        for (int i = 0; i < fragments.length; i++) {
+            indices[i] = fragments[i].matches("\\d{1,9}") ? Integer.parseInt(fragments[i]) : -1;
+        }
+        return data -> {
+            Object current = data;
+            for (int i = 0; i < fragments.length && current != null; i++) {
+                if (current instanceof Map) {
+                    current = ((Map<?, ?>) current).get(fragments[i]);
+                } else if (current instanceof List && indices[i] >= 0 && indices[i] < ((List<?>) current).size()) {
+                    current = ((List<?>) current).get(indices[i]);
+                } else {
+                    current = null;
+                }
+            }
+            return current;
+        };
+    }
+
+    private static CertLogicExpression compileIf(List<JsonNode> operands) {
+        CertLogicExpression guard = compile(operands.get(0));
+        CertLogicExpression then = compile(operands.get(1));
+        CertLogicExpression otherwise = compile(operands.get(2));
+        return data -> isTruthy(guard.evaluate(data)) ? then.evaluate(data) : otherwise.evaluate(data);
+    }
+
+    /**
+     * Returns the first falsy operand or the last operand, operands after a falsy one are not evaluated.
+     */
+    private static CertLogicExpression compileAnd(List<JsonNode> operands) {
+        List<CertLogicExpression> expressions = compileAll(operands);
+        return data -> {
+            Object result = null;
+            for (CertLogicExpression expression : expressions) {
+                result = expression.evaluate(data);
+                if (!isTruthy(result)) {
+                    return result;
+                }
+            }
+            return result;
+        };
+    }
+
+    private static CertLogicExpression compileEquals(List<JsonNode> operands) {
+        CertLogicExpression left = compile(operands.get(0));
+        CertLogicExpression right = compile(operands.get(1));
+        return data -> strictEquals(left.evaluate(data), right.evaluate(data));
+    }
+
+    private static CertLogicExpression compileIn(List<JsonNode> operands) {
+        CertLogicExpression item = compile(operands.get(0));
+        CertLogicExpression list = compile(operands.get(1));
+        return data -> {
+            Object value = item.evaluate(data);
+            Object values = list.evaluate(data);
+            if (!(values instanceof List)) {
+                throw new CertLogicException("The right operand of in must be an array.");
+            }
+            for (Object candidate : (List<?>) values) {
+                if (strictEquals(value, candidate)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static CertLogicExpression compilePlus(List<JsonNode> operands) {
+        CertLogicExpression left = compile(operands.get(0));
+        CertLogicExpression right = compile(operands.get(1));
+        return data -> integer(left.evaluate(data)) + integer(right.evaluate(data));
+    }
+
+    private static CertLogicExpression compileComparison(String operator, JsonNode operand, IntPredicate check) {
+        List<CertLogicExpression> expressions = compileAll(operands(operator, operand, 2, 3));
+        return data -> {
+            long previous = integer(expressions.get(0).evaluate(data));
+            boolean result = true;
+            for (int i = 1; i < expressions.size(); i++) {
+                long current = integer(expressions.get(i).evaluate(data));
+                result &= check.test(Long.compare(previous, current));
+                previous = current;
+            }
+            return result;
+        };
+    }
+
+    private static CertLogicExpression compileDateComparison(String operator, JsonNode operand, IntPredicate check) {
+        List<CertLogicExpression> expressions = compileAll(operands(operator, operand, 2, 3));
+        return data -> {
+            Instant previous = date(expressions.get(0).evaluate(data));
+            boolean result = true;
+            for (int i = 1; i < expressions.size(); i++) {
+                Instant current = date(expressions.get(i).evaluate(data));
+                result &= check.test(previous.compareTo(current));
+                previous = current;
+            }
+            return result;
+        };
+    }
+
+    /**
+     * The amount and the unit must be literals, so they are checked once at compile time.
+     */
+    private static CertLogicExpression compilePlusTime(List<JsonNode> operands) {
+        CertLogicExpression dateTime = compile(operands.get(0));
+        if (!operands.get(1).isIntegralNumber()) {
+            throw new CertLogicException("The amount of plusTime must be an integer literal.");
+        }
+        long amount = operands.get(1).longValue();
+        String unit = operands.get(2).asText();
+        if (!TIME_UNITS.contains(unit)) {
+            throw new CertLogicException("Unknown time unit of plusTime: " + operands.get(2));
+        }
+        return data -> {
+            Object value = dateTime.evaluate(data);
+            if (!(value instanceof String)) {
+                throw new CertLogicException("The date operand of plusTime must be a string.");
+            }
+            return plusTime(parseDateTime((String) value), amount, unit);
+        };
+    }
+
+    private static CertLogicExpression compileReduce(List<JsonNode> operands) {
+        CertLogicExpression list = compile(operands.get(0));
+        CertLogicExpression lambda = compile(operands.get(1));
+        CertLogicExpression initial = compile(operands.get(2));
+        return data -> {
+            Object values = list.evaluate(data);
+            Object accumulator = initial.evaluate(data);
+            if (values == null) {
+                return accumulator;
+            }
+            if (!(values instanceof List)) {
+                throw new CertLogicException("The operand of reduce must be an array or null.");
+            }
+            for (Object current : (List<?>) values) {
+                Map<String, Object> context = new HashMap<>(4);
+                context.put("accumulator", accumulator);
+                context.put("current", current);
+                context.put("data", data);
+                accumulator = lambda.evaluate(context);
+            }
+            return accumulator;
+        };
+    }
+
+    private static CertLogicExpression compileExtractFromUvci(List<JsonNode> operands) {
+        CertLogicExpression uvci = compile(operands.get(0));
+        if (!operands.get(1).isIntegralNumber()) {
+            throw new CertLogicException("The index of extractFromUVCI must be an integer literal.");
+        }
+        int index = operands.get(1).intValue();
+        return data -> {
+            Object value = uvci.evaluate(data);
+            if (value == null) {
+                return null;
+            }
+            if (!(value instanceof String)) {
+                throw new CertLogicException("The operand of extractFromUVCI must be a string or null.");
+            }
+            String identifier = (String) value;
+            if (identifier.startsWith(UVCI_PREFIX)) {
+                identifier = identifier.substring(UVCI_PREFIX.length());
+            }
+            String[] fragments = UVCI_SEPARATORS.split(identifier, -1);
+            return index >= 0 && index < fragments.length ? fragments[index] : null;
+        };
+    }
+
+    private static List<JsonNode> operands(String operator, JsonNode operand, int min, int max) {
+        if (!operand.isArray() || operand.size() < min || operand.size() > max) {
+            throw new CertLogicException("Invalid operands of " + operator + ": " + operand);
+        }
+        List<JsonNode> operands = new ArrayList<>(operand.size());
+        operand.forEach(operands::add);
+        return operands;
+    }
+
+    private static List<CertLogicExpression> compileAll(Iterable<JsonNode> nodes) {
+        List<CertLogicExpression> expressions = new ArrayList<>();
+        Iterator<JsonNode> iterator = nodes.iterator();
+        while (iterator.hasNext()) {
+            expressions.add(compile(iterator.next()));
+        }
+        return expressions;
+    }
+
+    private static Object literal(JsonNode node) {
+        if (node.isTextual()) {
+            return node.textValue();
+        } else if (node.isBoolean()) {
+            return node.booleanValue();
+        }
+        return node.longValue();
+    }
+
+    private static boolean strictEquals(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            return isInteger(left) && isInteger(right)
+                ? ((Number) left).longValue() == ((Number) right).longValue()
+                : ((Number) left).doubleValue() == ((Number) right).doubleValue();
+        }
+        if (left instanceof String || left instanceof Boolean) {
+            return left.equals(right);
+        }
+        return left == right;
+    }
+
+    private static boolean isInteger(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    private static long integer(Object value) {
+        if (!isInteger(value)) {
+            throw new CertLogicException("Operand is not an integer: " + value);
+        }
+        return ((Number) value).longValue();
+    }
+
+    private static Instant date(Object value) {
+        if (!(value instanceof Instant)) {
+            throw new CertLogicException("Operand is not a date: " + value);
+        }
+        return (Instant) value;
+    }
+
+    private static Instant plusTime(Instant dateTime, long amount, String unit) {
+        OffsetDateTime utc = dateTime.atOffset(ZoneOffset.UTC);
+        switch (unit) {
+            case "year":
+                return utc.plusYears(amount).toInstant();
+            case "month":
+                return utc.plusMonths(amount).toInstant();
+            case "day":
+                return utc.plusDays(amount).toInstant();
+            default:
+                return utc.plusHours(amount).toInstant();
+        }
+    }
+
+    /**
+     * Parses dates and date times as used in DCCs, date times without offset are in UTC. The formats are fixed,
+     * so the string is parsed by hand as this is the most expensive part of evaluating typical rules.
+     */
+    static Instant parseDateTime(String value) {
+        try {
+            int length = value.length();
+            if (length < 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+                throw invalidDateTime(value);
+            }
+            LocalDate date = LocalDate.of(digits(value, 0, 4), digits(value, 5, 7), digits(value, 8, 10));
+            if (length == 10) {
+                return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+            if (length < 19 || value.charAt(10) != 'T' || value.charAt(13) != ':' || value.charAt(16) != ':') {
+                throw invalidDateTime(value);
+            }
+            LocalTime time = LocalTime.of(digits(value, 11, 13), digits(value, 14, 16), digits(value, 17, 19));
+            int position = 19;
+            if (position < length && value.charAt(position) == '.') {
+                int start = ++position;
+                while (position < length && Character.isDigit(value.charAt(position))) {
+                    position++;
+                }
+                if (position == start) {
+                    throw invalidDateTime(value);
+                }
+                time = time.withNano(digits((value.substring(start, position) + "00000000").substring(0, 9),
+                    0, 9));
+            }
+            return LocalDateTime.of(date, time).toInstant(offset(value, position));
+        } catch (DateTimeException e) {
+            throw invalidDateTime(value);
+        }
+    }
+
+    private static ZoneOffset offset(String value, int position) {
+        int length = value.length();
+        if (position == length || (position == length - 1 && value.charAt(position) == 'Z')) {
+            return ZoneOffset.UTC;
+        }
+        char sign = value.charAt(position);
+        if (sign != '+' && sign != '-') {
+            throw invalidDateTime(value);
+        }
+        int hours = digits(value, position + 1, position + 3);
+        int minutes;
+        if (length == position + 3) {
+            minutes = 0;
+        } else if (length == position + 5) {
+            minutes = digits(value, position + 3, position + 5);
+        } else if (length == position + 6 && value.charAt(position + 3) == ':') {
+            minutes = digits(value, position + 4, position + 6);
+        } else {
+            throw invalidDateTime(value);
+        }
+        return ZoneOffset.ofHoursMinutes(sign == '-' ? -hours : hours, sign == '-' ? -minutes : minutes);
+    }
+
+    private static int digits(String value, int start, int end) {
+        if (end > value.length()) {
+            throw invalidDateTime(value);
+        }
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char digit = value.charAt(i);
+            if (digit < '0' || digit > '9') {
+                throw invalidDateTime(value);
+            }
+            result = result * 10 + digit - '0';
+        }
+        return result;
+    }
+
+    private static CertLogicException invalidDateTime(String value) {
+        return new CertLogicException("Invalid date time: " + value);
+    }
+
+    /**
+     * Partial dates of birth are completed to the last day of the given year or month.
+     */
+    private static Instant dccDateOfBirth(Object value) {
+        if (!(value instanceof String)) {
+            throw new CertLogicException("The operand of dccDateOfBirth must be a string.");
+        }
+        Matcher matcher = PARTIAL_DATE.matcher((String) value);
+        if (!matcher.matches()) {
+            throw new CertLogicException("Invalid date of birth: " + value);
+        }
+        try {
+            int year = Integer.parseInt(matcher.group(1));
+            LocalDate date;
+            if (matcher.group(2) == null) {
+                date = LocalDate.of(year, 12, 31);
+            } else if (matcher.group(3) == null) {
+                date = LocalDate.of(year, Integer.parseInt(matcher.group(2)), 1)
+                    .with(TemporalAdjusters.lastDayOfMonth());
+            } else {
+                date = LocalDate.of(year, Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+            }
+            return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        } catch (DateTimeException e) {
+            throw new CertLogicException("Invalid date of birth: " + value);
+        }
+    }
+}
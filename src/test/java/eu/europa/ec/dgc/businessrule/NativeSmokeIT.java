@@ -0,0 +1,112 @@
+package eu.europa.ec.dgc.businessrule;
+
+import eu.europa.ec.dgc.businessrule.config.DgcConfigProperties;
+import eu.europa.ec.dgc.businessrule.model.DataSnapshot;
+import eu.europa.ec.dgc.businessrule.model.ListChanges;
+import eu.europa.ec.dgc.businessrule.model.RulesSnapshot;
+import eu.europa.ec.dgc.businessrule.model.SignedPayload;
+import eu.europa.ec.dgc.businessrule.model.ValueSetsSnapshot;
+import eu.europa.ec.dgc.businessrule.service.SnapshotFileService;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Starts the native executable in the read only edge mode with a snapshot file and requests the read endpoints.
+ * Runs in the native profile only, which passes the path of the executable. The time the executable may take
+ * to start can be changed with the system property native.startupTimeoutMillis.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "native.executable", matches = ".+")
+class NativeSmokeIT {
+
+    private static final long STARTUP_TIMEOUT_MILLIS = Long.getLong("native.startupTimeoutMillis", 10000);
+
+    @TempDir
+    Path directory;
+
+    HttpClient httpClient = HttpClient.newHttpClient();
+    Process process;
+    String baseUrl;
+
+    @BeforeEach
+    void startExecutable() throws Exception {
+        Path snapshotFile = directory.resolve("snapshot.bin");
+        DgcConfigProperties config = new DgcConfigProperties();
+        config.getSnapshotFile().setPath(snapshotFile.toString());
+        new SnapshotFileService(config, Optional.empty()).write(snapshot());
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        baseUrl = "http://localhost:" + port;
+        process = new ProcessBuilder(System.getProperty("native.executable"),
+            "--spring.profiles.active=edge", "--server.port=" + port, "--management.server.port=-1",
+            "--dgc.snapshotFile.path=" + snapshotFile, "--dgc.snapshotFile.allowUnsigned=true")
+            .inheritIO()
+            .start();
+    }
+
+    @AfterEach
+    void stopExecutable() {
+        process.destroy();
+    }
+
+    @Test
+    void servesSnapshot() throws Exception {
+        long start = System.currentTimeMillis();
+        HttpResponse<String> countryList = awaitStartup();
+        log.info("Native executable ready after {} ms.", System.currentTimeMillis() - start);
+
+        Assertions.assertEquals("[\"DE\"]", countryList.body());
+        Assertions.assertEquals(200, get("/rules").statusCode());
+        Assertions.assertEquals("{\"rule\":1}", get("/rules/DE/h1").body());
+        Assertions.assertEquals(404, get("/rules/DE/unknown").statusCode());
+        Assertions.assertEquals("{\"valueSet\":1}", get("/valuesets/h2").body());
+    }
+
+    private HttpResponse<String> awaitStartup() throws Exception {
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+        while (true) {
+            try {
+                return get("/countrylist");
+            } catch (ConnectException e) {
+                Assertions.assertTrue(process.isAlive(), () -> "The executable exited with " + process.exitValue());
+                Assertions.assertTrue(System.currentTimeMillis() < deadline, "The executable did not start in time");
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("X-VERSION", "1.0")
+            .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static DataSnapshot snapshot() {
+        SignedPayload list = SignedPayload.of("[]", "h0", null);
+        ListChanges changes = new ListChanges(Collections.emptyMap(), SignedPayload.of("{}", "h3", null));
+        return new DataSnapshot(
+            new RulesSnapshot(list, changes, Map.of("DE", list),
+                Map.of("DE", Map.of("h1", SignedPayload.of("{\"rule\":1}", "h1", null))), list, Map.of()),
+            new ValueSetsSnapshot(list, changes, Map.of("h2", SignedPayload.of("{\"valueSet\":1}", "h2", null))),
+            SignedPayload.of("[\"DE\"]", "h4", null));
+    }
+}
@@ -0,0 +1,31 @@
+package eu.europa.ec.dgc.businessrule;
+
+import eu.europa.ec.dgc.businessrule.service.DataSnapshotService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Fails if the start up of the application with the fast-startup profile takes longer than the threshold, which
+ * can be changed with the system property startup.thresholdMillis. Runs with failsafe in the startup-time
+ * profile only, so it does not boot a second context in the unit test run.
+ */
+class StartupTimeIT {
+
+    private static final long THRESHOLD_MILLIS = Long.getLong("startup.thresholdMillis", 32000);
+
+    @Test
+    void applicationStartsWithinThreshold() {
+        long start = System.currentTimeMillis();
+        try (ConfigurableApplicationContext context = SpringApplication.run(DgcBusinessRuleServiceApplication.class,
+            "--spring.profiles.active=test,fast-startup", "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1")) {
+            long duration = System.currentTimeMillis() - start;
+
+            Assertions.assertNotNull(context.getBean(DataSnapshotService.class).getSnapshot().getCountryList());
+            Assertions.assertTrue(duration < THRESHOLD_MILLIS,
+                "Start up took " + duration + " ms, the threshold is " + THRESHOLD_MILLIS + " ms");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package eu.europa.ec.dgc.businessrule.model;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RuleApplicabilityIndexTest {
+
+    private static final RuleApplicabilityIndex INDEX = RuleApplicabilityIndex.of(Map.of("DE", List.of(
+        rule("VR-DE-1", "1.0.0", "Vaccination", "2021-06-01T00:00:00Z", "2021-08-01T00:00:00Z"),
+        rule("VR-DE-1", "1.1.0", "Vaccination", "2021-07-01T00:00:00Z", "2021-09-01T00:00:00Z"),
+        rule("TR-DE-1", "1.0.0", "Test", "2021-06-01T00:00:00Z", null),
+        rule("GR-DE-1", "1.0.0", "General", null, "2021-07-15T00:00:00Z"))));
+
+    @Test
+    void returnsHighestValidVersionPerIdentifier() {
+        Assertions.assertEquals(List.of("GR-DE-1:1.0.0", "VR-DE-1:1.0.0"), keys("Vaccination", "2021-06-15T00:00:00Z"));
+        Assertions.assertEquals(List.of("GR-DE-1:1.0.0", "VR-DE-1:1.1.0"), keys("Vaccination", "2021-07-01T00:00:00Z"));
+        Assertions.assertEquals(List.of("VR-DE-1:1.1.0"), keys("vaccination", "2021-08-01T00:00:00Z"));
+        Assertions.assertEquals(List.of(), keys("Vaccination", "2021-09-01T00:00:00Z"));
+    }
+
+    @Test
+    void includesGeneralRulesForAllCertificateTypes() {
+        Assertions.assertEquals(List.of("GR-DE-1:1.0.0"), keys("Test", "2021-05-01T00:00:00Z"));
+        Assertions.assertEquals(List.of("GR-DE-1:1.0.0", "TR-DE-1:1.0.0"), keys("Test", "2021-06-01T00:00:00Z"));
+        Assertions.assertEquals(List.of("GR-DE-1:1.0.0"), keys("Recovery", "2021-06-01T00:00:00Z"));
+        Assertions.assertEquals(List.of("GR-DE-1:1.0.0", "TR-DE-1:1.0.0", "VR-DE-1:1.0.0"),
+            keys(null, "2021-06-15T00:00:00Z"));
+    }
+
+    @Test
+    void returnsNoRulesForUnknownCountries() {
+        Assertions.assertTrue(INDEX.getApplicableRules("XX", "Test", Instant.now()).isEmpty());
+        Assertions.assertTrue(INDEX.getApplicableRules("XX", null, Instant.now()).isEmpty());
+    }
+
+    @Test
+    void matchesAllRulesWithManyOverlappingVersions() {
+        Random random = new Random(42);
+        Instant origin = Instant.parse("2021-06-01T00:00:00Z");
+        List<RuleMetadata> rules = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Instant validFrom = random.nextInt(10) == 0 ? null : origin.plus(random.nextInt(500), ChronoUnit.DAYS);
+            Instant validTo = random.nextInt(4) == 0 ? null
+                : (validFrom == null ? origin : validFrom).plus(random.nextInt(300), ChronoUnit.DAYS);
+            rules.add(new RuleMetadata("VR-DE-" + random.nextInt(50), "1." + random.nextInt(5) + ".0", "DE",
+                "h" + i, "Acceptance", "Vaccination", "CERTLOGIC", "1.0.0", validFrom, validTo));
+        }
+        RuleApplicabilityIndex index = RuleApplicabilityIndex.of(Map.of("DE", rules));
+
+        for (int day = -1; day < 820; day++) {
+            Instant instant = origin.plus(day, ChronoUnit.DAYS);
+            Assertions.assertEquals(highestValidVersions(rules, instant),
+                index.getApplicableRules("DE", "Vaccination", instant), "at " + instant);
+        }
+    }
+
+    private static List<RuleMetadata> highestValidVersions(List<RuleMetadata> rules, Instant instant) {
+        Map<String, RuleMetadata> byIdentifier = new TreeMap<>();
+        for (RuleMetadata rule : rules) {
+            if ((rule.getValidFrom() == null || !rule.getValidFrom().isAfter(instant))
+                && (rule.getValidTo() == null || rule.getValidTo().isAfter(instant))) {
+                byIdentifier.merge(rule.getIdentifier(), rule, (current, other) ->
+                    RuleFilter.compareVersions(other.getVersion(), current.getVersion()) > 0 ? other : current);
+            }
+        }
+        return new ArrayList<>(byIdentifier.values());
+    }
+
+    private static List<String> keys(String certificateType, String instant) {
+        return INDEX.getApplicableRules("DE", certificateType, Instant.parse(instant)).stream()
+            .map(rule -> rule.getIdentifier() + ":" + rule.getVersion())
+            .collect(Collectors.toList());
+    }
+
+    private static RuleMetadata rule(String identifier, String version, String certificateType, String validFrom,
+                                     String validTo) {
+        return new RuleMetadata(identifier, version, "DE", identifier + version, "Acceptance", certificateType,
+            "CERTLOGIC", "1.0.0", validFrom == null ? null : Instant.parse(validFrom),
+            validTo == null ? null : Instant.parse(validTo));
+    }
+}
@@ -0,0 +1,32 @@
+package eu.europa.ec.dgc.businessrule.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ValueSetsSnapshotTest {
+
+    private static final SignedPayload OLD = valueSet("h1", "2021-04-27");
+    private static final SignedPayload NEW = valueSet("h2", "2021-06-01");
+
+    @Test
+    void latestValueSetIsUsedForDuplicateIds() {
+        Assertions.assertEquals("h2", snapshot(OLD, NEW).getCodeTable("vaccines-covid-19-names").getHash());
+        Assertions.assertEquals("h2", snapshot(NEW, OLD).getCodeTable("vaccines-covid-19-names").getHash());
+    }
+
+    private static ValueSetsSnapshot snapshot(SignedPayload first, SignedPayload second) {
+        Map<String, SignedPayload> valueSets = new LinkedHashMap<>();
+        valueSets.put(first.getHash(), first);
+        valueSets.put(second.getHash(), second);
+        SignedPayload list = SignedPayload.of("[]", "h0", null);
+        return new ValueSetsSnapshot(list, new ListChanges(Collections.emptyMap(), list), valueSets);
+    }
+
+    private static SignedPayload valueSet(String hash, String valueSetDate) {
+        return SignedPayload.of("{\"valueSetId\":\"vaccines-covid-19-names\",\"valueSetDate\":\"" + valueSetDate
+            + "\",\"valueSetValues\":{\"EU/1/20/1528\":{\"display\":\"Comirnaty\"}}}", hash, null);
+    }
+}
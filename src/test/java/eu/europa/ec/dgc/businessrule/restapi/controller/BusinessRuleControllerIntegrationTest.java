@@ -1,11 +1,25 @@
 package eu.europa.ec.dgc.businessrule.restapi.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.europa.ec.dgc.businessrule.config.MetricsConfig;
+import eu.europa.ec.dgc.businessrule.entity.SignedCountryRuleListEntity;
 import eu.europa.ec.dgc.businessrule.repository.BusinessRuleRepository;
+import eu.europa.ec.dgc.businessrule.repository.SignedCountryRuleListRepository;
 import eu.europa.ec.dgc.businessrule.service.BusinessRuleService;
 import eu.europa.ec.dgc.businessrule.testdata.BusinessRulesTestHelper;
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayCountryListDownloadConnector;
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayValidationRuleDownloadConnector;
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayValueSetDownloadConnector;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,10 +28,17 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.MockMvc;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -49,11 +70,20 @@ class BusinessRuleControllerIntegrationTest {
     @Autowired
     CacheManager cacheManager;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    SignedCountryRuleListRepository signedCountryRuleListRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @BeforeEach
     void clearRepositoryData() {
 
         businessRuleRepository.deleteAll();
-        cacheManager.getCache("business_rules").clear();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
         businessRuleService.businessRuleServiceInit();
     }
 
@@ -358,4 +388,407 @@ class BusinessRuleControllerIntegrationTest {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(content().json(expectedJson));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getRuleByCountryAndHashNotModified() throws Exception {
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_1,
+            BusinessRulesTestHelper.BR_IDENTIFIER_1, BusinessRulesTestHelper.BR_COUNTRY_1,
+            BusinessRulesTestHelper.BR_VERSION_1, BusinessRulesTestHelper.BR_DATA_1);
+
+        String etag = "\"" + BusinessRulesTestHelper.BR_HASH_1 + "\"";
+
+        mockMvc.perform(get("/rules/" + BusinessRulesTestHelper.BR_COUNTRY_1 + "/"
+            + BusinessRulesTestHelper.BR_HASH_1)
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        mockMvc.perform(get("/rules/" + BusinessRulesTestHelper.BR_COUNTRY_1 + "/"
+            + BusinessRulesTestHelper.BR_HASH_1)
+            .header(API_VERSION_HEADER, "1.0")
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    void getRulesListNotModified() throws Exception {
+        MvcResult result = mockMvc.perform(get("/rules").header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/rules").header(API_VERSION_HEADER, "1.0").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_1,
+            BusinessRulesTestHelper.BR_IDENTIFIER_1, BusinessRulesTestHelper.BR_COUNTRY_1,
+            BusinessRulesTestHelper.BR_VERSION_1, BusinessRulesTestHelper.BR_DATA_1);
+
+        mockMvc.perform(get("/rules").header(API_VERSION_HEADER, "1.0").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void getRuleByCountryAndHashGzip() throws Exception {
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_1,
+            BusinessRulesTestHelper.BR_IDENTIFIER_1, BusinessRulesTestHelper.BR_COUNTRY_1,
+            BusinessRulesTestHelper.BR_VERSION_1, BusinessRulesTestHelper.BR_DATA_1);
+
+        MvcResult result = mockMvc.perform(get("/rules/" + BusinessRulesTestHelper.BR_COUNTRY_1 + "/"
+            + BusinessRulesTestHelper.BR_HASH_1)
+            .header(API_VERSION_HEADER, "1.0")
+            .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+            .andReturn();
+
+        byte[] compressed = result.getResponse().getContentAsByteArray();
+        Assertions.assertEquals(compressed.length, result.getResponse().getContentLength());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            Assertions.assertEquals(BusinessRulesTestHelper.BR_DATA_1,
+                new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        mockMvc.perform(get("/rules/" + BusinessRulesTestHelper.BR_COUNTRY_1 + "/"
+            + BusinessRulesTestHelper.BR_HASH_1)
+            .header(API_VERSION_HEADER, "1.0")
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andExpect(content().json(BusinessRulesTestHelper.BR_DATA_1));
+    }
+
+    @Test
+    void getRuleChanges() throws Exception {
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_1,
+            BusinessRulesTestHelper.BR_IDENTIFIER_1, BusinessRulesTestHelper.BR_COUNTRY_1,
+            BusinessRulesTestHelper.BR_VERSION_1, BusinessRulesTestHelper.BR_DATA_1);
+
+        String since = mockMvc.perform(get("/rules").header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG).replace("\"", "");
+
+        businessRuleRepository.deleteAll();
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_4,
+            BusinessRulesTestHelper.BR_IDENTIFIER_4, BusinessRulesTestHelper.BR_COUNTRY_4,
+            BusinessRulesTestHelper.BR_VERSION_4, BusinessRulesTestHelper.BR_DATA_4);
+
+        String expectedJson = "{\"since\":\"" + since + "\",\"fullList\":false,"
+            + "\"added\":[{\"identifier\":\"" + BusinessRulesTestHelper.BR_IDENTIFIER_4 + "\","
+            + "\"version\":\"" + BusinessRulesTestHelper.BR_VERSION_4 + "\","
+            + "\"country\":\"" + BusinessRulesTestHelper.BR_COUNTRY_4 + "\","
+            + "\"hash\":\"" + BusinessRulesTestHelper.BR_HASH_4 + "\"}],"
+            + "\"removed\":[{\"identifier\":\"" + BusinessRulesTestHelper.BR_IDENTIFIER_1 + "\","
+            + "\"version\":\"" + BusinessRulesTestHelper.BR_VERSION_1 + "\","
+            + "\"country\":\"" + BusinessRulesTestHelper.BR_COUNTRY_1 + "\","
+            + "\"hash\":\"" + BusinessRulesTestHelper.BR_HASH_1 + "\"}]}";
+
+        mockMvc.perform(get("/rules/changes").param("since", since).header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(content().json(expectedJson));
+    }
+
+    @Test
+    void getRuleBatch() throws Exception {
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_1,
+            BusinessRulesTestHelper.BR_IDENTIFIER_1, BusinessRulesTestHelper.BR_COUNTRY_1,
+            BusinessRulesTestHelper.BR_VERSION_1, BusinessRulesTestHelper.BR_DATA_1);
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_3,
+            BusinessRulesTestHelper.BR_IDENTIFIER_3, BusinessRulesTestHelper.BR_COUNTRY_3,
+            BusinessRulesTestHelper.BR_VERSION_3, BusinessRulesTestHelper.BR_DATA_3);
+
+        String keys = "[{\"country\":\"de\",\"hash\":\"" + BusinessRulesTestHelper.BR_HASH_1 + "\"},"
+            + "{\"country\":\"EU\",\"hash\":\"" + BusinessRulesTestHelper.BR_HASH_3 + "\"},"
+            + "{\"country\":\"EU\",\"hash\":\"" + BusinessRulesTestHelper.BR_HASH_2 + "\"}]";
+
+        MvcResult result = mockMvc.perform(post("/rules/batch")
+            .header(API_VERSION_HEADER, "1.0")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(keys))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(2, lines.length);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        Assertions.assertEquals(BusinessRulesTestHelper.BR_COUNTRY_1, first.get("country").asText());
+        Assertions.assertEquals(BusinessRulesTestHelper.BR_HASH_1, first.get("hash").asText());
+        Assertions.assertEquals(BusinessRulesTestHelper.BR_DATA_1, first.get("data").asText());
+
+        JsonNode second = objectMapper.readTree(lines[1]);
+        Assertions.assertEquals(BusinessRulesTestHelper.BR_COUNTRY_3, second.get("country").asText());
+        Assertions.assertEquals(BusinessRulesTestHelper.BR_HASH_3, second.get("hash").asText());
+        Assertions.assertEquals(BusinessRulesTestHelper.BR_DATA_3, second.get("data").asText());
+    }
+
+    @Test
+    void getRuleBatchNullKey() throws Exception {
+        mockMvc.perform(post("/rules/batch")
+            .header(API_VERSION_HEADER, "1.0")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[null]"))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().json("{\"code\":\"0x004\"}"));
+
+        mockMvc.perform(post("/rules/batch")
+            .header(API_VERSION_HEADER, "1.0")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[{\"hash\":\"" + BusinessRulesTestHelper.BR_HASH_1 + "\"}]"))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().json("{\"code\":\"0x004\"}"));
+    }
+
+    @Test
+    void getRuleBatchEmpty() throws Exception {
+        mockMvc.perform(post("/rules/batch")
+            .header(API_VERSION_HEADER, "1.0")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[]"))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void getRulesForCountryPrecomputed() throws Exception {
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_1,
+            BusinessRulesTestHelper.BR_IDENTIFIER_1, BusinessRulesTestHelper.BR_COUNTRY_1,
+            BusinessRulesTestHelper.BR_VERSION_1, BusinessRulesTestHelper.BR_DATA_1);
+
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_3,
+            BusinessRulesTestHelper.BR_IDENTIFIER_3, BusinessRulesTestHelper.BR_COUNTRY_3,
+            BusinessRulesTestHelper.BR_VERSION_3, BusinessRulesTestHelper.BR_DATA_3);
+
+        SignedCountryRuleListEntity countryList =
+            signedCountryRuleListRepository.findById(BusinessRulesTestHelper.BR_COUNTRY_1).orElseThrow();
+        Assertions.assertTrue(signedCountryRuleListRepository.existsById(BusinessRulesTestHelper.BR_COUNTRY_3));
+
+        mockMvc.perform(get("/rules/" + BusinessRulesTestHelper.BR_COUNTRY_1).header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + countryList.getHash() + "\""))
+            .andExpect(content().string(countryList.getRawData()));
+
+        businessRuleRepository.deleteAll();
+        businessRuleService.businessRuleServiceInit();
+
+        Assertions.assertEquals(0, signedCountryRuleListRepository.count());
+    }
+
+    @Test
+    void getRuleRecordsMetrics() throws Exception {
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_1,
+            BusinessRulesTestHelper.BR_IDENTIFIER_1, BusinessRulesTestHelper.BR_COUNTRY_1,
+            BusinessRulesTestHelper.BR_VERSION_1, BusinessRulesTestHelper.BR_DATA_1);
+        double notFound = meterRegistry.counter(MetricsConfig.LOOKUPS_NOT_FOUND, "type", MetricsConfig.TYPE_RULE)
+            .count();
+
+        MvcResult result = mockMvc.perform(get("/rules/" + BusinessRulesTestHelper.BR_COUNTRY_1
+            + "/" + BusinessRulesTestHelper.BR_HASH_1)
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andReturn();
+        mockMvc.perform(get("/rules/" + BusinessRulesTestHelper.BR_COUNTRY_1
+            + "/" + BusinessRulesTestHelper.BR_HASH_2)
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isNotFound());
+
+        Assertions.assertEquals(notFound + 1,
+            meterRegistry.counter(MetricsConfig.LOOKUPS_NOT_FOUND, "type", MetricsConfig.TYPE_RULE).count());
+        DistributionSummary responseSize = meterRegistry.get(MetricsConfig.RESPONSE_SIZE)
+            .tag("uri", "/rules/{country}/{hash}")
+            .tag("status", "200")
+            .tag("encoding", "identity")
+            .summary();
+        Assertions.assertEquals(result.getResponse().getContentAsByteArray().length, responseSize.max());
+        Assertions.assertTrue(meterRegistry.get(MetricsConfig.SNAPSHOT_BYTES).tag("type", MetricsConfig.TYPE_RULE)
+            .gauge().value() > BusinessRulesTestHelper.BR_DATA_1.length());
+    }
+
+    @Test
+    void getRulesForCountryFiltered() throws Exception {
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_1,
+            BusinessRulesTestHelper.BR_IDENTIFIER_1, BusinessRulesTestHelper.BR_COUNTRY_1,
+            BusinessRulesTestHelper.BR_VERSION_1, BusinessRulesTestHelper.BR_DATA_1);
+
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_2,
+            BusinessRulesTestHelper.BR_IDENTIFIER_2, BusinessRulesTestHelper.BR_COUNTRY_2,
+            BusinessRulesTestHelper.BR_VERSION_2, BusinessRulesTestHelper.BR_DATA_2);
+
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_4,
+            BusinessRulesTestHelper.BR_IDENTIFIER_4, BusinessRulesTestHelper.BR_COUNTRY_4,
+            BusinessRulesTestHelper.BR_VERSION_4, BusinessRulesTestHelper.BR_DATA_4);
+
+        Assertions.assertEquals("Vaccination",
+            businessRuleRepository.findById(BusinessRulesTestHelper.BR_HASH_1).orElseThrow().getCertificateType());
+
+        String expectedJson = "[{\"identifier\":\"VR-DE-1\",\"version\":\"2.0.0\",\"country\":\"DE\","
+            + "\"hash\":\"1706b888b9abc095e78ab1ebf32f2445a36c6a263b72634ae56476ecac5c89de\"},"
+            + "{\"identifier\":\"VR-DE-2\",\"version\":\"1.0.0\",\"country\":\"DE\","
+            + "\"hash\":\"edd69d42d52a7b52059cfbea379e647039fc16117b75bf3dfec68c965552a2fd\"}]";
+
+        mockMvc.perform(get("/rules/de")
+            .param("validAt", "2021-08-15T00:00:00Z")
+            .param("certificateType", "vaccination")
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(BusinessRuleController.X_SIGNATURE_HEADER))
+            .andExpect(content().json(expectedJson, true));
+
+        mockMvc.perform(get("/rules")
+            .param("validAt", "2030-06-01T07:46:40Z")
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andExpect(content().json("[]", true));
+
+        mockMvc.perform(get("/rules")
+            .param("certificateType", "Test")
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andExpect(content().json("[]", true));
+
+        mockMvc.perform(get("/rules/DE")
+            .param("validAt", "yesterday")
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getApplicableRules() throws Exception {
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_1,
+            BusinessRulesTestHelper.BR_IDENTIFIER_1, BusinessRulesTestHelper.BR_COUNTRY_1,
+            BusinessRulesTestHelper.BR_VERSION_1, BusinessRulesTestHelper.BR_DATA_1);
+
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_2,
+            BusinessRulesTestHelper.BR_IDENTIFIER_2, BusinessRulesTestHelper.BR_COUNTRY_2,
+            BusinessRulesTestHelper.BR_VERSION_2, BusinessRulesTestHelper.BR_DATA_2);
+
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_4,
+            BusinessRulesTestHelper.BR_IDENTIFIER_4, BusinessRulesTestHelper.BR_COUNTRY_4,
+            BusinessRulesTestHelper.BR_VERSION_4, BusinessRulesTestHelper.BR_DATA_4);
+
+        String expectedJson = "[{\"identifier\":\"VR-DE-1\",\"version\":\"2.0.0\",\"country\":\"DE\","
+            + "\"hash\":\"" + BusinessRulesTestHelper.BR_HASH_4 + "\"},"
+            + "{\"identifier\":\"VR-DE-2\",\"version\":\"1.0.0\",\"country\":\"DE\","
+            + "\"hash\":\"" + BusinessRulesTestHelper.BR_HASH_2 + "\"}]";
+
+        mockMvc.perform(get("/rules/de/applicable")
+            .param("validAt", "2021-07-01T00:00:00Z")
+            .param("certificateType", "Vaccination")
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andExpect(content().json(expectedJson, true));
+
+        mockMvc.perform(get("/rules/DE/applicable")
+            .param("validAt", "2021-06-01T00:00:00Z")
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andExpect(content().json("[{\"identifier\":\"VR-DE-2\"}]"));
+
+        mockMvc.perform(get("/rules/DE/applicable")
+            .param("validAt", "2021-07-01T00:00:00Z")
+            .param("certificateType", "Test")
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andExpect(content().json("[]", true));
+
+        mockMvc.perform(get("/rules/DE/applicable")
+            .param("validAt", "yesterday")
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void evaluateRules() throws Exception {
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_1,
+            BusinessRulesTestHelper.BR_IDENTIFIER_1, BusinessRulesTestHelper.BR_COUNTRY_1,
+            BusinessRulesTestHelper.BR_VERSION_1, BusinessRulesTestHelper.BR_DATA_1);
+
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_2,
+            BusinessRulesTestHelper.BR_IDENTIFIER_2, BusinessRulesTestHelper.BR_COUNTRY_2,
+            BusinessRulesTestHelper.BR_VERSION_2, BusinessRulesTestHelper.BR_DATA_2);
+
+        mockMvc.perform(post("/rules/de/evaluate")
+            .header(API_VERSION_HEADER, "1.0")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"payload\":{\"v\":[{\"mp\":\"EU/1/20/1528\"}]},"
+                + "\"validationClock\":\"2021-09-01T00:00:00Z\"}"))
+            .andExpect(status().isOk())
+            .andExpect(content().json("{\"result\":\"PASSED\",\"results\":[{\"identifier\":\"VR-DE-2\","
+                + "\"result\":\"PASSED\",\"description\":\"Just the following vaccines are valid: Moderna,"
+                + "AstraZeneca,Biontech, J&J\"}]}"));
+
+        mockMvc.perform(post("/rules/DE/evaluate")
+            .header(API_VERSION_HEADER, "1.0")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"payload\":{\"v\":[{\"mp\":\"EU/1/21/1618\",\"dn\":1,"
+                + "\"dt\":\"2021-06-02\"}]},\"validationClock\":\"2021-07-01T00:00:00Z\"}"))
+            .andExpect(status().isOk())
+            .andExpect(content().json("{\"result\":\"FAIL\",\"results\":["
+                + "{\"identifier\":\"VR-DE-1\",\"result\":\"OPEN\"},"
+                + "{\"identifier\":\"VR-DE-2\",\"result\":\"FAIL\"}]}"));
+
+        mockMvc.perform(post("/rules/DE/evaluate")
+            .header(API_VERSION_HEADER, "1.0")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"validationClock\":\"2021-07-01T00:00:00Z\"}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void evaluateRuleBatch() throws Exception {
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_2,
+            BusinessRulesTestHelper.BR_IDENTIFIER_2, BusinessRulesTestHelper.BR_COUNTRY_2,
+            BusinessRulesTestHelper.BR_VERSION_2, BusinessRulesTestHelper.BR_DATA_2);
+
+        String items = "{\"id\":\"a\",\"payload\":{\"v\":[{\"mp\":\"EU/1/20/1528\"}]}}\n"
+            + "not json\n"
+            + "\n"
+            + "{\"id\":\"b\",\"payload\":{\"v\":[{\"mp\":\"EU/1/21/1618\"}]}}\n"
+            + "{\"id\":\"c\"}\n";
+
+        MvcResult result = mockMvc.perform(post("/rules/de/evaluate/batch")
+            .header(API_VERSION_HEADER, "1.0")
+            .param("validationClock", "2021-09-01T00:00:00Z")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .content(items))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        Map<Long, JsonNode> results = new HashMap<>();
+        for (String line : body.split("\n")) {
+            JsonNode item = objectMapper.readTree(line);
+            results.put(item.get("line").asLong(), item);
+        }
+        Assertions.assertEquals(Set.of(1L, 2L, 4L, 5L), results.keySet());
+        Assertions.assertEquals("a", results.get(1L).get("id").asText());
+        Assertions.assertEquals("PASSED", results.get(1L).get("result").asText());
+        Assertions.assertEquals("VR-DE-2", results.get(1L).get("results").get(0).get("identifier").asText());
+        Assertions.assertTrue(results.get(2L).has("error"));
+        Assertions.assertEquals("b", results.get(4L).get("id").asText());
+        Assertions.assertEquals("FAIL", results.get(4L).get("result").asText());
+        Assertions.assertEquals("c", results.get(5L).get("id").asText());
+        Assertions.assertTrue(results.get(5L).has("error"));
+
+        mockMvc.perform(post("/rules/de/evaluate/batch")
+            .header(API_VERSION_HEADER, "1.0")
+            .param("validationClock", "yesterday")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .content(items))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -22,6 +22,7 @@ package eu.europa.ec.dgc.businessrule.restapi.controller;
 
 import eu.europa.ec.dgc.businessrule.entity.CountryListEntity;
 import eu.europa.ec.dgc.businessrule.repository.CountryListRepository;
+import eu.europa.ec.dgc.businessrule.service.CountryListService;
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayCountryListDownloadConnector;
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayValidationRuleDownloadConnector;
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayValueSetDownloadConnector;
@@ -33,6 +34,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -48,6 +50,8 @@ class CountryListControllerIntegrationTest {
         + "\"CZ\", \"FR\", \"HU\", \"SI\", \"DK\", \"HR\", \"MT\", \"SK\", \"DE\", \"IT\", \"NL\", \"FI\", \"EE\", "
         + "\"CY\", \"AT\", \"SE\", \"IE\", \"LV\", \"PL\"]";
 
+    private static final String TEST_LIST_HASH = "4f2a9c1c3e8f5e0d3b3a7f6c5d4e3f2a1b0c9d8e7f6a5b4c3d2e1f0a9b8c7d6e";
+
     @MockBean
     DgcGatewayValidationRuleDownloadConnector dgcGatewayValidationRuleDownloadConnector;
 
@@ -60,10 +64,14 @@ class CountryListControllerIntegrationTest {
     @Autowired
     CountryListRepository countryListRepository;
 
+    @Autowired
+    CountryListService countryListService;
+
     @BeforeEach
     void clearRepositoryData()  {
         countryListRepository.deleteAll();
-        cacheManager.getCache("country_list").clear();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        countryListService.countryListServiceInit();
     }
 
     @Autowired
@@ -85,13 +93,22 @@ class CountryListControllerIntegrationTest {
 
         CountryListEntity cle = new CountryListEntity(COUNTRY_LIST_ID, TEST_LIST_DATA,null,null);
         countryListRepository.save(cle);
+        countryListService.countryListServiceInit();
 
         mockMvc.perform(get("/countrylist"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(content().json(TEST_LIST_DATA));
     }
-}
-
 
+    @Test
+    void getCountryListNotModified() throws Exception {
+        CountryListEntity cle = new CountryListEntity(COUNTRY_LIST_ID, TEST_LIST_DATA, TEST_LIST_HASH, null);
+        countryListRepository.save(cle);
+        countryListService.countryListServiceInit();
 
+        mockMvc.perform(get("/countrylist").header(HttpHeaders.IF_NONE_MATCH, "\"" + TEST_LIST_HASH + "\""))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+}
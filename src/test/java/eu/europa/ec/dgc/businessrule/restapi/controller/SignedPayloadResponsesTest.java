@@ -0,0 +1,32 @@
+package eu.europa.ec.dgc.businessrule.restapi.controller;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SignedPayloadResponsesTest {
+
+    @Test
+    void acceptsGzip() {
+        Assertions.assertTrue(SignedPayloadResponses.acceptsGzip("gzip"));
+        Assertions.assertTrue(SignedPayloadResponses.acceptsGzip("deflate, gzip;q=0.8"));
+        Assertions.assertTrue(SignedPayloadResponses.acceptsGzip("*"));
+        Assertions.assertFalse(SignedPayloadResponses.acceptsGzip(null));
+        Assertions.assertFalse(SignedPayloadResponses.acceptsGzip("deflate, br"));
+        Assertions.assertFalse(SignedPayloadResponses.acceptsGzip("gzip;q=x"));
+    }
+
+    @Test
+    void zeroQualityRejectsGzip() {
+        Assertions.assertFalse(SignedPayloadResponses.acceptsGzip("gzip;q=0"));
+        Assertions.assertFalse(SignedPayloadResponses.acceptsGzip("*;q=0"));
+        Assertions.assertFalse(SignedPayloadResponses.acceptsGzip("gzip;q=0.0, deflate"));
+    }
+
+    @Test
+    void explicitGzipTakesPrecedenceOverWildcard() {
+        Assertions.assertFalse(SignedPayloadResponses.acceptsGzip("*;q=0.5, gzip;q=0"));
+        Assertions.assertFalse(SignedPayloadResponses.acceptsGzip("gzip;q=0, *"));
+        Assertions.assertTrue(SignedPayloadResponses.acceptsGzip("*;q=0, gzip"));
+        Assertions.assertTrue(SignedPayloadResponses.acceptsGzip("gzip;q=0.5, *;q=0"));
+    }
+}
@@ -20,8 +20,11 @@
 
 package eu.europa.ec.dgc.businessrule.restapi.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.europa.ec.dgc.businessrule.entity.ListType;
 import eu.europa.ec.dgc.businessrule.entity.SignedListEntity;
+import eu.europa.ec.dgc.businessrule.repository.SignedListHistoryRepository;
 import eu.europa.ec.dgc.businessrule.repository.SignedListRepository;
 import eu.europa.ec.dgc.businessrule.repository.ValueSetRepository;
 import eu.europa.ec.dgc.businessrule.service.BusinessRuleService;
@@ -32,6 +35,9 @@ import eu.europa.ec.dgc.businessrule.testdata.BusinessRulesTestHelper;
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayCountryListDownloadConnector;
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayValidationRuleDownloadConnector;
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayValueSetDownloadConnector;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,9 +46,14 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -79,14 +90,21 @@ class ValueSetControllerIntegrationTest {
     @Autowired
     private SignedListRepository signedListRepository;
 
+    @Autowired
+    private SignedListHistoryRepository signedListHistoryRepository;
+
     @Autowired
     CacheManager cacheManager;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
     @BeforeEach
     void clearRepositoryData()  {
         valueSetRepository.deleteAll();
         signedListRepository.deleteAll();
-        cacheManager.getCache( "value_sets").clear();
+        signedListHistoryRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
         valueSetService.valueSetServiceInit();
     }
 
@@ -180,5 +198,156 @@ class ValueSetControllerIntegrationTest {
 
     }
 
+    @Test
+    void getValueSetNotModified() throws Exception {
+        businessRulesTestHelper.insertValueSet(BusinessRulesTestHelper.VALUESET_HASH_1,
+            BusinessRulesTestHelper.VALUESET_IDENTIFIER_1,
+            BusinessRulesTestHelper.VALUESET_DATA_1);
+
+        mockMvc.perform(get("/valuesets/" + BusinessRulesTestHelper.VALUESET_HASH_1)
+            .header(API_VERSION_HEADER, "1.0")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"" + BusinessRulesTestHelper.VALUESET_HASH_1 + "\""))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    void getValueSetChanges() throws Exception {
+        businessRulesTestHelper.insertValueSet(BusinessRulesTestHelper.VALUESET_HASH_1,
+            BusinessRulesTestHelper.VALUESET_IDENTIFIER_1,
+            BusinessRulesTestHelper.VALUESET_DATA_1);
+
+        String since = mockMvc.perform(get("/valuesets").header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG).replace("\"", "");
+
+        businessRulesTestHelper.insertValueSet(BusinessRulesTestHelper.VALUESET_HASH_2,
+            BusinessRulesTestHelper.VALUESET_IDENTIFIER_2,
+            BusinessRulesTestHelper.VALUESET_DATA_2);
+
+        String expectedJson = "{\"since\":\"" + since + "\",\"fullList\":false,"
+            + "\"added\":[{\"id\":\"" + BusinessRulesTestHelper.VALUESET_IDENTIFIER_2 + "\","
+            + "\"hash\":\"" + BusinessRulesTestHelper.VALUESET_HASH_2 + "\"}],"
+            + "\"removed\":[]}";
+
+        mockMvc.perform(get("/valuesets/changes").param("since", since).header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(content().json(expectedJson));
+    }
+
+    @Test
+    void getValueSetChangesUnknownVersion() throws Exception {
+        businessRulesTestHelper.insertValueSet(BusinessRulesTestHelper.VALUESET_HASH_1,
+            BusinessRulesTestHelper.VALUESET_IDENTIFIER_1,
+            BusinessRulesTestHelper.VALUESET_DATA_1);
+
+        String expectedJson = "{\"fullList\":true,"
+            + "\"added\":[{\"id\":\"" + BusinessRulesTestHelper.VALUESET_IDENTIFIER_1 + "\","
+            + "\"hash\":\"" + BusinessRulesTestHelper.VALUESET_HASH_1 + "\"}],"
+            + "\"removed\":[]}";
+
+        mockMvc.perform(get("/valuesets/changes").param("since", BusinessRulesTestHelper.VALUESET_HASH_2)
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(content().json(expectedJson));
+    }
 
-}
\ No newline at end of file
+    @Test
+    void getValueSetBatch() throws Exception {
+        businessRulesTestHelper.insertValueSet(BusinessRulesTestHelper.VALUESET_HASH_2,
+            BusinessRulesTestHelper.VALUESET_IDENTIFIER_2,
+            BusinessRulesTestHelper.VALUESET_DATA_2);
+
+        MvcResult result = mockMvc.perform(post("/valuesets/batch")
+            .header(API_VERSION_HEADER, "1.0")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[\"" + BusinessRulesTestHelper.VALUESET_HASH_1 + "\",\""
+                + BusinessRulesTestHelper.VALUESET_HASH_2 + "\"]"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(1, lines.length);
+
+        JsonNode item = objectMapper.readTree(lines[0]);
+        Assertions.assertFalse(item.has("country"));
+        Assertions.assertEquals(BusinessRulesTestHelper.VALUESET_HASH_2, item.get("hash").asText());
+        Assertions.assertEquals(BusinessRulesTestHelper.VALUESET_DATA_2, item.get("data").asText());
+    }
+
+    @Test
+    void getValueSetCode() throws Exception {
+        businessRulesTestHelper.insertValueSet(BusinessRulesTestHelper.VALUESET_HASH_2,
+            BusinessRulesTestHelper.VALUESET_IDENTIFIER_2,
+            BusinessRulesTestHelper.VALUESET_DATA_2);
+
+        mockMvc.perform(get("/valuesets/by-id/vaccines-covid-19-names/codes/EU/1/20/1528")
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isOk())
+            .andExpect(content().json("{\"valueSetId\":\"vaccines-covid-19-names\",\"code\":\"EU/1/20/1528\","
+                + "\"member\":true,\"display\":\"Comirnaty\",\"lang\":\"en\",\"active\":true}"));
+
+        mockMvc.perform(get("/valuesets/by-id/vaccines-covid-19-names/codes/EU/1/20/9999")
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isNotFound())
+            .andExpect(content().json("{\"code\":\"0x00A\"}"));
+
+        mockMvc.perform(get("/valuesets/by-id/unknown/codes/EU/1/20/1528")
+            .header(API_VERSION_HEADER, "1.0"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getValueSetCodes() throws Exception {
+        businessRulesTestHelper.insertValueSet(BusinessRulesTestHelper.VALUESET_HASH_1,
+            BusinessRulesTestHelper.VALUESET_IDENTIFIER_1,
+            BusinessRulesTestHelper.VALUESET_DATA_1);
+        businessRulesTestHelper.insertValueSet(BusinessRulesTestHelper.VALUESET_HASH_2,
+            BusinessRulesTestHelper.VALUESET_IDENTIFIER_2,
+            BusinessRulesTestHelper.VALUESET_DATA_2);
+
+        String keys = "[{\"valueSetId\":\"vaccines-covid-19-names\",\"code\":\"EU/1/20/1528\"},"
+            + "{\"valueSetId\":\"sct-vaccines-covid-19\",\"code\":\"1119349007\"},"
+            + "{\"valueSetId\":\"sct-vaccines-covid-19\",\"code\":\"EU/1/20/1528\"},"
+            + "{\"valueSetId\":\"unknown\",\"code\":\"1119349007\"}]";
+
+        mockMvc.perform(post("/valuesets/codes")
+            .header(API_VERSION_HEADER, "1.0")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(keys))
+            .andExpect(status().isOk())
+            .andExpect(content().json("["
+                + "{\"valueSetId\":\"vaccines-covid-19-names\",\"code\":\"EU/1/20/1528\",\"member\":true,"
+                + "\"display\":\"Comirnaty\"},"
+                + "{\"valueSetId\":\"sct-vaccines-covid-19\",\"code\":\"1119349007\",\"member\":true,"
+                + "\"display\":\"SARS-CoV-2 mRNA vaccine\"},"
+                + "{\"valueSetId\":\"sct-vaccines-covid-19\",\"code\":\"EU/1/20/1528\",\"member\":false},"
+                + "{\"valueSetId\":\"unknown\",\"code\":\"1119349007\",\"member\":false}]"));
+
+        mockMvc.perform(post("/valuesets/codes")
+            .header(API_VERSION_HEADER, "1.0")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[]"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getValueSetCodesMalformedKey() throws Exception {
+        for (String keys : List.of("[null]", "[{\"code\":\"EU/1/20/1528\"}]",
+            "[{\"valueSetId\":\"vaccines-covid-19-names\",\"code\":\" \"}]")) {
+            mockMvc.perform(post("/valuesets/codes")
+                .header(API_VERSION_HEADER, "1.0")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(keys))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json("{\"code\":\"0x004\"}"));
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package eu.europa.ec.dgc.businessrule.service;
 
+import eu.europa.ec.dgc.businessrule.config.CacheConfig;
 import eu.europa.ec.dgc.businessrule.entity.BusinessRuleEntity;
 import eu.europa.ec.dgc.businessrule.entity.ListType;
 import eu.europa.ec.dgc.businessrule.entity.SignedListEntity;
 import eu.europa.ec.dgc.businessrule.model.BusinessRuleItem;
+import eu.europa.ec.dgc.businessrule.model.RulesSnapshot;
+import eu.europa.ec.dgc.businessrule.model.SignedPayload;
+import eu.europa.ec.dgc.businessrule.model.UpdateResult;
 import eu.europa.ec.dgc.businessrule.repository.BusinessRuleRepository;
 import eu.europa.ec.dgc.businessrule.repository.SignedListRepository;
 import eu.europa.ec.dgc.businessrule.testdata.BusinessRulesTestHelper;
@@ -12,9 +16,13 @@ import eu.europa.ec.dgc.gateway.connector.DgcGatewayCountryListDownloadConnector
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayValidationRuleDownloadConnector;
 import eu.europa.ec.dgc.gateway.connector.DgcGatewayValueSetDownloadConnector;
 import eu.europa.ec.dgc.gateway.connector.model.ValidationRule;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +30,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.test.context.ActiveProfiles;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -57,6 +67,18 @@ class BusinessRuleServiceTest {
     @Autowired
     BusinessRulesUtils businessRulesUtils;
 
+    @Autowired
+    DataSnapshotService dataSnapshotService;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    SigningService signingService;
+
     @BeforeEach
     void clearRepositoryData() {
         businessRuleRepository.deleteAll();
@@ -123,9 +145,12 @@ class BusinessRuleServiceTest {
         Item2.setRawData(BusinessRulesTestHelper.BR_DATA_2);
         businessRuleItems.add(Item2);
 
-        businessRuleService.updateBusinessRules(businessRuleItems);
+        UpdateResult updateResult = businessRuleService.updateBusinessRules(businessRuleItems);
 
         Assertions.assertEquals(2, businessRuleRepository.count());
+        Assertions.assertEquals(1, updateResult.getAdded());
+        Assertions.assertEquals(0, updateResult.getRemoved());
+        Assertions.assertEquals(1, updateResult.getUnchanged());
 
         businessRuleItems.remove(0);
 
@@ -145,9 +170,97 @@ class BusinessRuleServiceTest {
         Optional<SignedListEntity> rules = signedListRepository.findById(ListType.Rules);
         assertTrue(rules.isPresent());
         assertNotNull(rules.get().getSignature());
+
+        RulesSnapshot snapshot = dataSnapshotService.getSnapshot().getRules();
+        Assertions.assertEquals(rules.get().getHash(), snapshot.getList().getHash());
+        Assertions.assertEquals(rules.get().getSignature(), snapshot.getList().getSignature());
+        Assertions.assertNull(snapshot.getRule(BusinessRulesTestHelper.BR_COUNTRY_1,
+            businessRulesUtils.calculateHash(BusinessRulesTestHelper.BR_DATA_1)));
+        SignedPayload rule = snapshot.getRule(BusinessRulesTestHelper.BR_COUNTRY_2, resultEntity.getHash());
+        assertNotNull(rule);
+        Assertions.assertEquals(BusinessRulesTestHelper.BR_DATA_2, new String(rule.getBody(), StandardCharsets.UTF_8));
+        Assertions.assertEquals(resultEntity.getSignature(), rule.getSignature());
     }
 
 
+    @Test
+    void updateBusinessRulesKeepsUnavailableCountries() throws Exception {
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_1,
+            BusinessRulesTestHelper.BR_IDENTIFIER_1, BusinessRulesTestHelper.BR_COUNTRY_1,
+            BusinessRulesTestHelper.BR_VERSION_1, BusinessRulesTestHelper.BR_DATA_1);
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_3,
+            BusinessRulesTestHelper.BR_IDENTIFIER_3, BusinessRulesTestHelper.BR_COUNTRY_3,
+            BusinessRulesTestHelper.BR_VERSION_3, BusinessRulesTestHelper.BR_DATA_3);
+
+        BusinessRuleItem businessRuleItem = new BusinessRuleItem();
+        businessRuleItem.setHash(businessRulesUtils.calculateHash(BusinessRulesTestHelper.BR_DATA_3));
+        businessRuleItem.setIdentifier(BusinessRulesTestHelper.BR_IDENTIFIER_3);
+        businessRuleItem.setCountry(BusinessRulesTestHelper.BR_COUNTRY_3);
+        businessRuleItem.setVersion(BusinessRulesTestHelper.BR_VERSION_3);
+        businessRuleItem.setRawData(BusinessRulesTestHelper.BR_DATA_3);
+
+        UpdateResult updateResult = businessRuleService.updateBusinessRules(List.of(businessRuleItem),
+            Set.of(BusinessRulesTestHelper.BR_COUNTRY_1));
+
+        Assertions.assertEquals(2, businessRuleRepository.count());
+        Assertions.assertEquals(0, updateResult.getRemoved());
+
+        businessRuleService.updateBusinessRules(List.of(businessRuleItem));
+
+        Assertions.assertEquals(1, businessRuleRepository.count());
+    }
+
+    @Test
+    void cachedQueriesUseSeparateCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        businessRulesTestHelper.insertBusinessRule(BusinessRulesTestHelper.BR_HASH_1,
+            BusinessRulesTestHelper.BR_IDENTIFIER_1, BusinessRulesTestHelper.BR_COUNTRY_1,
+            BusinessRulesTestHelper.BR_VERSION_1, BusinessRulesTestHelper.BR_DATA_1);
+
+        CaffeineCache listCache = (CaffeineCache) cacheManager.getCache(CacheConfig.BUSINESS_RULES_LIST);
+        assertNotNull(listCache);
+        long misses = listCache.getNativeCache().stats().missCount();
+        long hits = listCache.getNativeCache().stats().hitCount();
+
+        Assertions.assertEquals(1, businessRuleService.getBusinessRulesList().size());
+        Assertions.assertEquals(1, businessRuleService.getBusinessRulesList().size());
+
+        Assertions.assertEquals(misses + 1, listCache.getNativeCache().stats().missCount());
+        Assertions.assertEquals(hits + 1, listCache.getNativeCache().stats().hitCount());
+        Assertions.assertNull(cacheManager.getCache("business_rules"));
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", CacheConfig.BUSINESS_RULES_LIST).meter());
+    }
+
+    @Test
+    void signaturesAreReusedPerHash() {
+        String signature = signingService.computeSignature(BusinessRulesTestHelper.BR_HASH_1);
+        Map<String, String> signatures = signingService.computeSignatures(List.of(BusinessRulesTestHelper.BR_HASH_1,
+            BusinessRulesTestHelper.BR_HASH_2, BusinessRulesTestHelper.BR_HASH_1));
+
+        Assertions.assertEquals(2, signatures.size());
+        Assertions.assertEquals(signature, signatures.get(BusinessRulesTestHelper.BR_HASH_1));
+        Assertions.assertNotEquals(signature, signatures.get(BusinessRulesTestHelper.BR_HASH_2));
+    }
+
+    @Test
+    void metadataOfRulesWithoutTypeIsExtractedOnce() {
+        BusinessRuleEntity rule = new BusinessRuleEntity();
+        rule.setHash(BusinessRulesTestHelper.BR_HASH_1);
+        rule.setIdentifier(BusinessRulesTestHelper.BR_IDENTIFIER_1);
+        rule.setVersion(BusinessRulesTestHelper.BR_VERSION_1);
+        rule.setCountry(BusinessRulesTestHelper.BR_COUNTRY_1);
+        rule.setRawData("{\"CertificateType\":\"Vaccination\"}");
+        businessRuleRepository.save(rule);
+
+        businessRuleService.businessRuleServiceInit();
+
+        Assertions.assertTrue(businessRuleRepository.findAllByTypeIsNull().isEmpty());
+        Assertions.assertEquals(BusinessRulesUtils.UNKNOWN_TYPE,
+            businessRuleRepository.findAll().get(0).getType());
+        Assertions.assertNull(dataSnapshotService.getSnapshot().getRules().getRuleMetadata()
+            .get(BusinessRulesTestHelper.BR_COUNTRY_1).get(0).getType());
+    }
+
     @Test
     void createBusinessRuleItemList() throws Exception{
         List <ValidationRule> validationRules = new ArrayList<>();
@@ -0,0 +1,132 @@
+package eu.europa.ec.dgc.businessrule.service;
+
+import eu.europa.ec.dgc.businessrule.config.DgcConfigProperties;
+import eu.europa.ec.dgc.businessrule.entity.CountryListEntity;
+import eu.europa.ec.dgc.businessrule.model.DataSnapshot;
+import eu.europa.ec.dgc.businessrule.repository.BusinessRuleRepository;
+import eu.europa.ec.dgc.businessrule.repository.CountryListRepository;
+import eu.europa.ec.dgc.businessrule.repository.SignedCountryRuleListRepository;
+import eu.europa.ec.dgc.businessrule.repository.SignedListHistoryRepository;
+import eu.europa.ec.dgc.businessrule.repository.SignedListRepository;
+import eu.europa.ec.dgc.businessrule.repository.ValueSetRepository;
+import eu.europa.ec.dgc.businessrule.utils.BusinessRulesUtils;
+import eu.europa.ec.dgc.gateway.connector.DgcGatewayCountryListDownloadConnector;
+import eu.europa.ec.dgc.gateway.connector.DgcGatewayValidationRuleDownloadConnector;
+import eu.europa.ec.dgc.gateway.connector.DgcGatewayValueSetDownloadConnector;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DataSnapshotServiceTest {
+
+    @MockBean
+    DgcGatewayValidationRuleDownloadConnector dgcGatewayValidationRuleDownloadConnector;
+
+    @MockBean
+    DgcGatewayValueSetDownloadConnector dgcGatewayValueSetDownloadConnector;
+
+    @MockBean
+    DgcGatewayCountryListDownloadConnector dgcGatewayCountryListDownloadConnector;
+
+    @Autowired
+    BusinessRuleRepository businessRuleRepository;
+
+    @Autowired
+    ValueSetRepository valueSetRepository;
+
+    @Autowired
+    SignedListRepository signedListRepository;
+
+    @Autowired
+    SignedListHistoryRepository signedListHistoryRepository;
+
+    @Autowired
+    SignedCountryRuleListRepository signedCountryRuleListRepository;
+
+    @Autowired
+    CountryListRepository countryListRepository;
+
+    @Autowired
+    MappingJackson2HttpMessageConverter jacksonHttpMessageConverter;
+
+    @Autowired
+    BusinessRulesUtils businessRulesUtils;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void clearRepositoryData() {
+        countryListRepository.deleteAll();
+    }
+
+    @Test
+    void parallelPublishesStoreLatestSnapshot() throws Exception {
+        DgcConfigProperties config = new DgcConfigProperties();
+        config.getSnapshotFile().setPath(directory.resolve("snapshot.bin").toString());
+        config.getSnapshotFile().setAllowUnsigned(true);
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch firstWriteReleased = new CountDownLatch(1);
+        SnapshotFileService snapshotFileService = new SnapshotFileService(config, Optional.empty()) {
+            @Override
+            public void write(DataSnapshot snapshot) {
+                if (firstWriteStarted.getCount() > 0) {
+                    firstWriteStarted.countDown();
+                    awaitQuietly(firstWriteReleased);
+                }
+                super.write(snapshot);
+            }
+        };
+        DataSnapshotService service = new DataSnapshotService(businessRuleRepository, valueSetRepository,
+            signedListRepository, signedListHistoryRepository, signedCountryRuleListRepository,
+            countryListRepository, jacksonHttpMessageConverter, businessRulesUtils, transactionManager,
+            snapshotFileService, eventPublisher);
+
+        Thread rules = new Thread(service::publishRules);
+        rules.start();
+        Assertions.assertTrue(firstWriteStarted.await(10, TimeUnit.SECONDS));
+
+        countryListRepository.save(
+            new CountryListEntity(CountryListService.COUNTRY_LIST_ID, "[\"DE\"]", null, null));
+        Thread countryList = new Thread(service::publishCountryList);
+        countryList.start();
+        countryList.join(2000);
+        firstWriteReleased.countDown();
+        rules.join(10000);
+        countryList.join(10000);
+
+        DataSnapshot stored = snapshotFileService.read().orElseThrow();
+        Assertions.assertEquals("[\"DE\"]",
+            new String(service.getSnapshot().getCountryList().getBody(), StandardCharsets.UTF_8));
+        Assertions.assertEquals("[\"DE\"]", new String(stored.getCountryList().getBody(), StandardCharsets.UTF_8));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package eu.europa.ec.dgc.businessrule.service;
+
+import eu.europa.ec.dgc.businessrule.config.CacheConfig;
+import eu.europa.ec.dgc.businessrule.entity.CountryListEntity;
+import eu.europa.ec.dgc.businessrule.repository.CountryListRepository;
+import eu.europa.ec.dgc.businessrule.repository.DataVersionRepository;
+import eu.europa.ec.dgc.gateway.connector.DgcGatewayCountryListDownloadConnector;
+import eu.europa.ec.dgc.gateway.connector.DgcGatewayValidationRuleDownloadConnector;
+import eu.europa.ec.dgc.gateway.connector.DgcGatewayValueSetDownloadConnector;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DataVersionServiceTest {
+
+    @MockBean
+    DgcGatewayValidationRuleDownloadConnector dgcGatewayValidationRuleDownloadConnector;
+
+    @MockBean
+    DgcGatewayValueSetDownloadConnector dgcGatewayValueSetDownloadConnector;
+
+    @MockBean
+    DgcGatewayCountryListDownloadConnector dgcGatewayCountryListDownloadConnector;
+
+    @Autowired
+    DataVersionService dataVersionService;
+
+    @Autowired
+    DataVersionRepository dataVersionRepository;
+
+    @Autowired
+    CountryListService countryListService;
+
+    @Autowired
+    CountryListRepository countryListRepository;
+
+    @Autowired
+    DataSnapshotService dataSnapshotService;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void ownChangesAreNotRefreshedAgain() {
+        long before = countryListVersion();
+
+        countryListService.updateCountryList("[\"AT\"]");
+
+        Assertions.assertEquals(before + 1, countryListVersion());
+        countryListRepository.save(new CountryListEntity(CountryListService.COUNTRY_LIST_ID, "[\"XA\"]", "x", null));
+        dataVersionService.pollVersions();
+        Assertions.assertEquals("[\"AT\"]", servedCountryList());
+    }
+
+    @Test
+    void ownChangesAreNotRefreshedBeforeCommitCallback() {
+        Cache cache = cacheManager.getCache(CacheConfig.COUNTRY_LIST);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // registered first, so the poll runs before the callbacks of markChanged
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put("probe", "probe");
+                    dataVersionService.pollVersions();
+                }
+            });
+            dataVersionService.markChanged(DataVersionService.COUNTRY_LIST);
+        });
+
+        Assertions.assertNotNull(cache.get("probe"));
+        dataVersionService.pollVersions();
+        Assertions.assertNotNull(cache.get("probe"));
+        cache.evict("probe");
+    }
+
+    @Test
+    void changesOfOtherInstancesAreRefreshed() {
+        countryListService.updateCountryList("[\"BE\"]");
+        Assertions.assertEquals("[\"BE\"]", countryListService.getCountryList().getRawData());
+
+        // Another instance stores a new country list and increments the version.
+        countryListRepository.save(new CountryListEntity(CountryListService.COUNTRY_LIST_ID, "[\"XB\"]", "x", null));
+        dataVersionRepository.incrementVersion(DataVersionService.COUNTRY_LIST, ZonedDateTime.now());
+
+        dataVersionService.pollVersions();
+
+        Assertions.assertEquals("[\"XB\"]", servedCountryList());
+        Assertions.assertEquals("[\"XB\"]", countryListService.getCountryList().getRawData());
+    }
+
+    private long countryListVersion() {
+        return dataVersionRepository.findById(DataVersionService.COUNTRY_LIST).orElseThrow().getVersion();
+    }
+
+    private String servedCountryList() {
+        return new String(dataSnapshotService.getSnapshot().getCountryList().getBody(), StandardCharsets.UTF_8);
+    }
+}
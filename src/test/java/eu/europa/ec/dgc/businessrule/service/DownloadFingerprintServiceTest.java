@@ -0,0 +1,68 @@
+package eu.europa.ec.dgc.businessrule.service;
+
+import eu.europa.ec.dgc.businessrule.repository.DownloadFingerprintRepository;
+import eu.europa.ec.dgc.gateway.connector.DgcGatewayCountryListDownloadConnector;
+import eu.europa.ec.dgc.gateway.connector.DgcGatewayValidationRuleDownloadConnector;
+import eu.europa.ec.dgc.gateway.connector.DgcGatewayValueSetDownloadConnector;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DownloadFingerprintServiceTest {
+
+    @MockBean
+    DgcGatewayValidationRuleDownloadConnector dgcGatewayValidationRuleDownloadConnector;
+
+    @MockBean
+    DgcGatewayValueSetDownloadConnector dgcGatewayValueSetDownloadConnector;
+
+    @MockBean
+    DgcGatewayCountryListDownloadConnector dgcGatewayCountryListDownloadConnector;
+
+    @Autowired
+    DownloadFingerprintService downloadFingerprintService;
+
+    @Autowired
+    DownloadFingerprintRepository downloadFingerprintRepository;
+
+    @BeforeEach
+    void clearRepositoryData() {
+        downloadFingerprintRepository.deleteAll();
+    }
+
+    @Test
+    void fingerprintIgnoresOrder() {
+        String fingerprint = downloadFingerprintService.calculateFingerprint(Stream.of("DE\n{}", "AT\n[]"));
+
+        Assertions.assertEquals(fingerprint,
+            downloadFingerprintService.calculateFingerprint(Stream.of("AT\n[]", "DE\n{}")));
+        Assertions.assertNotEquals(fingerprint,
+            downloadFingerprintService.calculateFingerprint(Stream.of("AT\n[]", "DE\n{ }")));
+        Assertions.assertNotEquals(fingerprint,
+            downloadFingerprintService.calculateFingerprint(Stream.of("AT\n[]DE\n{}")));
+    }
+
+    @Test
+    void unchangedAfterSave() {
+        String fingerprint = downloadFingerprintService.calculateFingerprint(Stream.of("DE\n{}"));
+        Assertions.assertFalse(downloadFingerprintService.isUnchanged(DownloadFingerprintService.VALUE_SETS,
+            fingerprint));
+
+        downloadFingerprintService.saveFingerprint(DownloadFingerprintService.VALUE_SETS, fingerprint);
+
+        Assertions.assertTrue(downloadFingerprintService.isUnchanged(DownloadFingerprintService.VALUE_SETS,
+            fingerprint));
+        Assertions.assertFalse(downloadFingerprintService.isUnchanged(DownloadFingerprintService.BUSINESS_RULES,
+            fingerprint));
+        Assertions.assertFalse(downloadFingerprintService.isUnchanged(DownloadFingerprintService.VALUE_SETS,
+            downloadFingerprintService.calculateFingerprint(Stream.of("DE\n{ }"))));
+    }
+}
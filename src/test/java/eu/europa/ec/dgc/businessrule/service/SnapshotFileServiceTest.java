@@ -0,0 +1,161 @@
+package eu.europa.ec.dgc.businessrule.service;
+
+import eu.europa.ec.dgc.businessrule.config.DgcConfigProperties;
+import eu.europa.ec.dgc.businessrule.model.DataSnapshot;
+import eu.europa.ec.dgc.businessrule.model.ListChanges;
+import eu.europa.ec.dgc.businessrule.model.RuleFilter;
+import eu.europa.ec.dgc.businessrule.model.RuleMetadata;
+import eu.europa.ec.dgc.businessrule.model.RulesSnapshot;
+import eu.europa.ec.dgc.businessrule.model.SignedPayload;
+import eu.europa.ec.dgc.businessrule.model.ValueSetsSnapshot;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotFileServiceTest {
+
+    @TempDir
+    Path directory;
+
+    Path file;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("snapshot.bin");
+    }
+
+    @Test
+    void storedSnapshotIsLoaded() {
+        SnapshotFileService service = service(Optional.empty());
+        service.write(snapshot());
+
+        DataSnapshot loaded = service.read().orElseThrow();
+
+        Assertions.assertEquals("[\"DE\"]", body(loaded.getCountryList()));
+        Assertions.assertEquals("rule", body(loaded.getRules().getRule("DE", "h1")));
+        Assertions.assertArrayEquals(new byte[] {1, 2}, loaded.getRules().getRule("DE", "h1").getGzipBody());
+        Assertions.assertEquals("sig", loaded.getRules().getRule("DE", "h1").getSignature());
+        Assertions.assertNull(loaded.getRules().getList().getSignature());
+        Assertions.assertEquals("vs", body(loaded.getValueSets().getValueSet("h2")));
+        Assertions.assertEquals("full", body(loaded.getValueSets().getChanges().getChangesSince(null)));
+        List<RuleMetadata> rules = loaded.getRules().findRules("DE",
+            new RuleFilter(null, null, null, null, Instant.parse("2021-07-01T00:00:00Z")));
+        Assertions.assertEquals(1, rules.size());
+        Assertions.assertEquals("Vaccination", rules.get(0).getCertificateType());
+        Assertions.assertNull(rules.get(0).getEngineVersion());
+    }
+
+    @Test
+    void corruptedFileIsIgnored() throws Exception {
+        SnapshotFileService service = service(Optional.empty());
+        service.write(snapshot());
+
+        byte[] content = Files.readAllBytes(file);
+        content[20] ^= 1;
+        Files.write(file, content);
+
+        Assertions.assertTrue(service.read().isEmpty());
+    }
+
+    @Test
+    void fileSignedWithOtherKeyIsIgnored() throws Exception {
+        service(Optional.of(new TestSigningService())).write(snapshot());
+
+        Assertions.assertTrue(service(Optional.of(new TestSigningService())).read().isEmpty());
+        Assertions.assertTrue(service(Optional.empty()).read().isPresent());
+    }
+
+    @Test
+    void unsignedFileIsIgnoredByDefault() {
+        service(Optional.empty()).write(snapshot());
+
+        DgcConfigProperties config = new DgcConfigProperties();
+        config.getSnapshotFile().setPath(file.toString());
+        Assertions.assertTrue(new SnapshotFileService(config, Optional.empty()).read().isEmpty());
+    }
+
+    @Test
+    void signedFileIsLoaded() throws Exception {
+        SnapshotFileService service = service(Optional.of(new TestSigningService()));
+        service.write(snapshot());
+
+        Assertions.assertTrue(service.read().isPresent());
+    }
+
+    @Test
+    void nothingIsStoredInReadOnlyMode() {
+        DgcConfigProperties config = new DgcConfigProperties();
+        config.getSnapshotFile().setPath(file.toString());
+        config.setReadOnly(true);
+        new SnapshotFileService(config, Optional.empty()).write(snapshot());
+
+        Assertions.assertFalse(Files.exists(file));
+    }
+
+    private SnapshotFileService service(Optional<SigningService> signingService) {
+        DgcConfigProperties config = new DgcConfigProperties();
+        config.getSnapshotFile().setPath(file.toString());
+        config.getSnapshotFile().setAllowUnsigned(true);
+        return new SnapshotFileService(config, signingService);
+    }
+
+    private static DataSnapshot snapshot() {
+        SignedPayload list = SignedPayload.of("[]", "h0", null);
+        ListChanges changes = new ListChanges(Collections.emptyMap(), SignedPayload.of("full", "h3", null));
+        SignedPayload rule = SignedPayload.of("rule", "h1", "sig").withGzipBody(new byte[] {1, 2});
+        return new DataSnapshot(
+            new RulesSnapshot(list, changes, Map.of("DE", list), Map.of("DE", Map.of("h1", rule)), list,
+                Map.of("DE", List.of(new RuleMetadata("VR-DE-1", "1.0.0", "DE", "h1", "Acceptance", "Vaccination",
+                    "CERTLOGIC", null, Instant.parse("2021-06-01T00:00:00Z"), null)))),
+            new ValueSetsSnapshot(list, changes, Map.of("h2", SignedPayload.of("vs", "h2", null))),
+            SignedPayload.of("[\"DE\"]", "h4", null));
+    }
+
+    private static String body(SignedPayload payload) {
+        return new String(payload.getBody(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Signs with a new key per instance, so files of other instances can not be verified.
+     */
+    private static class TestSigningService implements SigningService {
+
+        private final KeyPair keyPair;
+
+        TestSigningService() throws Exception {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(256);
+            keyPair = generator.generateKeyPair();
+        }
+
+        @Override
+        public String computeSignature(String hash) {
+            try {
+                Signature signature = Signature.getInstance("SHA256withECDSA");
+                signature.initSign(keyPair.getPrivate());
+                signature.update(hash.getBytes(StandardCharsets.UTF_8));
+                return Base64.getEncoder().encodeToString(signature.sign());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public String getPublicKey() {
+            return Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package eu.europa.ec.dgc.businessrule.service;
+
+import eu.europa.ec.dgc.businessrule.model.UpdateResult;
+import eu.europa.ec.dgc.gateway.connector.DgcGatewayCountryListDownloadConnector;
+import eu.europa.ec.dgc.gateway.connector.DgcGatewayValidationRuleDownloadConnector;
+import eu.europa.ec.dgc.gateway.connector.DgcGatewayValueSetDownloadConnector;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SyncMetricsServiceTest {
+
+    @MockBean
+    DgcGatewayValidationRuleDownloadConnector dgcGatewayValidationRuleDownloadConnector;
+
+    @MockBean
+    DgcGatewayValueSetDownloadConnector dgcGatewayValueSetDownloadConnector;
+
+    @MockBean
+    DgcGatewayCountryListDownloadConnector dgcGatewayCountryListDownloadConnector;
+
+    @Autowired
+    SyncMetricsService syncMetricsService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void recordUpdateSetsItemsAndStages() {
+        syncMetricsService.recordUpdate(SyncMetricsService.VALUE_SETS, new UpdateResult(3, 1, 7, 2, 4, 1, 1, 5));
+
+        Assertions.assertEquals(3, itemGauge("added"));
+        Assertions.assertEquals(1, itemGauge("removed"));
+        Assertions.assertEquals(7, itemGauge("unchanged"));
+        Assertions.assertTrue(meterRegistry.get(SyncMetricsService.STAGE_DURATION)
+            .tags("type", SyncMetricsService.VALUE_SETS, "stage", "persist").timer().count() > 0);
+    }
+
+    @Test
+    void recordSuccessResetsLastSuccessAge() {
+        syncMetricsService.recordSuccess(SyncMetricsService.VALUE_SETS);
+
+        Assertions.assertTrue(meterRegistry.get(SyncMetricsService.LAST_SUCCESS_AGE)
+            .tag("type", SyncMetricsService.VALUE_SETS).gauge().value() < 60);
+    }
+
+    @Test
+    void failedFetchIsCountedPerKey() {
+        Timer.Sample sample = syncMetricsService.startTimer();
+        syncMetricsService.recordFetch(sample, SyncMetricsService.RULES, "XA", false);
+
+        Assertions.assertEquals(1, meterRegistry.get(SyncMetricsService.FETCH_FAILURES)
+            .tags("type", SyncMetricsService.RULES, "key", "XA").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get(SyncMetricsService.FETCH_DURATION)
+            .tags("type", SyncMetricsService.RULES, "key", "XA").timer().count());
+    }
+
+    private double itemGauge(String change) {
+        return meterRegistry.get(SyncMetricsService.ITEMS)
+            .tags("type", SyncMetricsService.VALUE_SETS, "change", change).gauge().value();
+    }
+}
@@ -1,6 +1,7 @@
 package eu.europa.ec.dgc.businessrule.service;
 
 import eu.europa.ec.dgc.businessrule.entity.ValueSetEntity;
+import eu.europa.ec.dgc.businessrule.model.UpdateResult;
 import eu.europa.ec.dgc.businessrule.model.ValueSetItem;
 import eu.europa.ec.dgc.businessrule.repository.ValueSetRepository;
 import eu.europa.ec.dgc.businessrule.testdata.BusinessRulesTestHelper;
@@ -120,6 +121,46 @@ class ValueSetServiceTest {
         Assertions.assertEquals(BusinessRulesTestHelper.VALUESET_DATA_2, resultEntity.getRawData());
     }
 
+    @Test
+    void updateValueSetsCollapsesDuplicates()  {
+        businessRulesTestHelper.insertValueSet(BusinessRulesTestHelper.VALUESET_HASH_1,
+            BusinessRulesTestHelper.VALUESET_IDENTIFIER_1, BusinessRulesTestHelper.VALUESET_DATA_1);
+
+        List<ValueSetItem> items = new ArrayList<>();
+
+        ValueSetItem item = new ValueSetItem();
+        item.setHash(BusinessRulesTestHelper.VALUESET_HASH_1);
+        item.setId(BusinessRulesTestHelper.VALUESET_IDENTIFIER_1);
+        item.setRawData(BusinessRulesTestHelper.VALUESET_DATA_1);
+
+        items.add(item);
+
+        ValueSetItem item2 = new ValueSetItem();
+        item2.setHash(BusinessRulesTestHelper.VALUESET_HASH_2);
+        item2.setId(BusinessRulesTestHelper.VALUESET_IDENTIFIER_2);
+        item2.setRawData(BusinessRulesTestHelper.VALUESET_DATA_2);
+
+        // the gateway delivers the same value set twice, it must only be stored once
+        items.add(item2);
+        items.add(item2);
+
+        UpdateResult result1 = valueSetService.updateValueSets(items);
+
+        Assertions.assertEquals(2, valueSetRepository.count());
+        Assertions.assertEquals(1, result1.getAdded());
+        Assertions.assertEquals(0, result1.getRemoved());
+        Assertions.assertEquals(1, result1.getUnchanged());
+
+        items.remove(0);
+
+        UpdateResult result2 = valueSetService.updateValueSets(items);
+
+        Assertions.assertEquals(1, valueSetRepository.count());
+        Assertions.assertEquals(0, result2.getAdded());
+        Assertions.assertEquals(1, result2.getRemoved());
+        Assertions.assertEquals(1, result2.getUnchanged());
+    }
+
 
     @Test
     void createValueSetItemListFromMap() throws Exception{
@@ -0,0 +1,26 @@
+package eu.europa.ec.dgc.businessrule.utils;
+
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadsTest {
+
+    @Test
+    void virtualThreadsDependOnRuntime() throws Exception {
+        boolean supported = Runtime.version().feature() >= 21;
+        Assertions.assertEquals(supported, VirtualThreads.isAvailable());
+
+        if (supported) {
+            ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+            try {
+                Assertions.assertTrue(executor.submit(() -> Thread.currentThread().getName()).get()
+                    .startsWith("test-"));
+            } finally {
+                executor.shutdown();
+            }
+        } else {
+            Assertions.assertThrows(IllegalStateException.class, () -> VirtualThreads.newThreadPerTaskExecutor("x"));
+        }
+    }
+}
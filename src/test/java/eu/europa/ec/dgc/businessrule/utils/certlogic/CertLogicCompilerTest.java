@@ -0,0 +1,98 @@
+package eu.europa.ec.dgc.businessrule.utils.certlogic;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CertLogicCompilerTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String DATA = "{"
+        + "\"payload\":{\"dob\":\"1964-08\",\"v\":[{\"dn\":2,\"sd\":2,\"mp\":\"EU/1/20/1528\",\"dt\":\"2021-05-29\","
+        + "\"ci\":\"URN:UVCI:01DE/IZ12345A/5CWLU12RNOB9RXSEOP6FG8#W\"}]},"
+        + "\"external\":{\"validationClock\":\"2021-07-01T12:00:00+02:00\","
+        + "\"valueSets\":{\"vaccines-covid-19-names\":[\"EU/1/20/1528\",\"EU/1/20/1507\"]}}"
+        + "}";
+
+    @Test
+    void evaluatesVarPaths() throws Exception {
+        Assertions.assertEquals("EU/1/20/1528", evaluate("{\"var\":\"payload.v.0.mp\"}"));
+        Assertions.assertEquals(2, evaluate("{\"var\":\"payload.v.0.dn\"}"));
+        Assertions.assertNull(evaluate("{\"var\":\"payload.v.1.mp\"}"));
+        Assertions.assertNull(evaluate("{\"var\":\"payload.t.0.tt\"}"));
+        Assertions.assertNull(evaluate("{\"var\":\"payload.v.mp\"}"));
+    }
+
+    @Test
+    void evaluatesLogicalOperations() throws Exception {
+        Assertions.assertEquals(true, evaluate("{\"and\":[{\">=\":[{\"var\":\"payload.v.0.dn\"},1]},"
+            + "{\"===\":[{\"var\":\"payload.v.0.dn\"},{\"var\":\"payload.v.0.sd\"}]}]}"));
+        Assertions.assertNull(evaluate("{\"and\":[{\"var\":\"payload.t\"},{\"var\":\"payload.unknown.x\"}]}"));
+        Assertions.assertEquals("v", evaluate("{\"if\":[{\"var\":\"payload.v.0\"},\"v\",\"none\"]}"));
+        Assertions.assertEquals(true, evaluate("{\"!\":[{\"var\":\"payload.r\"}]}"));
+        Assertions.assertEquals(true, evaluate("{\"<\":[0,{\"var\":\"payload.v.0.dn\"},3]}"));
+        Assertions.assertEquals(false, evaluate("{\">\":[{\"+\":[{\"var\":\"payload.v.0.dn\"},1]},3]}"));
+        Assertions.assertEquals(true, evaluate("{\"in\":[{\"var\":\"payload.v.0.mp\"},"
+            + "{\"var\":\"external.valueSets.vaccines-covid-19-names\"}]}"));
+        Assertions.assertEquals(false, evaluate("{\"in\":[\"EU/1/21/1529\",[\"EU/1/20/1528\"]]}"));
+    }
+
+    @Test
+    void evaluatesDateOperations() throws Exception {
+        Assertions.assertEquals(true, evaluate("{\"not-before\":[{\"plusTime\":[{\"var\":\"external.validationClock\"},"
+            + "0,\"day\"]},{\"plusTime\":[{\"var\":\"payload.v.0.dt\"},14,\"day\"]}]}"));
+        Assertions.assertEquals(false, evaluate("{\"before\":[{\"plusTime\":[{\"var\":\"payload.v.0.dt\"},1,"
+            + "\"month\"]},{\"plusTime\":[\"2021-06-29T00:00:00Z\",0,\"day\"]}]}"));
+        Assertions.assertEquals(Instant.parse("2021-07-01T10:00:00Z"),
+            evaluate("{\"plusTime\":[{\"var\":\"external.validationClock\"},0,\"hour\"]}"));
+        Assertions.assertEquals(Instant.parse("1964-08-31T00:00:00Z"),
+            evaluate("{\"dccDateOfBirth\":[{\"var\":\"payload.dob\"}]}"));
+    }
+
+    @Test
+    void parsesDateTimes() {
+        Assertions.assertEquals(Instant.parse("2021-05-29T00:00:00Z"), CertLogicCompiler.parseDateTime("2021-05-29"));
+        Assertions.assertEquals(Instant.parse("2021-05-29T10:15:30Z"),
+            CertLogicCompiler.parseDateTime("2021-05-29T10:15:30"));
+        Assertions.assertEquals(Instant.parse("2021-05-29T10:15:30.120Z"),
+            CertLogicCompiler.parseDateTime("2021-05-29T12:15:30.12+02:00"));
+        Assertions.assertEquals(Instant.parse("2021-05-29T11:45:30Z"),
+            CertLogicCompiler.parseDateTime("2021-05-29T10:15:30-0130"));
+        Assertions.assertEquals(Instant.parse("2021-05-29T08:15:30Z"),
+            CertLogicCompiler.parseDateTime("2021-05-29T10:15:30+02"));
+        Assertions.assertThrows(CertLogicException.class, () -> CertLogicCompiler.parseDateTime("2021-02-30"));
+        Assertions.assertThrows(CertLogicException.class, () -> CertLogicCompiler.parseDateTime("2021-05-29T10:15"));
+        Assertions.assertThrows(CertLogicException.class, () -> CertLogicCompiler.parseDateTime("29.05.2021"));
+    }
+
+    @Test
+    void evaluatesReduceAndExtractFromUvci() throws Exception {
+        Assertions.assertEquals(2L, evaluate("{\"reduce\":[{\"var\":\"payload.v\"},"
+            + "{\"+\":[{\"var\":\"accumulator\"},{\"var\":\"current.dn\"}]},0]}"));
+        Assertions.assertEquals(0L, evaluate("{\"reduce\":[{\"var\":\"payload.r\"},{\"var\":\"current\"},0]}"));
+        Assertions.assertEquals("IZ12345A",
+            evaluate("{\"extractFromUVCI\":[{\"var\":\"payload.v.0.ci\"},1]}"));
+        Assertions.assertNull(evaluate("{\"extractFromUVCI\":[{\"var\":\"payload.v.0.ci\"},9]}"));
+    }
+
+    @Test
+    void invalidExpressionsAreRejected() {
+        Assertions.assertThrows(CertLogicException.class, () -> compile("{\"unknown\":[1,2]}"));
+        Assertions.assertThrows(CertLogicException.class, () -> compile("{\"if\":[true,1]}"));
+        Assertions.assertThrows(CertLogicException.class, () -> compile("{\"plusTime\":[\"2021-01-01\",1,\"week\"]}"));
+        Assertions.assertThrows(CertLogicException.class, () -> compile("{\"var\":1}"));
+        Assertions.assertThrows(CertLogicException.class, () -> evaluate("{\"<\":[\"1\",2]}"));
+        Assertions.assertThrows(CertLogicException.class, () -> evaluate("{\"in\":[1,2]}"));
+    }
+
+    private static CertLogicExpression compile(String logic) throws Exception {
+        return CertLogicCompiler.compile(OBJECT_MAPPER.readTree(logic));
+    }
+
+    private static Object evaluate(String logic) throws Exception {
+        return compile(logic).evaluate(OBJECT_MAPPER.readValue(DATA, Map.class));
+    }
+}